@@ -0,0 +1,45 @@
+package com.softcafe.clinic_system.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Turns on Hibernate's second-level cache, backed by bounded Caffeine regions described in
+ * {@code entity-cache.conf}. Staff and patients are cached along with the results of the queries hinted as cacheable
+ */
+@Configuration
+public class EntityCacheConfig {
+    public static final String USERS_REGION = "users";
+    public static final String STAFF_BY_ROLE_REGION = "staff-by-role";
+
+    /**
+     * Each application context gets its own cache manager. The JCache provider would otherwise hand the same
+     * caches to every context of the JVM, whatever database they read
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        return new CacheManagerImpl(new CaffeineCachingProvider(), false, URI.create("classpath:entity-cache.conf"),
+                getClass().getClassLoader(), new Properties());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // The hit ratios come from Hibernate's statistics
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.softcafe.clinic_system.config;
+
+import com.softcafe.clinic_system.services.ReplicaLagService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Keeps a session on the primary for a short while after it writes, so it never reads a replica that hasn't
+ * caught up with its own change. Write requests set a cookie holding the time of the write, and requests
+ * carrying a recent one are pinned to the primary
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "primary-pin";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaLagService replicaLagService;
+    private final long pinWindow;
+    private final long maxLag;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+
+        if (write) {
+            // Set before the body is written, a failed write only costs a few reads on the primary
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            // Beyond the maximum lag every read goes to the primary anyway
+            cookie.setMaxAge((int) Math.ceil(maxLag / 1000.0));
+            response.addCookie(cookie);
+        }
+
+        ReplicaRoutingDataSource.setPinned(write || wroteRecently(request, now));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPinned(false);
+        }
+    }
+
+    /**
+     * A write is recent until the window, or the replica's current lag if that is longer, has passed
+     */
+    private boolean wroteRecently(HttpServletRequest request, long now) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    long wroteAt = Long.parseLong(cookie.getValue());
+                    return now - wroteAt <= Math.max(pinWindow, replicaLagService.getLag());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.softcafe.clinic_system.config;
+
+import com.softcafe.clinic_system.entities.IdAllocation;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Moves the record id sequence past the ids that were generated by the old identity column.
+ * The restart value is only known at run time, which a plain SQL script can't express on every database.
+ * A database baselined from ddl-auto=update has only the identity column's own sequence, so this one is created first
+ */
+@Component
+public class RecordSequenceMigration implements JavaMigration {
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("3");
+    }
+
+    @Override
+    public String getDescription() {
+        return "Align record sequence";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS patient_records_seq START WITH 1 INCREMENT BY "
+                    + IdAllocation.RECORDS);
+
+            long maxId;
+            try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM patient_records")) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+
+            if (maxId == 0) {
+                return;
+            }
+
+            // A whole allocation past the last id, however the pooled optimizer reads the next value
+            statement.execute("ALTER SEQUENCE patient_records_seq RESTART WITH " + (maxId + IdAllocation.RECORDS + 1));
+        }
+    }
+}
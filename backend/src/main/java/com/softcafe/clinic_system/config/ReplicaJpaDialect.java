@@ -0,0 +1,48 @@
+package com.softcafe.clinic_system.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps the reads sent to the replica out of the second-level cache. The cache is shared by every session and only
+ * evicted when the primary changes, so an entry put from a lagging replica would serve the old row after its
+ * eviction. Such transactions still read from the cache, they just don't put into it
+ */
+public class ReplicaJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+
+        if (!definition.isReadOnly() || !ReplicaRoutingDataSource.isReplicaRead()) {
+            return transactionData;
+        }
+
+        // An open-in-view session outlives the transaction, so its cache mode is put back afterwards
+        Session session = getSession(entityManager);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previous);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replica) {
+            replica.session().setCacheMode(replica.previous());
+            super.cleanupTransaction(replica.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previous) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.softcafe.clinic_system.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method in a read-only transaction that the read replica may serve when one is configured.
+ * Meant for list, statistics and report reads that tolerate a few seconds of replication lag
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+public @interface ReplicaRead {
+}
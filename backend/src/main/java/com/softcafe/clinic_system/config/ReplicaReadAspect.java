@@ -0,0 +1,29 @@
+package com.softcafe.clinic_system.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the thread of a {@link ReplicaRead} method. Plain repository calls also run in read-only transactions,
+ * so the transaction alone doesn't tell that a read is allowed to lag
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.softcafe.clinic_system.config.ReplicaRead)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = ReplicaRoutingDataSource.enterReplicaRead();
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.exitReplicaRead(previous);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.softcafe.clinic_system.config;
+
+import com.softcafe.clinic_system.services.ReplicaLagService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the connections between the primary and a read replica when {@code app.datasource.replica.url} is set.
+ * The replica's pool is tuned under {@code app.datasource.replica.hikari}, the primary keeps {@code spring.datasource}
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReplicaRoutingConfig {
+
+    @Value("${app.datasource.replica.url}")
+    private String url;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${app.datasource.replica.pin-window:5000}")
+    private long pinWindow;
+
+    @Value("${app.datasource.replica.max-lag:30000}")
+    private long maxLag;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource);
+    }
+
+    /**
+     * Defers fetching a connection until the first statement, when the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * An open-in-view session would otherwise hold its first connection for the whole request, so each
+     * transaction gives it back and the next one is routed on its own
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Gives the entity manager factory the dialect that keeps replica reads out of the second-level cache
+     */
+    @Bean
+    public static BeanPostProcessor replicaJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaLagService replicaLagService) {
+        return new ReadYourWritesFilter(replicaLagService, pinWindow, maxLag);
+    }
+}
@@ -0,0 +1,100 @@
+package com.softcafe.clinic_system.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections to read-only transactions that asked for the replica, and primary connections to
+ * everything else. The key is looked up when a statement first needs a connection, so it has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    @Getter
+    private final DataSource primary;
+    @Getter
+    private final DataSource replica;
+
+    /**
+     * Set once the replica's lag has been measured, and cleared while it lags too far behind or can't be reached
+     */
+    @Getter
+    @Setter
+    private volatile boolean replicaUsable;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Runs a read that may be served by the replica. It is only sent there inside a read-only transaction
+     *
+     * @param read The read
+     * @return The read's result
+     */
+    public static <T> T readFromReplica(Supplier<T> read) {
+        Boolean previous = enterReplicaRead();
+
+        try {
+            return read.get();
+        } finally {
+            exitReplicaRead(previous);
+        }
+    }
+
+    static Boolean enterReplicaRead() {
+        Boolean previous = REPLICA_READ.get();
+        REPLICA_READ.set(true);
+        return previous;
+    }
+
+    static void exitReplicaRead(Boolean previous) {
+        if (previous == null) {
+            REPLICA_READ.remove();
+        } else {
+            REPLICA_READ.set(previous);
+        }
+    }
+
+    /**
+     * @return Whether the current thread's read-only transactions may be sent to the replica
+     */
+    public static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(REPLICA_READ.get()) && !Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Keeps the current thread's reads on the primary, so a session sees its own recent writes
+     *
+     * @param pinned Whether the thread is pinned
+     */
+    public static void setPinned(boolean pinned) {
+        if (pinned) {
+            PINNED.set(true);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replicaRead = isReplicaRead() && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return replicaRead && replicaUsable ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+}
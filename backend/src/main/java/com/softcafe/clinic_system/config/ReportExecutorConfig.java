@@ -0,0 +1,66 @@
+package com.softcafe.clinic_system.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class ReportExecutorConfig {
+
+    @Value("${app.report.jobs.threads:2}")
+    private int threads;
+
+    @Value("${app.report.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.report.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.count.queue-capacity:100}")
+    private int countQueueCapacity;
+
+    /**
+     * Runs background report jobs on a small fixed pool so that long reports never hold request threads.
+     * Submissions beyond the queue's capacity are rejected instead of piling up
+     */
+    @Bean
+    public ThreadPoolTaskExecutor reportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-job-");
+        return executor;
+    }
+
+    /**
+     * Refreshes the cached list counts one at a time, so background counting never competes with requests
+     * for more than one connection
+     */
+    @Bean
+    public ThreadPoolTaskExecutor countExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(countQueueCapacity);
+        executor.setThreadNamePrefix("row-count-");
+        return executor;
+    }
+
+    /**
+     * Aggregates the date shards of wide reports. It is kept apart from the common pool and the request threads,
+     * and its parallelism should stay below the database connection pool's size
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool reportPool() {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("report-shard-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
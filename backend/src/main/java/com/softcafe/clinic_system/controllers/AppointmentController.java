@@ -1,5 +1,6 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.appointment.AppointmentData;
 import com.softcafe.clinic_system.dto.appointment.AppointmentList;
 import com.softcafe.clinic_system.dto.appointment.NewAppointment;
@@ -114,9 +115,19 @@ public class AppointmentController {
                     example = "1",
                     required = true
             )
-            @PathVariable int page
+            @PathVariable int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByPatient(id, page));
+        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByPatient(id, page, cursor, mode));
     }
 
     @Operation(summary = "Fetch by doctor", description = "Fetches a list of appointments the doctor has attended")
@@ -163,9 +174,19 @@ public class AppointmentController {
                     example = "1",
                     required = true
             )
-            @PathVariable int page
+            @PathVariable int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByDoctor(page, id));
+        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByDoctor(page, id, cursor, mode));
     }
 
     @Operation(summary = "Get by creation range", description = "Fetches a list of appointments created between two dates")
@@ -211,10 +232,20 @@ public class AppointmentController {
                     required = true,
                     example = "1"
             )
-            @PathVariable int page
+            @PathVariable int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
         Util.validatePage(page);
-        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByDateRange(start, end, page));
+        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getByDateRange(start, end, page, cursor, mode));
     }
 
     @Operation(description = "Retrieves a list of all appointments")
@@ -244,9 +275,19 @@ public class AppointmentController {
     @GetMapping
     public ResponseEntity<AppointmentList> fetchAll(
             @Parameter(description = "Page number", example = "1", required = true)
-            @RequestParam("page") @Min(value = 1, message = "Pages start at 1!") int page
+            @RequestParam(value = "page", defaultValue = "1") @Min(value = 1, message = "Pages start at 1!") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getAll(page));
+        return ResponseEntity.status(HttpStatus.OK).body(appointmentService.getAll(page, cursor, mode));
     }
 
     @Operation(summary = "Update appointment")
@@ -317,6 +358,13 @@ public class AppointmentController {
                             schema = @Schema(example = "{\"message\": \"The specified appointment wasn't found!\"}")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "409", description = "Appointment is billed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The specified appointment has billings!\"}")
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500", description = "internal server error",
                     content = @Content(
@@ -1,8 +1,10 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.billing.BillList;
 import com.softcafe.clinic_system.dto.billing.BillingData;
 import com.softcafe.clinic_system.dto.billing.NewBill;
+import com.softcafe.clinic_system.dto.billing.NewPayment;
 import com.softcafe.clinic_system.entities.PaymentStatus;
 import com.softcafe.clinic_system.services.BillingService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -68,9 +70,19 @@ public class BillingController {
             @RequestParam("id") Long id,
             @Parameter(description = "Page number", example = "1")
             @NotNull @Min(value = 1, message = "Page number should be at least 1!")
-            @RequestParam("page") int page
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByPatient(id, page));
+        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByPatient(id, page, cursor, mode));
     }
 
     @Operation(summary = "Fetch by payment method")
@@ -104,9 +116,19 @@ public class BillingController {
             @RequestParam("status") String method,
             @Parameter(description = "Page number", example = "1")
             @NotNull(message = "Provide the page number") @Min(value = 1, message = "Page number should be at least 1!")
-            @RequestParam("page") int page
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByPaymentMethod(method, page));
+        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByPaymentMethod(method, page, cursor, mode));
     }
 
     @Operation(summary = "Fetch by payment status")
@@ -141,9 +163,19 @@ public class BillingController {
             @RequestParam("status") PaymentStatus status,
             @Parameter(description = "Page number", example = "1")
             @NotNull(message = "Provide the page number") @Min(value = 1, message = "Page number should be at least 1!")
-            @RequestParam("page") int page
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByStatus(status, page));
+        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByStatus(status, page, cursor, mode));
     }
 
     @Operation(summary = "Get by date range", description = "Retrieve a list of billings made between two date ranges")
@@ -177,9 +209,19 @@ public class BillingController {
             @Parameter(description = "The end of the date time range", example = "2025-04-09T23:59:59")
             @RequestParam("end") @NotNull LocalDateTime end,
             @Parameter(description = "Page number", example = "1")
-            @RequestParam("page") @NotNull @Min(value = 1, message = "Provide the page number!") int page
+            @RequestParam(value = "page", defaultValue = "1") @NotNull @Min(value = 1, message = "Provide the page number!") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByDateRange(start, end, page));
+        return ResponseEntity.status(HttpStatus.OK).body(billingService.getByDateRange(start, end, page, cursor, mode));
     }
 
     @Operation(summary = "Adds new billing")
@@ -248,6 +290,13 @@ public class BillingController {
                             schema = @Schema(example = "{\"message\": \"The specified patient wasn't found!\"}")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "409", description = "Billing changed since the version being updated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The billing was changed by someone else, reload it and try again!\"}")
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500", description = "Internal server error",
                     content = @Content(
@@ -274,6 +323,59 @@ public class BillingController {
         return ResponseEntity.status(HttpStatus.OK).body(billingService.update(id, update));
     }
 
+    @Operation(summary = "Records a payment", description = "Adds a payment to a billing and updates its status")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Payment successfully recorded",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BillingData.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Missing/invalid amount or the amount exceeds the balance",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The amount exceeds the billing's balance!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404", description = "Billing's details not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The specified billing wasn't found!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409", description = "Billing already paid or cancelled",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The billing is already paid!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred!\"}")
+                    )
+            )
+    })
+    @PostMapping("/{id}/payment")
+    public ResponseEntity<BillingData> pay(
+            @Parameter(description = "Primary key", example = "1", required = true)
+            @NotNull(message = "Provide a valid ID!") @Min(value = 1, message = "ID should be at least 1!")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Payment data",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = NewPayment.class))
+            )
+            @NotNull(message = "Provide the payment's data!") @RequestBody NewPayment payment
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(billingService.pay(id, payment));
+    }
+
     @Operation(summary = "Deletes an existing billing")
     @ApiResponses({
             @ApiResponse(
@@ -1,6 +1,8 @@
 package com.softcafe.clinic_system.controllers;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -19,4 +21,12 @@ public class ExceptionResponseHandler {
         body.put("message", ex.getReason()); // The custom message you threw
         return ResponseEntity.status(ex.getStatusCode()).body(body);
     }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String,String>> optimisticLockingFailureHandler(ObjectOptimisticLockingFailureException ex) {
+        Map<String,String> body = new HashMap<>();
+        body.put("message", "The record was changed by someone else, reload it and try again!");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.test.NewTest;
 import com.softcafe.clinic_system.dto.test.TestData;
 import com.softcafe.clinic_system.dto.test.TestList;
@@ -118,9 +119,19 @@ public class LabTestController {
                     schema = @Schema(example = "2025-12-12T23:59:59"), required = true)
             @RequestParam("end") @NotNull(message = "Provide the ending date!") LocalDateTime end,
             @Parameter(description = "Page number", example = "1", required = true)
-            @RequestParam("page") @Min(value = 1, message = "Pages start from 1!") int page
+            @RequestParam(value = "page", defaultValue = "1") @Min(value = 1, message = "Pages start from 1!") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(testService.getByDateRange(start, end, page));
+        return ResponseEntity.status(HttpStatus.OK).body(testService.getByDateRange(start, end, page, cursor, mode));
     }
 
     @Operation(summary = "Update a test")
@@ -1,8 +1,11 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.patient.ListOfPatients;
 import com.softcafe.clinic_system.dto.patient.NewPatient;
 import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
+import com.softcafe.clinic_system.services.PatientSearchService;
 import com.softcafe.clinic_system.services.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,6 +30,7 @@ import java.util.List;
 @Tag(name = "Patient Controller", description = "Endpoints to the patient model")
 public class PatientController {
     private final PatientService patientService;
+    private final PatientSearchService patientSearchService;
 
     @Operation(summary = "Adds a new patient")
     @ApiResponses({
@@ -147,9 +151,19 @@ public class PatientController {
                     required = true,
                     example = "1"
             )
-            @PathVariable int page
+            @PathVariable int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(200).body(patientService.getByPage(page));
+        return ResponseEntity.status(200).body(patientService.getByPage(page, cursor, mode));
     }
 
     @Operation(summary = "Fetch patient data", description = "Fetches a patient's data provided at least one identifier")
@@ -192,9 +206,62 @@ public class PatientController {
                     description = "National ID number",
                     example = "316353461"
             )
-            @RequestParam(value = "nid", required = false) String nid
+            @RequestParam(value = "nid", required = false) String nid,
+            @Parameter(
+                    description = "Insurance number",
+                    example = "SH3023"
+            )
+            @RequestParam(value = "insurance", required = false) String insurance
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(patientService.get(email, phone, nid, insurance));
+    }
+
+    @Operation(summary = "Search patients", description = "Finds patients by name, phone or insurance number, tolerating a typo per word")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Matching patients, best match first",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = PatientMatch.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Missing query or invalid limit",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Provide a search query!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503", description = "The search index is still loading",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The patient search is still loading, try again shortly!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientMatch>> search(
+            @Parameter(
+                    description = "Words or beginnings of words from the name, phone or insurance number",
+                    required = true,
+                    example = "john do"
+            )
+            @RequestParam(value = "q", required = false) String query,
+            @Parameter(
+                    description = "Maximum number of patients, up to 50",
+                    example = "10"
+            )
+            @RequestParam(value = "limit", defaultValue = "10") int limit
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(patientService.get(email, phone, nid));
+        return ResponseEntity.status(HttpStatus.OK).body(patientSearchService.search(query, limit));
     }
 
     @Operation(summary = "Deletes a patient")
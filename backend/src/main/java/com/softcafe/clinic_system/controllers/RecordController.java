@@ -1,8 +1,12 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.record.NewRecord;
 import com.softcafe.clinic_system.dto.record.RecordData;
 import com.softcafe.clinic_system.dto.record.RecordsList;
+import com.softcafe.clinic_system.dto.search.ClinicalKind;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchResults;
+import com.softcafe.clinic_system.services.ClinicalSearchService;
 import com.softcafe.clinic_system.services.RecordService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,6 +29,7 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class RecordController {
     private final RecordService recordService;
+    private final ClinicalSearchService clinicalSearchService;
 
     @Operation(summary = "Get patient's records")
     @ApiResponses({
@@ -74,9 +79,19 @@ public class RecordController {
                     example = "1",
                     required = true
             )
-            @PathParam("page") int page
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByPatient(id, page));
+        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByPatient(id, page, cursor, mode));
     }
 
     @Operation(summary = "Get records reviewed by a doctor")
@@ -116,10 +131,20 @@ public class RecordController {
             @Parameter(description = "Doctor's primary key", example = "1", required = true)
             @PathVariable @NotNull @Min(value = 1, message = "ID should be at least 1") Long id,
             @Parameter(description = "Page number", example = "1", required = true)
-            @PathParam("page") @NotNull @Min(value = 1, message = "Pages start from 1") int page
+            @RequestParam(value = "page", defaultValue = "1") @NotNull @Min(value = 1, message = "Pages start from 1") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
 
-        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByDoctor(id, page));
+        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByDoctor(id, page, cursor, mode));
     }
 
     @Operation(summary = "Get records created in a date range")
@@ -151,10 +176,82 @@ public class RecordController {
     public ResponseEntity<RecordsList> getByDateRange(
             @PathParam("start") @NotNull(message = "Provide the starting date!") LocalDateTime start,
             @PathParam("end") @NotNull(message = "Provide the ending date!") LocalDateTime end,
-            @PathParam("page") @NotNull(message = "Provide the page number!")
-            @Min(value = 1, message = "Pages start from 1!") int page
+            @RequestParam(value = "page", defaultValue = "1") @NotNull(message = "Provide the page number!")
+            @Min(value = 1, message = "Pages start from 1!") int page,
+            @Parameter(
+                    description = "Cursor returned with the previous page, replaces the page number",
+                    example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+            )
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByDateRange(start, end, page));
+        return ResponseEntity.status(HttpStatus.OK).body(recordService.getByDateRange(start, end, page, cursor, mode));
+    }
+
+    @Operation(summary = "Search the text of records and lab tests")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Matches found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ClinicalSearchResults.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Missing query or invalid page/date details",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Provide a search query!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ClinicalSearchResults> search(
+            @Parameter(description = "Words to look for, quotes match a phrase and a trailing * a prefix", example = "malaria", required = true)
+            @RequestParam(value = "q") String query,
+            @Parameter(description = "Patient's primary key", example = "1")
+            @RequestParam(value = "patientId", required = false) Long patientId,
+            @Parameter(description = "Doctor's primary key", example = "1")
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @Parameter(description = "Earliest creation date", example = "2025-01-01T00:00:00")
+            @RequestParam(value = "start", required = false) LocalDateTime start,
+            @Parameter(description = "Latest creation date", example = "2025-06-30T23:59:59")
+            @RequestParam(value = "end", required = false) LocalDateTime end,
+            @Parameter(description = "Only records or only lab tests", schema = @Schema(implementation = ClinicalKind.class))
+            @RequestParam(value = "kind", required = false) ClinicalKind kind,
+            @Parameter(description = "Page number", example = "1")
+            @RequestParam(value = "page", defaultValue = "1") int page
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(clinicalSearchService.search(query, patientId, doctorId, start, end, kind, page));
+    }
+
+    @Operation(description = "Reindexes every record and lab test for search, in the background")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Rebuild started"),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Void> rebuildSearch() {
+        clinicalSearchService.rebuild();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
     }
 
     @Operation(summary = "Add a new record")
@@ -0,0 +1,152 @@
+package com.softcafe.clinic_system.controllers;
+
+import com.softcafe.clinic_system.dto.report.ReportJobData;
+import com.softcafe.clinic_system.dto.report.manager.ManagerReport;
+import com.softcafe.clinic_system.services.ReportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/report/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Report Job Controller", description = "Exposes endpoints that generate long reports in the background")
+public class ReportJobController {
+    private final ReportJobService reportJobService;
+
+    @Operation(summary = "Queues a manager report", description = "Queues a manager report, joining an identical report that is still being generated")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202", description = "Report queued",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReportJobData.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid dates",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Enter valid start and end dates!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503", description = "Report queue full",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Too many reports are being generated, try again later!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @PostMapping("/manager")
+    public ResponseEntity<ReportJobData> submitManagerReport(
+            @Parameter(description = "The start of date time range", example = "2025-01-01T00:00:00")
+            @RequestParam(name = "start") LocalDateTime start,
+            @Parameter(description = "The end of the date time range", example = "2025-12-31T23:59:59")
+            @RequestParam(name = "end") LocalDateTime end
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(start, end));
+    }
+
+    @Operation(summary = "Fetches a report job's progress")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Job found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReportJobData.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Provide a valid ID!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404", description = "Job not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The specified report job doesn't exist!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobData> getJob(
+            @Parameter(description = "The job's primary key", example = "1", required = true)
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(reportJobService.get(id));
+    }
+
+    @Operation(summary = "Fetches a finished report")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Report found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ManagerReport.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Provide a valid ID!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404", description = "Job not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The specified report job doesn't exist!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409", description = "Report not ready or failed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The report isn't ready yet!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/{id}/result")
+    public ResponseEntity<ManagerReport> getResult(
+            @Parameter(description = "The job's primary key", example = "1", required = true)
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(reportJobService.getResult(id));
+    }
+}
@@ -1,22 +1,41 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.report.CacheStats;
+import com.softcafe.clinic_system.dto.report.RollupCheck;
+import com.softcafe.clinic_system.dto.report.analytics.TopTerms;
+import com.softcafe.clinic_system.dto.report.export.ExportFormat;
 import com.softcafe.clinic_system.dto.report.manager.ManagerReport;
+import com.softcafe.clinic_system.dto.report.timeseries.SeriesGroup;
+import com.softcafe.clinic_system.dto.report.timeseries.TimeBucket;
+import com.softcafe.clinic_system.dto.report.timeseries.TimeSeries;
+import com.softcafe.clinic_system.entities.TermKind;
+import com.softcafe.clinic_system.services.ReportCache;
+import com.softcafe.clinic_system.services.ReportExportService;
 import com.softcafe.clinic_system.services.ReportService;
+import com.softcafe.clinic_system.services.RollupService;
+import com.softcafe.clinic_system.services.TermAnalyticsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 
 @RestController
 @RequestMapping("/api/report")
@@ -24,6 +43,10 @@ import java.time.LocalDateTime;
 @Tag(name = "Report Controller", description = "Exposes endpoints that provide reports")
 public class ReportsController {
     private final ReportService service;
+    private final RollupService rollupService;
+    private final ReportCache reportCache;
+    private final ReportExportService exportService;
+    private final TermAnalyticsService termAnalyticsService;
 
     @Operation(description = "Fetches a report for the manager role")
     @ApiResponses({
@@ -56,4 +79,218 @@ public class ReportsController {
     ) {
         return ResponseEntity.status(HttpStatus.OK).body(service.getManager(start, end));
     }
+
+    @Operation(description = "Fetches billed and paid amounts and appointment counts of a range, split into day, week or month buckets")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Time series found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TimeSeries.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid dates",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Enter valid start and end dates!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeSeries> getTimeSeries(
+            @Parameter(description = "The start of date time range", example = "2025-01-01T00:00:00")
+            @RequestParam(name = "start") LocalDateTime start,
+            @Parameter(description = "The end of the date time range", example = "2025-12-31T23:59:59")
+            @RequestParam(name = "end") LocalDateTime end,
+            @Parameter(description = "Width of the buckets", schema = @Schema(implementation = TimeBucket.class))
+            @RequestParam(name = "bucket", defaultValue = "DAY") TimeBucket bucket,
+            @Parameter(description = "Splits the points per doctor or per payment method", schema = @Schema(implementation = SeriesGroup.class))
+            @RequestParam(name = "groupBy", defaultValue = "NONE") SeriesGroup groupBy
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(service.getTimeSeries(start, end, bucket, groupBy));
+    }
+
+    @Operation(description = "Streams the appointments made in a period as CSV or newline delimited JSON")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Export started",
+                    content = {
+                            @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/x-ndjson")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid dates",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Enter valid start and end dates!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/export/appointments")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @Parameter(description = "The start of date time range", example = "2025-01-01T00:00:00")
+            @RequestParam(name = "start") LocalDateTime start,
+            @Parameter(description = "The end of the date time range", example = "2025-12-31T23:59:59")
+            @RequestParam(name = "end") LocalDateTime end,
+            @Parameter(description = "File format", schema = @Schema(implementation = ExportFormat.class))
+            @RequestParam(name = "format", defaultValue = "CSV") ExportFormat format
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments." + format.extension() + "\"")
+                .body(exportService.exportAppointments(start, end, format));
+    }
+
+    @Operation(description = "Streams the billings made in a period as CSV or newline delimited JSON")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Export started",
+                    content = {
+                            @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/x-ndjson")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid dates",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"Enter valid start and end dates!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/export/billings")
+    public ResponseEntity<StreamingResponseBody> exportBillings(
+            @Parameter(description = "The start of date time range", example = "2025-01-01T00:00:00")
+            @RequestParam(name = "start") LocalDateTime start,
+            @Parameter(description = "The end of the date time range", example = "2025-12-31T23:59:59")
+            @RequestParam(name = "end") LocalDateTime end,
+            @Parameter(description = "File format", schema = @Schema(implementation = ExportFormat.class))
+            @RequestParam(name = "format", defaultValue = "CSV") ExportFormat format
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"billings." + format.extension() + "\"")
+                .body(exportService.exportBillings(start, end, format));
+    }
+
+    @Operation(description = "Fetches the approximate most frequent diagnoses or symptoms of a month")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Terms found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TopTerms.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400", description = "Invalid limit or month",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"The limit should be between 1 and 100!\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/analytics/top")
+    public ResponseEntity<TopTerms> getTopTerms(
+            @Parameter(description = "Diagnoses or symptoms", schema = @Schema(implementation = TermKind.class))
+            @RequestParam(name = "kind", defaultValue = "DIAGNOSIS") TermKind kind,
+            @Parameter(description = "The month, defaults to the current one", example = "2025-05")
+            @RequestParam(name = "month", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @Parameter(description = "Maximum number of terms", example = "20")
+            @RequestParam(name = "limit", defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(termAnalyticsService.top(kind, month == null ? YearMonth.now() : month, limit));
+    }
+
+    @Operation(description = "Recomputes the daily appointment and revenue rollups from the base tables")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Rollups rebuilt"),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<Void> rebuildRollups() {
+        rollupService.rebuild();
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @Operation(description = "Compares the daily rollups against the base tables")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Rollups checked",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RollupCheck.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/rollup/verify")
+    public ResponseEntity<RollupCheck> verifyRollups() {
+        return ResponseEntity.status(HttpStatus.OK).body(new RollupCheck(rollupService.reconcile()));
+    }
+
+    @Operation(description = "Fetches the hit, miss and memory statistics of the daily report cache")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200", description = "Statistics found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CacheStats.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500", description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(example = "{\"message\": \"An error has occurred\"}")
+                    )
+            )
+    })
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(reportCache.stats());
+    }
 }
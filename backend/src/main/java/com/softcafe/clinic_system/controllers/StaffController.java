@@ -1,5 +1,6 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.staff.*;
 import com.softcafe.clinic_system.services.StaffService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -119,9 +120,14 @@ public class StaffController {
                     example = "1",
                     required = true
             )
-            @PathVariable int page
+            @PathVariable int page,
+            @Parameter(
+                    description = "How the total number of pages is reported",
+                    example = "SLICE"
+            )
+            @RequestParam(value = "mode", defaultValue = "PAGE") PageMode mode
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(staffService.getAll(page));
+        return ResponseEntity.status(HttpStatus.OK).body(staffService.getAll(page, mode));
     }
 
     @Operation(summary = "Authenticate users")
@@ -1,7 +1,11 @@
 package com.softcafe.clinic_system.controllers;
 
+import com.softcafe.clinic_system.dto.report.EntityCacheStats;
 import com.softcafe.clinic_system.dto.report.ManagerStats;
 import com.softcafe.clinic_system.dto.report.ReceptionistStats;
+import com.softcafe.clinic_system.dto.report.ReplicaStatus;
+import com.softcafe.clinic_system.services.EntityCacheService;
+import com.softcafe.clinic_system.services.ReplicaLagService;
 import com.softcafe.clinic_system.services.StatisticsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,6 +27,8 @@ import lombok.RequiredArgsConstructor;
 public class StatisticsController {
 
         private final StatisticsService statisticsService;
+        private final ReplicaLagService replicaLagService;
+        private final EntityCacheService entityCacheService;
 
         @Operation(summary = "Get statistics for manager")
         @ApiResponses({
@@ -45,4 +51,24 @@ public class StatisticsController {
         ) {
                 return ResponseEntity.status(HttpStatus.OK).body(statisticsService.getForReceptionist(id));
         }
+
+        @Operation(summary = "Get the read replica's lag", description = "Reports how far the read replica trails the primary and whether it currently serves reads")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Replica state found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReplicaStatus.class))),
+                @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(mediaType = "application/json", schema = @Schema(example = "{\"message\": \"An error has occurred!\"}")))
+        })
+        @GetMapping("/replica")
+        public ResponseEntity<ReplicaStatus> getReplicaStatus() {
+                return ResponseEntity.status(HttpStatus.OK).body(replicaLagService.getStatus());
+        }
+
+        @Operation(summary = "Get the entity cache's statistics", description = "Reports the hit ratio of each second-level cache region and whether evictions from other instances are heard")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Cache statistics found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = EntityCacheStats.class))),
+                @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(mediaType = "application/json", schema = @Schema(example = "{\"message\": \"An error has occurred!\"}")))
+        })
+        @GetMapping("/entity-cache")
+        public ResponseEntity<EntityCacheStats> getEntityCacheStats() {
+                return ResponseEntity.status(HttpStatus.OK).body(entityCacheService.stats());
+        }
 }
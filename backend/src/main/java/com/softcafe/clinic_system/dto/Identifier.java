@@ -0,0 +1,41 @@
+package com.softcafe.clinic_system.dto;
+
+import java.util.Locale;
+
+/**
+ * The unique details a patient or staff member can be found by
+ */
+public enum Identifier {
+    EMAIL("email"),
+    PHONE("phone number"),
+    NATIONAL_ID("national ID number"),
+    USERNAME("username"),
+    INSURANCE_NUMBER("insurance number");
+
+    private final String label;
+
+    Identifier(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return How the identifier is named in messages
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Brings a value to the form it's saved in, emails and usernames are saved in lower case
+     *
+     * @param value The value as given
+     * @return The saved form, null when there's no value
+     */
+    public String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return this == EMAIL || this == USERNAME ? trimmed.toLowerCase(Locale.ROOT) : trimmed;
+    }
+}
@@ -0,0 +1,12 @@
+package com.softcafe.clinic_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "How a list page reports the total number of pages")
+public enum PageMode {
+    @Schema(description = "Counts the matching rows next to every page, so totalPages is exact")
+    PAGE,
+    @Schema(description = "Skips the count and reads one extra row for hasNext. totalPages comes from counts " +
+            "refreshed in the background and is -1 until the first one is ready")
+    SLICE
+}
@@ -0,0 +1,28 @@
+package com.softcafe.clinic_system.dto;
+
+/**
+ * The unique details of a patient or staff member
+ *
+ * @param id              Primary key
+ * @param email           Email address
+ * @param phone           Phone number
+ * @param nationalId      National ID number
+ * @param username        Staff only, null for patients
+ * @param insuranceNumber Patients only, null for staff
+ */
+public record UserIdentifiers(Long id, String email, String phone, String nationalId, String username,
+                              String insuranceNumber) {
+
+    /**
+     * @return The value of one identifier, null when it isn't set
+     */
+    public String get(Identifier identifier) {
+        return switch (identifier) {
+            case EMAIL -> email;
+            case PHONE -> phone;
+            case NATIONAL_ID -> nationalId;
+            case USERNAME -> username;
+            case INSURANCE_NUMBER -> insuranceNumber;
+        };
+    }
+}
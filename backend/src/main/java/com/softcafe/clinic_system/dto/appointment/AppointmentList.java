@@ -13,6 +13,13 @@ public record AppointmentList(
                 schema = @Schema(implementation = AppointmentData.class),
                 arraySchema = @Schema(description = "A list of appointments")
         )
-        List<AppointmentData> appointments
+        List<AppointmentData> appointments,
+        @Schema(
+                description = "Cursor of the next page, null on the last page. Cursor requests skip counting, so totalPages is 0",
+                example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+        )
+        String nextCursor,
+        @Schema(description = "Whether another page follows this one", example = "true")
+        boolean hasNext
 ) {
 }
@@ -13,6 +13,13 @@ public record BillList(
                 schema = @Schema(implementation = BillingData.class),
                 arraySchema = @Schema(description = "A list of billings")
         )
-        List<BillingData> bills
+        List<BillingData> bills,
+        @Schema(
+                description = "Cursor of the next page, null on the last page. Cursor requests skip counting, so totalPages is 0",
+                example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+        )
+        String nextCursor,
+        @Schema(description = "Whether another page follows this one", example = "true")
+        boolean hasNext
 ) {
 }
@@ -15,6 +15,7 @@ public record BillingData(
         double amountPaid,
         PaymentStatus status,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {
 }
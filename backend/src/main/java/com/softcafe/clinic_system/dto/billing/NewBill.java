@@ -19,6 +19,8 @@ public record NewBill(
         @Schema(description = "Total amount paid", example = "250,000")
         Double amountPaid,
         @Schema(description = "Payment status", implementation = PaymentStatus.class)
-        PaymentStatus status
+        PaymentStatus status,
+        @Schema(description = "Version the update was made from, a billing changed since then isn't overwritten", example = "0")
+        Long version
 ) {
 }
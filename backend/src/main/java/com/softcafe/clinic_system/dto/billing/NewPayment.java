@@ -0,0 +1,12 @@
+package com.softcafe.clinic_system.dto.billing;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record NewPayment(
+        @Schema(description = "Amount paid", example = "5,000")
+        @NotNull(message = "Provide the amount paid!") @Positive(message = "The amount paid should be above 0!")
+        Double amount
+) {
+}
@@ -0,0 +1,16 @@
+package com.softcafe.clinic_system.dto.patient;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Patient Match", description = "A patient found by the search, best match first")
+public record PatientMatch(
+        @Schema(description = "Primary key", example = "1")
+        Long id,
+        @Schema(description = "The patient's full legal name", example = "John Doe")
+        String fullName,
+        @Schema(description = "The patient's phone number", example = "0712345678")
+        String phone,
+        @Schema(description = "The patient's insurance number", example = "SHIF-12345")
+        String insuranceNumber
+) {
+}
@@ -13,6 +13,13 @@ public record RecordsList(
                 schema = @Schema(implementation = RecordData.class),
                 arraySchema = @Schema(description = "Record's data")
         )
-        List<RecordData> records
+        List<RecordData> records,
+        @Schema(
+                description = "Cursor of the next page, null on the last page. Cursor requests skip counting, so totalPages is 0",
+                example = "MjAyNS0wMS0xNVQwOTozMDoxMnw0Mg"
+        )
+        String nextCursor,
+        @Schema(description = "Whether another page follows this one", example = "true")
+        boolean hasNext
 ) {
 }
@@ -0,0 +1,18 @@
+package com.softcafe.clinic_system.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Usage statistics of a second-level cache region")
+public record CacheRegionStats(
+        @Schema(description = "Region name", example = "users")
+        String region,
+        @Schema(description = "Lookups answered from the region", example = "950")
+        long hits,
+        @Schema(description = "Lookups that had to query the database", example = "50")
+        long misses,
+        @Schema(description = "Entries written to the region", example = "60")
+        long puts,
+        @Schema(description = "Share of the lookups answered from the region", example = "0.95")
+        double hitRatio
+) {
+}
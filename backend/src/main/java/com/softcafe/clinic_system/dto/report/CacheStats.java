@@ -0,0 +1,22 @@
+package com.softcafe.clinic_system.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Usage statistics of the report cache")
+public record CacheStats(
+        @Schema(description = "Lookups answered from the cache", example = "950")
+        long hits,
+        @Schema(description = "Lookups that had to query the database", example = "50")
+        long misses,
+        @Schema(description = "Entries dropped to stay within the memory budget", example = "0")
+        long evictions,
+        @Schema(description = "Entries dropped because their data changed", example = "12")
+        long invalidations,
+        @Schema(description = "Entries currently cached", example = "365")
+        int entries,
+        @Schema(description = "Estimated heap used by the entries in bytes", example = "120000")
+        long bytes,
+        @Schema(description = "Memory budget in bytes", example = "16777216")
+        long maxBytes
+) {
+}
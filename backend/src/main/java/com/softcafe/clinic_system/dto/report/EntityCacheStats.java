@@ -0,0 +1,16 @@
+package com.softcafe.clinic_system.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "State of the second-level entity cache")
+public record EntityCacheStats(
+        @Schema(description = "Whether the instance currently hears the changes made by other instances", example = "true")
+        boolean listening,
+        @Schema(description = "Entries evicted because another instance changed them", example = "12")
+        long remoteEvictions,
+        @Schema(description = "Statistics of each region")
+        List<CacheRegionStats> regions
+) {
+}
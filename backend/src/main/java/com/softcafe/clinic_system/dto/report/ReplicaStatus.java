@@ -0,0 +1,20 @@
+package com.softcafe.clinic_system.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Replication state of the read replica")
+public record ReplicaStatus(
+        @Schema(description = "Whether a read replica is configured", example = "true")
+        boolean enabled,
+        @Schema(description = "Whether reads are currently sent to the replica", example = "true")
+        boolean serving,
+        @Schema(description = "How far the replica trails the primary in milliseconds, -1 if it couldn't be measured", example = "120")
+        long lagMillis,
+        @Schema(description = "Lag above which reads fall back to the primary in milliseconds", example = "30000")
+        long maxLagMillis,
+        @Schema(description = "When the lag was last measured", example = "2025-01-01T08:00:00")
+        LocalDateTime measuredAt
+) {
+}
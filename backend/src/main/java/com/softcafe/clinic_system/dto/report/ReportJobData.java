@@ -0,0 +1,27 @@
+package com.softcafe.clinic_system.dto.report;
+
+import com.softcafe.clinic_system.entities.JobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "The state of a background manager report")
+public record ReportJobData(
+        @Schema(description = "The job's primary key", example = "1")
+        Long id,
+        @Schema(description = "The job's status", implementation = JobStatus.class)
+        JobStatus status,
+        @Schema(description = "Percentage of the range already computed", example = "40")
+        int progress,
+        @Schema(description = "Start of the report's date range", example = "2025-01-01T00:00:00")
+        LocalDateTime start,
+        @Schema(description = "End of the report's date range", example = "2025-12-31T23:59:59")
+        LocalDateTime end,
+        @Schema(description = "Reason the job failed", example = "null")
+        String error,
+        @Schema(description = "Date submitted", example = "2025-05-24T10:41:56.976249081")
+        LocalDateTime createdAt,
+        @Schema(description = "Date finished", example = "2025-05-24T10:42:03.112049081")
+        LocalDateTime finishedAt
+) {
+}
@@ -0,0 +1,10 @@
+package com.softcafe.clinic_system.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of comparing the daily rollups against the appointments and billings tables")
+public record RollupCheck(
+        @Schema(description = "Number of rollup rows that differ from the base tables", example = "0")
+        long mismatches
+) {
+}
@@ -0,0 +1,21 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+
+import java.time.LocalDate;
+
+/**
+ * A grouped row holding the number of appointments created on a day for a doctor and status
+ *
+ * @param day      Day the appointments were created
+ * @param doctorId Doctor's primary key, null for appointments without a doctor
+ * @param status   Appointment status
+ * @param total    Number of appointments
+ */
+public record DailyAppointmentCount(
+        LocalDate day,
+        Long doctorId,
+        AppointmentStatus status,
+        Long total
+) {
+}
@@ -0,0 +1,25 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+import com.softcafe.clinic_system.entities.PaymentStatus;
+
+import java.time.LocalDate;
+
+/**
+ * A grouped row holding the billing totals of a day for a doctor and payment status
+ *
+ * @param day      Day the bills were created
+ * @param doctorId Doctor's primary key, null for bills without a doctor's appointment
+ * @param status   Payment status
+ * @param bills    Number of bills
+ * @param billed   Total amount billed
+ * @param paid     Total amount paid
+ */
+public record DailyRevenue(
+        LocalDate day,
+        Long doctorId,
+        PaymentStatus status,
+        Long bills,
+        Double billed,
+        Double paid
+) {
+}
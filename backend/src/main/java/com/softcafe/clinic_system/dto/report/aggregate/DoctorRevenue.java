@@ -0,0 +1,13 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+/**
+ * A grouped row holding the amount paid on bills tied to a doctor's appointments
+ *
+ * @param doctorId Doctor's primary key
+ * @param revenue  Total amount paid
+ */
+public record DoctorRevenue(
+        Long doctorId,
+        Double revenue
+) {
+}
@@ -0,0 +1,17 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+
+/**
+ * A grouped row holding the number of appointments a doctor has in a given status
+ *
+ * @param doctorId Doctor's primary key, null for appointments without a doctor
+ * @param status   Appointment status
+ * @param total    Number of appointments
+ */
+public record DoctorStatusCount(
+        Long doctorId,
+        AppointmentStatus status,
+        Long total
+) {
+}
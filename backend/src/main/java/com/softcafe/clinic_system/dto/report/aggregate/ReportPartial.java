@@ -0,0 +1,102 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The report figures of a slice of time. Partials of neighbouring slices merge into the figures of the whole range
+ *
+ * @param appointments Appointment counts per doctor and status, appointments without a doctor are kept under 0
+ * @param revenue      Amount paid per doctor
+ * @param paid         Total amount paid
+ * @param expected     Total amount billed
+ */
+public record ReportPartial(
+        Map<Long, Map<AppointmentStatus, Long>> appointments,
+        Map<Long, Double> revenue,
+        double paid,
+        double expected
+) {
+    public static final ReportPartial EMPTY = new ReportPartial(Map.of(), Map.of(), 0, 0);
+
+    /**
+     * Builds a partial from grouped query rows
+     *
+     * @param statusCounts Appointment counts per doctor and status
+     * @param revenueRows  Revenue per doctor
+     * @param totals       Revenue totals
+     * @return The partial
+     */
+    public static ReportPartial of(List<DoctorStatusCount> statusCounts, List<DoctorRevenue> revenueRows, RevenueTotals totals) {
+        Map<Long, Map<AppointmentStatus, Long>> appointments = new HashMap<>();
+        Map<Long, Double> revenue = new HashMap<>();
+
+        for (DoctorStatusCount row : statusCounts) {
+            appointments.computeIfAbsent(Objects.requireNonNullElse(row.doctorId(), 0L), id -> new EnumMap<>(AppointmentStatus.class))
+                    .merge(row.status(), row.total(), Long::sum);
+        }
+
+        for (DoctorRevenue row : revenueRows) {
+            revenue.merge(row.doctorId(), row.revenue(), Double::sum);
+        }
+
+        return new ReportPartial(appointments, revenue, totals.paid(), totals.expected());
+    }
+
+    /**
+     * Combines two partials. The operation is associative, so partials can be merged in any grouping
+     *
+     * @param other Another partial
+     * @return A partial holding the figures of both
+     */
+    public ReportPartial merge(ReportPartial other) {
+        Map<Long, Map<AppointmentStatus, Long>> mergedAppointments = new HashMap<>();
+        Map<Long, Double> mergedRevenue = new HashMap<>(revenue);
+
+        for (Map<Long, Map<AppointmentStatus, Long>> source : List.of(appointments, other.appointments)) {
+            source.forEach((doctorId, counts) -> counts.forEach((status, total) ->
+                    mergedAppointments.computeIfAbsent(doctorId, id -> new EnumMap<>(AppointmentStatus.class))
+                            .merge(status, total, Long::sum)));
+        }
+
+        other.revenue.forEach((doctorId, amount) -> mergedRevenue.merge(doctorId, amount, Double::sum));
+
+        return new ReportPartial(mergedAppointments, mergedRevenue, paid + other.paid, expected + other.expected);
+    }
+
+    /**
+     * Counts appointments in a status across all doctors
+     *
+     * @param status Appointment status
+     * @return Number of appointments
+     */
+    public long count(AppointmentStatus status) {
+        return appointments.values().stream().mapToLong(counts -> counts.getOrDefault(status, 0L)).sum();
+    }
+
+    /**
+     * Counts a doctor's appointments in a status
+     *
+     * @param doctorId Doctor's primary key
+     * @param status   Appointment status
+     * @return Number of appointments
+     */
+    public long count(Long doctorId, AppointmentStatus status) {
+        return appointments.getOrDefault(doctorId, Map.of()).getOrDefault(status, 0L);
+    }
+
+    /**
+     * Roughly estimates the heap used by this partial
+     *
+     * @return Size in bytes
+     */
+    public long estimateSize() {
+        long entries = appointments.values().stream().mapToLong(Map::size).sum();
+        return 96 + appointments.size() * 112L + entries * 48 + revenue.size() * 80L;
+    }
+}
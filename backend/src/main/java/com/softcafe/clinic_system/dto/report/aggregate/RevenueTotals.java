@@ -0,0 +1,13 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+/**
+ * A single row holding the billing totals of a date range
+ *
+ * @param paid     Total amount paid
+ * @param expected Total amount billed
+ */
+public record RevenueTotals(
+        Double paid,
+        Double expected
+) {
+}
@@ -0,0 +1,19 @@
+package com.softcafe.clinic_system.dto.report.aggregate;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+
+/**
+ * A grouped row holding the number of appointments booked by a receptionist for a doctor in a given status
+ *
+ * @param receptionistId Receptionist's primary key
+ * @param doctorId       Doctor's primary key, null for appointments without a doctor
+ * @param status         Appointment status
+ * @param total          Number of appointments
+ */
+public record StaffStatusCount(
+        Long receptionistId,
+        Long doctorId,
+        AppointmentStatus status,
+        Long total
+) {
+}
@@ -0,0 +1,13 @@
+package com.softcafe.clinic_system.dto.report.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The symptoms written on a record
+ *
+ * @param createdAt The record's creation date
+ * @param symptoms  The symptoms, null when none were written
+ */
+public record RecordSymptoms(LocalDateTime createdAt, List<String> symptoms) {
+}
@@ -0,0 +1,14 @@
+package com.softcafe.clinic_system.dto.report.analytics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "An approximate count of a term")
+public record TermCount(
+        @Schema(description = "The diagnosis or symptom, in lower case", example = "malaria")
+        String term,
+        @Schema(description = "Estimated occurrences, never below the true count", example = "130")
+        long estimate,
+        @Schema(description = "Occurrences the term is guaranteed to have with high probability", example = "124")
+        long lowerBound
+) {
+}
@@ -0,0 +1,12 @@
+package com.softcafe.clinic_system.dto.report.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * A diagnosis or symptom written on a record
+ *
+ * @param createdAt The record's creation date
+ * @param term      The diagnosis or symptom
+ */
+public record TermOccurrence(LocalDateTime createdAt, String term) {
+}
@@ -0,0 +1,23 @@
+package com.softcafe.clinic_system.dto.report.analytics;
+
+import com.softcafe.clinic_system.entities.TermKind;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Schema(description = "The most frequent diagnoses or symptoms of a month")
+public record TopTerms(
+        @Schema(description = "The counted field", implementation = TermKind.class)
+        TermKind kind,
+        @Schema(description = "The month", example = "2025-05", type = "string")
+        YearMonth month,
+        @Schema(description = "Occurrences of all terms in the month", example = "4200")
+        long total,
+        @Schema(description = "Largest amount an estimate may exceed the true count by, with 99% probability", example = "6")
+        long errorBound,
+        @ArraySchema(schema = @Schema(implementation = TermCount.class))
+        List<TermCount> terms
+) {
+}
@@ -0,0 +1,20 @@
+package com.softcafe.clinic_system.dto.report.export;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A flat appointment row of an export
+ */
+public record AppointmentRow(
+        Long id,
+        LocalDateTime createdAt,
+        AppointmentStatus status,
+        Long patientId,
+        String patientName,
+        Long doctorId,
+        String doctorName,
+        Long receptionistId
+) {
+}
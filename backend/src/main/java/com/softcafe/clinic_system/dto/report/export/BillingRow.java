@@ -0,0 +1,21 @@
+package com.softcafe.clinic_system.dto.report.export;
+
+import com.softcafe.clinic_system.entities.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A flat billing row of an export
+ */
+public record BillingRow(
+        Long id,
+        LocalDateTime createdAt,
+        PaymentStatus status,
+        Long patientId,
+        Long appointmentId,
+        Long doctorId,
+        String paymentMethod,
+        Double totalAmount,
+        Double amountPaid
+) {
+}
@@ -0,0 +1,25 @@
+package com.softcafe.clinic_system.dto.report.export;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Export Format", description = "The file format of an export")
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -0,0 +1,14 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of appointments grouped by time bucket and series
+ */
+public interface BucketedAppointments {
+    LocalDateTime getBucket();
+
+    String getSeries();
+
+    Long getAppointments();
+}
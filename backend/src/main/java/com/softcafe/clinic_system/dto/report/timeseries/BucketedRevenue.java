@@ -0,0 +1,18 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of billings grouped by time bucket and series
+ */
+public interface BucketedRevenue {
+    LocalDateTime getBucket();
+
+    String getSeries();
+
+    Long getBills();
+
+    Double getBilled();
+
+    Double getPaid();
+}
@@ -0,0 +1,10 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Series Group", description = "How a time series is split into separate series")
+public enum SeriesGroup {
+    NONE,
+    DOCTOR,
+    PAYMENT_METHOD
+}
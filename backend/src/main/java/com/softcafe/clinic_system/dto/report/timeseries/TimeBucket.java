@@ -0,0 +1,10 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Time Bucket", description = "The width of a time series bucket")
+public enum TimeBucket {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,17 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Revenue and visits of a date range split into time buckets")
+public record TimeSeries(
+        @Schema(description = "The width of the buckets", implementation = TimeBucket.class)
+        TimeBucket bucket,
+        @Schema(description = "How the points are split into series", implementation = SeriesGroup.class)
+        SeriesGroup groupBy,
+        @ArraySchema(schema = @Schema(implementation = TimeSeriesPoint.class))
+        List<TimeSeriesPoint> points
+) {
+}
@@ -0,0 +1,22 @@
+package com.softcafe.clinic_system.dto.report.timeseries;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "The figures of one bucket of a series")
+public record TimeSeriesPoint(
+        @Schema(description = "First day of the bucket", example = "2025-05-01")
+        LocalDate bucket,
+        @Schema(description = "Doctor's primary key or payment method the point belongs to, null when the series isn't split", example = "3")
+        String series,
+        @Schema(description = "Number of billings", example = "42")
+        long bills,
+        @Schema(description = "Amount billed", example = "350000")
+        double billed,
+        @Schema(description = "Amount paid", example = "300000")
+        double paid,
+        @Schema(description = "Number of appointments", example = "57")
+        long appointments
+) {
+}
@@ -0,0 +1,9 @@
+package com.softcafe.clinic_system.dto.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Clinical Kind", description = "The kind of clinical document a search hit is")
+public enum ClinicalKind {
+    RECORD,
+    LAB_TEST
+}
@@ -0,0 +1,30 @@
+package com.softcafe.clinic_system.dto.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Schema(name = "Clinical Search Hit", description = "A record or lab test matching a clinical search")
+public record ClinicalSearchHit(
+        @Schema(description = "Whether the hit is a record or a lab test", example = "RECORD")
+        ClinicalKind kind,
+        @Schema(description = "Primary key of the record or lab test", example = "12")
+        Long id,
+        @Schema(description = "The record, or the record the lab test was ordered on", example = "12")
+        Long recordId,
+        @Schema(description = "Patient's primary key", example = "201")
+        Long patientId,
+        @Schema(description = "Doctor's primary key", example = "3")
+        Long doctorId,
+        @Schema(description = "Date created", example = "2025-05-24T10:41:56")
+        LocalDateTime createdAt,
+        @Schema(description = "Relevance to the query, higher is better", example = "2.71")
+        float score,
+        @Schema(
+                description = "Matching passages by field, the matched words wrapped in <mark> tags",
+                example = "{\"diagnosis\": \"<mark>Malaria</mark>\"}"
+        )
+        Map<String, String> highlights
+) {
+}
@@ -0,0 +1,20 @@
+package com.softcafe.clinic_system.dto.search;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "Clinical Search Results", description = "A page of records and lab tests matching a clinical search")
+public record ClinicalSearchResults(
+        @Schema(description = "Total number of matches", example = "42")
+        long totalHits,
+        @Schema(description = "Total number of pages", example = "5")
+        int totalPages,
+        @ArraySchema(
+                schema = @Schema(implementation = ClinicalSearchHit.class),
+                arraySchema = @Schema(description = "Matches, most relevant first")
+        )
+        List<ClinicalSearchHit> hits
+) {
+}
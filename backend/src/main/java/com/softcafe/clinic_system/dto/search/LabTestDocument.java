@@ -0,0 +1,18 @@
+package com.softcafe.clinic_system.dto.search;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The searchable text of a lab test
+ *
+ * @param id        The test's primary key
+ * @param recordId  The record the test was ordered on, null when it has none
+ * @param patientId The record's patient
+ * @param doctorId  The record's doctor
+ * @param findings  Findings, null when none were written
+ * @param createdAt The test's creation date
+ */
+public record LabTestDocument(Long id, Long recordId, Long patientId, Long doctorId, List<String> findings,
+                              LocalDateTime createdAt) {
+}
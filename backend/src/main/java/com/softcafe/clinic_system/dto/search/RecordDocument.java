@@ -0,0 +1,20 @@
+package com.softcafe.clinic_system.dto.search;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The searchable text of a record
+ *
+ * @param id        The record's primary key
+ * @param patientId The patient's primary key
+ * @param doctorId  The doctor's primary key
+ * @param symptoms  Symptoms, null when none were written
+ * @param diagnosis Diagnosis
+ * @param treatment Treatments, null when none were written
+ * @param notes     Notes, null when none were written
+ * @param createdAt The record's creation date
+ */
+public record RecordDocument(Long id, Long patientId, Long doctorId, List<String> symptoms, String diagnosis,
+                             List<String> treatment, List<String> notes, LocalDateTime createdAt) {
+}
@@ -13,6 +13,8 @@ public record ListOfStaff(
                 schema = @Schema(implementation = NewStaff.class)
         )
         @Schema(description = "A list of staff members")
-        List<StaffData> staffList
+        List<StaffData> staffList,
+        @Schema(description = "Whether another page follows this one", example = "true")
+        boolean hasNext
 ) {
 }
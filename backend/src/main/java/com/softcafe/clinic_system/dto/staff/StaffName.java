@@ -0,0 +1,10 @@
+package com.softcafe.clinic_system.dto.staff;
+
+/**
+ * A staff member's name as the name search indexes it
+ *
+ * @param id       Primary key
+ * @param fullName The staff member's full name
+ */
+public record StaffName(Long id, String fullName) {
+}
@@ -14,25 +14,30 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Entity
 @Table(name = "appointments")
+@NamedEntityGraph(name = "Appointment.patientAndDoctor", attributeNodes = {
+        @NamedAttributeNode("patient"),
+        @NamedAttributeNode("doctor")
+})
 @Schema(description = "A class representing the details of an appointment between a patient and a doctor")
 public class Appointment {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = IdAllocation.APPOINTMENTS)
     @Schema(description = "Primary key", example = "1")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     @Schema(description = "Patient's details", implementation = PatientDto.class)
     private Patient patient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     @Schema(description = "Doctor's details", implementation = StaffData.class)
     private Staff doctor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receptionist_id", nullable = false)
     private Staff receptionist;
 
@@ -40,7 +45,7 @@ public class Appointment {
     @Schema(description = "The completeness", example = "PENDING")
     private AppointmentStatus status;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", updatable = false)
     @Schema(description = "The date and time created", example = "2025-05-24T10:41:56.976249081")
     private LocalDateTime createdAt;
 
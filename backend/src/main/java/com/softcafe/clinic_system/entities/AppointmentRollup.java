@@ -0,0 +1,34 @@
+package com.softcafe.clinic_system.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "appointment_rollups", uniqueConstraints = @UniqueConstraint(columnNames = {"rollup_date", "doctor_id", "status"}))
+public class AppointmentRollup {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false)
+    private AppointmentStatus status;
+
+    @Column(nullable = false)
+    private long total;
+}
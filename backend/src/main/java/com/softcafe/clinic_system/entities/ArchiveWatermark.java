@@ -0,0 +1,27 @@
+package com.softcafe.clinic_system.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "archive_watermarks")
+public class ArchiveWatermark {
+    @Id
+    @Column(name = "table_name")
+    private String table;
+
+    /**
+     * First day whose rows are still in the table, the earlier ones were archived
+     */
+    @Column(name = "kept_from", nullable = false)
+    private LocalDate keptFrom;
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -16,25 +18,25 @@ import java.util.Map;
 @NoArgsConstructor
 @Entity
 @Table(name = "billings")
+@NamedEntityGraph(name = "Billing.patient", attributeNodes = @NamedAttributeNode("patient"))
 public class Billing {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billings_seq")
+    @SequenceGenerator(name = "billings_seq", sequenceName = "billings_seq", allocationSize = IdAllocation.BILLINGS)
     @Schema(description = "Primary key", example = "1")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     @Schema(description = "Patient's details", implementation = Patient.class)
     private Patient patient;
 
-    @ElementCollection
-    @MapKeyColumn(name = "bill_type")
-    @CollectionTable(name = "bills", joinColumns = @JoinColumn(name = "billing_id"))
-    @Column(name = "bill_amount")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "bills")
     @Schema(description = "A mapped string double object", example = "{\"consultation\": 3000.00, \"pharmacy\": 20,000.00}")
     private Map<String, Double> bills;
 
@@ -55,7 +57,12 @@ public class Billing {
     @Schema(description = "Payment status", implementation = PaymentStatus.class)
     private PaymentStatus status;
 
-    @Column(name = "created_at")
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Version, raised by every change to the billing", example = "0")
+    private Long version;
+
+    @Column(name = "created_at", updatable = false)
     @Schema(description = "Creation date", example = "2025-05-24T10:41:56.976249081")
     private LocalDateTime createdAt;
 
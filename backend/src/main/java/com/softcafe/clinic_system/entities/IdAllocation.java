@@ -0,0 +1,18 @@
+package com.softcafe.clinic_system.entities;
+
+/**
+ * Allocation sizes of the primary key sequences.
+ * Hibernate's pooled optimizer hands out this many ids per sequence call, which lets inserts go out as JDBC batches.
+ * Each value must match the INCREMENT BY of its database sequence, so changing one needs a migration of that sequence.
+ */
+public final class IdAllocation {
+    public static final int USERS = 50;
+    public static final int APPOINTMENTS = 50;
+    public static final int BILLINGS = 50;
+    public static final int RECORDS = 50;
+    public static final int LAB_TESTS = 50;
+    public static final int LOGS = 50;
+
+    private IdAllocation() {
+    }
+}
@@ -0,0 +1,11 @@
+package com.softcafe.clinic_system.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Job Status", description = "The state of a background report job")
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETE,
+    FAILED
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,27 +18,34 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "laboratory_tests")
+@NamedEntityGraph(
+        name = "LabTest.record",
+        attributeNodes = @NamedAttributeNode(value = "record", subgraph = "record"),
+        subgraphs = @NamedSubgraph(name = "record", attributeNodes = {
+                @NamedAttributeNode("patient"),
+                @NamedAttributeNode("doctor")
+        })
+)
 @Schema(name = "Laboratory Test", description = "An object representation of test")
 public class LabTest {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "laboratory_tests_seq")
+    @SequenceGenerator(name = "laboratory_tests_seq", sequenceName = "laboratory_tests_seq", allocationSize = IdAllocation.LAB_TESTS)
     @Schema(description = "Primary key", example = "1")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "record_id")
     @Schema(description = "Record details", implementation = Record.class)
     private Record record;
 
-    @ElementCollection
-    @CollectionTable(name = "test_investigations", joinColumns = @JoinColumn(name = "test_id"))
+    @JdbcTypeCode(SqlTypes.ARRAY)
     @Schema(description = "List of tests to be done", example = "[\"blood test\", \"urinalysis\"]")
-    @Column(name = "investigation")
+    @Column(name = "investigations")
     private List<String> investigations;
 
-    @ElementCollection
-    @CollectionTable(name = "test_findings", joinColumns = @JoinColumn(name = "test_id"))
-    @Column(name = "finding")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "findings")
     @Schema(description = "List of findings", example = "[\"tapeworm present\", \"low vitam B2\"]")
     private List<String> findings;
 
@@ -16,15 +16,23 @@ import java.time.LocalDateTime;
 @Table(name = "logs")
 public class Log {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "logs_seq")
+    @SequenceGenerator(name = "logs_seq", sequenceName = "logs_seq", allocationSize = IdAllocation.LOGS)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Staff staff;
 
     @Column
     private String action;
 
-    @Column
+    @Column(updatable = false)
     private LocalDateTime time;
+
+    @PrePersist
+    private void create() {
+        if (this.time == null) {
+            this.time = LocalDateTime.now();
+        }
+    }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,16 +22,17 @@ import java.util.List;
 public class Record {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_records_seq")
+    @SequenceGenerator(name = "patient_records_seq", sequenceName = "patient_records_seq", allocationSize = IdAllocation.RECORDS)
     @Schema(description = "Primary key", example = "1")
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     @Schema(description = "Patient's details", implementation = Patient.class)
     private Patient patient;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     @Schema(description = "Doctor's details", implementation = Staff.class)
     private Staff doctor;
@@ -38,9 +41,8 @@ public class Record {
     @Schema(description = "Reason for visit", example = "Check-up")
     private String reason;
 
-    @ElementCollection
-    @CollectionTable(name = "record_symptoms", joinColumns = @JoinColumn(name = "record_id"))
-    @Column(name = "symptom")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "symptoms")
     @Schema(description = "List of visible symptoms", example = "[\"red eyes\", \"swollen eye\"]")
     private List<String> symptoms;
 
@@ -48,15 +50,13 @@ public class Record {
     @Schema(description = "Diagnosis", example = "Cancer")
     private String diagnosis;
 
-    @ElementCollection
-    @CollectionTable(name = "record_treatments", joinColumns = @JoinColumn(name = "record_id"))
+    @JdbcTypeCode(SqlTypes.ARRAY)
     @Column(name = "treatment")
     @Schema(description = "Treatments given", example = "[\"chemotherapy\"]")
     private List<String> treatment;
 
-    @ElementCollection
-    @CollectionTable(name = "record_notes", joinColumns = @JoinColumn(name = "record_id"))
-    @Column(name = "note")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "notes")
     @Schema(description = "Notes for next review", example = "[\"Should have completed medicine X\"]")
     private List<String> notes;
 
@@ -0,0 +1,69 @@
+package com.softcafe.clinic_system.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_jobs", indexes = @Index(columnList = "request_key, status"))
+public class ReportJob {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "request_key", nullable = false)
+    private String requestKey;
+
+    @Column(name = "range_start", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "range_end", nullable = false)
+    private LocalDateTime end;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    @Column
+    private int progress;
+
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    /**
+     * The instance running the job, changed only by the claiming queries
+     */
+    @Column(name = "claimed_by", updatable = false)
+    private String claimedBy;
+
+    /**
+     * When the claim was last renewed
+     */
+    @Column(name = "heartbeat_at", updatable = false)
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,40 @@
+package com.softcafe.clinic_system.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "revenue_rollups", uniqueConstraints = @UniqueConstraint(columnNames = {"rollup_date", "doctor_id", "status"}))
+public class RevenueRollup {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentStatus status;
+
+    @Column(nullable = false)
+    private long bills;
+
+    @Column(nullable = false)
+    private double billed;
+
+    @Column(nullable = false)
+    private double paid;
+}
@@ -0,0 +1,9 @@
+package com.softcafe.clinic_system.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "Term Kind", description = "The record field a term is counted from")
+public enum TermKind {
+    DIAGNOSIS,
+    SYMPTOM
+}
@@ -0,0 +1,41 @@
+package com.softcafe.clinic_system.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "term_sketches", uniqueConstraints = @UniqueConstraint(columnNames = {"kind", "bucket_month"}))
+public class TermSketch {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false)
+    private TermKind kind;
+
+    @Column(name = "bucket_month", nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false, length = 1 << 20)
+    private byte[] data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -3,12 +3,15 @@ package com.softcafe.clinic_system.entities;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import com.softcafe.clinic_system.config.EntityCacheConfig;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
 @Schema(name = "user", description = "The base class for all users of the system")
@@ -18,9 +21,12 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS_REGION)
 public class User {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = IdAllocation.USERS)
     @Schema(description = "The database's primary key", example = "1")
     private Long id;
 
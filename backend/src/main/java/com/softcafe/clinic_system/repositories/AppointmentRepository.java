@@ -1,22 +1,109 @@
 package com.softcafe.clinic_system.repositories;
 
+import com.softcafe.clinic_system.dto.appointment.AppointmentData;
+import com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount;
+import com.softcafe.clinic_system.dto.report.aggregate.DoctorStatusCount;
+import com.softcafe.clinic_system.dto.report.aggregate.StaffStatusCount;
+import com.softcafe.clinic_system.dto.report.export.AppointmentRow;
+import com.softcafe.clinic_system.dto.report.timeseries.BucketedAppointments;
 import com.softcafe.clinic_system.entities.Appointment;
-import com.softcafe.clinic_system.entities.Patient;
-import com.softcafe.clinic_system.entities.Staff;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-    Page<Appointment> findByDoctor(Pageable pageable, Staff staff);
+    /**
+     * Selects appointment DTOs with their patient and doctor, without loading any entity
+     */
+    String LIST = "SELECT new com.softcafe.clinic_system.dto.appointment.AppointmentData(a.id, " +
+            PatientRepository.DTO + ", " + StaffRepository.DTO + ", a.status, a.createdAt, a.updatedAt) " +
+            "FROM Appointment a JOIN a.patient p LEFT JOIN a.doctor s ";
+    String NEWEST_FIRST = " ORDER BY a.createdAt DESC, a.id DESC";
 
-    Page<Appointment> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable of);
+    @Query(LIST + NEWEST_FIRST)
+    Slice<AppointmentData> findBy(Pageable pageable);
 
-    Page<Appointment> findByPatient(Patient patient, Pageable pageable);
+    @Query(LIST + "WHERE (a.createdAt, a.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<AppointmentData> findNext(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
 
+    @Query(LIST + "WHERE a.doctor.id = :doctorId" + NEWEST_FIRST)
+    Slice<AppointmentData> findByDoctor(@Param("doctorId") long doctorId, Pageable pageable);
+
+    long countByDoctor_Id(long doctorId);
+
+    @Query(LIST + "WHERE a.doctor.id = :doctorId AND (a.createdAt, a.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<AppointmentData> findNextByDoctor(@Param("doctorId") long doctorId, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") long id, Limit limit);
+
+    @Query(LIST + "WHERE a.createdAt BETWEEN :start AND :end" + NEWEST_FIRST)
+    Slice<AppointmentData> findByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                  Pageable pageable);
+
+    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query(LIST + "WHERE a.createdAt BETWEEN :start AND :end AND (a.createdAt, a.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<AppointmentData> findNextByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                                     Limit limit);
+
+    @Query(LIST + "WHERE a.patient.id = :patientId" + NEWEST_FIRST)
+    Slice<AppointmentData> findByPatient(@Param("patientId") long patientId, Pageable pageable);
+
+    long countByPatient_Id(long patientId);
+
+    @Query(LIST + "WHERE a.patient.id = :patientId AND (a.createdAt, a.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<AppointmentData> findNextByPatient(@Param("patientId") long patientId, @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") long id, Limit limit);
+
+    @EntityGraph("Appointment.patientAndDoctor")
     Page<Appointment> findByCreatedAtBetweenAndReceptionist_Id(LocalDateTime startOfDay, LocalDateTime endOfDay, long id, Pageable unpaged);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DoctorStatusCount(d.id, a.status, COUNT(a)) " +
+            "FROM Appointment a LEFT JOIN a.doctor d " +
+            "WHERE a.createdAt BETWEEN :start AND :end " +
+            "GROUP BY d.id, a.status")
+    List<DoctorStatusCount> countByDoctorAndStatus(@Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount(" +
+            "CAST(a.createdAt AS LocalDate), d.id, a.status, COUNT(a)) " +
+            "FROM Appointment a LEFT JOIN a.doctor d " +
+            "GROUP BY CAST(a.createdAt AS LocalDate), d.id, a.status")
+    List<DailyAppointmentCount> countByDayDoctorAndStatus();
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.StaffStatusCount(r.id, d.id, a.status, COUNT(a)) " +
+            "FROM Appointment a JOIN a.receptionist r LEFT JOIN a.doctor d " +
+            "WHERE a.createdAt BETWEEN :start AND :end " +
+            "GROUP BY r.id, d.id, a.status")
+    List<StaffStatusCount> countByStaffAndStatus(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(value = "SELECT t.bucket AS bucket, t.series AS series, COUNT(*) AS appointments FROM (" +
+            "SELECT CASE :unit WHEN 'month' THEN DATE_TRUNC('month', a.created_at) " +
+            "WHEN 'week' THEN DATE_TRUNC('week', a.created_at) ELSE DATE_TRUNC('day', a.created_at) END AS bucket, " +
+            "CASE WHEN :groupBy = 'DOCTOR' THEN CAST(a.doctor_id AS VARCHAR) END AS series " +
+            "FROM appointments a WHERE a.created_at BETWEEN :start AND :end) t " +
+            "GROUP BY t.bucket, t.series ORDER BY t.bucket", nativeQuery = true)
+    List<BucketedAppointments> countByBucket(@Param("unit") String unit, @Param("groupBy") String groupBy,
+                                             @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.export.AppointmentRow(" +
+            "a.id, a.createdAt, a.status, p.id, p.fullName, d.id, d.fullName, r.id) " +
+            "FROM Appointment a JOIN a.patient p LEFT JOIN a.doctor d JOIN a.receptionist r " +
+            "WHERE a.createdAt BETWEEN :start AND :end ORDER BY a.createdAt")
+    Stream<AppointmentRow> streamRows(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,33 @@
+package com.softcafe.clinic_system.repositories;
+
+import com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount;
+import com.softcafe.clinic_system.entities.AppointmentRollup;
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AppointmentRollupRepository extends JpaRepository<AppointmentRollup, Long> {
+    Optional<AppointmentRollup> findByDayAndDoctorIdAndStatus(LocalDate day, Long doctorId, AppointmentStatus status);
+
+    @Modifying
+    @Query("UPDATE AppointmentRollup r SET r.total = r.total + :delta " +
+            "WHERE r.day = :day AND r.doctorId = :doctorId AND r.status = :status")
+    int increment(@Param("day") LocalDate day, @Param("doctorId") Long doctorId,
+                  @Param("status") AppointmentStatus status, @Param("delta") long delta);
+
+    @Modifying
+    @Query("DELETE FROM AppointmentRollup r WHERE r.day >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount(r.day, r.doctorId, r.status, r.total) " +
+            "FROM AppointmentRollup r WHERE r.day BETWEEN :from AND :to")
+    List<DailyAppointmentCount> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
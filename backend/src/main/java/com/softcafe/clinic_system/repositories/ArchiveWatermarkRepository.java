@@ -0,0 +1,9 @@
+package com.softcafe.clinic_system.repositories;
+
+import com.softcafe.clinic_system.entities.ArchiveWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchiveWatermarkRepository extends JpaRepository<ArchiveWatermark, String> {
+}
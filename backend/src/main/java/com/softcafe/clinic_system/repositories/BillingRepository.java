@@ -1,22 +1,129 @@
 package com.softcafe.clinic_system.repositories;
 
+import com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue;
+import com.softcafe.clinic_system.dto.report.aggregate.DoctorRevenue;
+import com.softcafe.clinic_system.dto.report.aggregate.RevenueTotals;
+import com.softcafe.clinic_system.dto.report.export.BillingRow;
+import com.softcafe.clinic_system.dto.report.timeseries.BucketedRevenue;
 import com.softcafe.clinic_system.entities.Billing;
 import com.softcafe.clinic_system.entities.Patient;
 import com.softcafe.clinic_system.entities.PaymentStatus;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BillingRepository extends JpaRepository<Billing, Long> {
-    Page<Billing> findByPatient(Patient patient, Pageable pageable);
+    @EntityGraph("Billing.patient")
+    Slice<Billing> findByPatient(Patient patient, Pageable pageable);
 
-    Page<Billing> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+    long countByPatient(Patient patient);
 
-    Page<Billing> findByStatus(PaymentStatus status, Pageable pageable);
+    boolean existsByAppointment_Id(long appointmentId);
 
-    Page<Billing> findByPaymentMethod(String method, Pageable pageable);
+    @EntityGraph("Billing.patient")
+    @Query("SELECT b FROM Billing b WHERE b.patient = :patient AND (b.createdAt, b.id) < (:createdAt, :id) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Billing> findNextByPatient(@Param("patient") Patient patient, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") long id, Limit limit);
+
+    @EntityGraph("Billing.patient")
+    Slice<Billing> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph("Billing.patient")
+    @Query("SELECT b FROM Billing b WHERE b.createdAt BETWEEN :start AND :end AND (b.createdAt, b.id) < (:createdAt, :id) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Billing> findNextByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                             Limit limit);
+
+    @EntityGraph("Billing.patient")
+    Slice<Billing> findByStatus(PaymentStatus status, Pageable pageable);
+
+    long countByStatus(PaymentStatus status);
+
+    @EntityGraph("Billing.patient")
+    @Query("SELECT b FROM Billing b WHERE b.status = :status AND (b.createdAt, b.id) < (:createdAt, :id) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Billing> findNextByStatus(@Param("status") PaymentStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") long id, Limit limit);
+
+    @EntityGraph("Billing.patient")
+    Slice<Billing> findByPaymentMethod(String method, Pageable pageable);
+
+    long countByPaymentMethod(String method);
+
+    @EntityGraph("Billing.patient")
+    @Query("SELECT b FROM Billing b WHERE b.paymentMethod = :method AND (b.createdAt, b.id) < (:createdAt, :id) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Billing> findNextByPaymentMethod(@Param("method") String method, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") long id, Limit limit);
+
+    /**
+     * Adds a payment to a billing that still holds the expected status and owes at least the amount.
+     * The sum and the status are worked out from the row being updated, so concurrent payments all count
+     *
+     * @return 1 if the payment was recorded, 0 if the billing changed status or owes less than the amount
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Billing b SET b.amountPaid = b.amountPaid + :amount, " +
+            "b.status = CASE WHEN b.amountPaid + :amount >= b.totalAmount " +
+            "THEN com.softcafe.clinic_system.entities.PaymentStatus.PAID " +
+            "ELSE com.softcafe.clinic_system.entities.PaymentStatus.PARTIALLY_PAID END, " +
+            "b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = :status AND b.amountPaid + :amount <= b.totalAmount")
+    int pay(@Param("id") long id, @Param("status") PaymentStatus status, @Param("amount") double amount,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.RevenueTotals(" +
+            "COALESCE(SUM(b.amountPaid), 0.0), COALESCE(SUM(b.totalAmount), 0.0)) " +
+            "FROM Billing b WHERE b.createdAt BETWEEN :start AND :end")
+    RevenueTotals sumRevenue(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DoctorRevenue(d.id, SUM(b.amountPaid)) " +
+            "FROM Billing b JOIN b.appointment a JOIN a.doctor d " +
+            "WHERE b.createdAt BETWEEN :start AND :end " +
+            "GROUP BY d.id")
+    List<DoctorRevenue> sumRevenueByDoctor(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue(" +
+            "CAST(b.createdAt AS LocalDate), d.id, b.status, COUNT(b), SUM(b.totalAmount), SUM(b.amountPaid)) " +
+            "FROM Billing b LEFT JOIN b.appointment a LEFT JOIN a.doctor d " +
+            "GROUP BY CAST(b.createdAt AS LocalDate), d.id, b.status")
+    List<DailyRevenue> sumByDayDoctorAndStatus();
+
+    @Query(value = "SELECT t.bucket AS bucket, t.series AS series, COUNT(*) AS bills, " +
+            "SUM(t.total_amount) AS billed, SUM(t.amount_paid) AS paid FROM (" +
+            "SELECT CASE :unit WHEN 'month' THEN DATE_TRUNC('month', b.created_at) " +
+            "WHEN 'week' THEN DATE_TRUNC('week', b.created_at) ELSE DATE_TRUNC('day', b.created_at) END AS bucket, " +
+            "CASE WHEN :groupBy = 'DOCTOR' THEN CAST(a.doctor_id AS VARCHAR) " +
+            "WHEN :groupBy = 'PAYMENT_METHOD' THEN b.payment_method END AS series, " +
+            "b.total_amount, b.amount_paid " +
+            "FROM billings b LEFT JOIN appointments a ON a.id = b.appointment_id " +
+            "WHERE b.created_at BETWEEN :start AND :end) t " +
+            "GROUP BY t.bucket, t.series ORDER BY t.bucket", nativeQuery = true)
+    List<BucketedRevenue> sumByBucket(@Param("unit") String unit, @Param("groupBy") String groupBy,
+                                      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.export.BillingRow(" +
+            "b.id, b.createdAt, b.status, p.id, a.id, d.id, b.paymentMethod, b.totalAmount, b.amountPaid) " +
+            "FROM Billing b JOIN b.patient p LEFT JOIN b.appointment a LEFT JOIN a.doctor d " +
+            "WHERE b.createdAt BETWEEN :start AND :end ORDER BY b.createdAt")
+    Stream<BillingRow> streamRows(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -1,20 +1,54 @@
 package com.softcafe.clinic_system.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.softcafe.clinic_system.dto.search.LabTestDocument;
 import com.softcafe.clinic_system.entities.LabTest;
 import com.softcafe.clinic_system.entities.Record;
 
 @Repository
 public interface LabTestRepository extends JpaRepository<LabTest, Long> {
+    /**
+     * Selects the searchable text of lab tests, with their record's patient and doctor
+     */
+    String DOCUMENT = "SELECT new com.softcafe.clinic_system.dto.search.LabTestDocument(t.id, r.id, r.patient.id, " +
+            "r.doctor.id, t.findings, t.createdAt) FROM LabTest t LEFT JOIN t.record r ";
 
+    @EntityGraph("LabTest.record")
     List<LabTest> findAllByRecord(Record record);
 
-    Page<LabTest> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @EntityGraph("LabTest.record")
+    Slice<LabTest> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph("LabTest.record")
+    @Query("SELECT t FROM LabTest t WHERE t.createdAt BETWEEN :start AND :end AND (t.createdAt, t.id) < (:createdAt, :id) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<LabTest> findNextByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                             Limit limit);
+
+    @Query(DOCUMENT + "WHERE t.id IN :ids")
+    List<LabTestDocument> findDocuments(@Param("ids") Collection<Long> ids);
+
+    @Query(DOCUMENT + "WHERE r.id IN :recordIds")
+    List<LabTestDocument> findDocumentsByRecords(@Param("recordIds") Collection<Long> recordIds);
+
+    @Query(DOCUMENT + "WHERE t.id BETWEEN :from AND :to")
+    List<LabTestDocument> findDocumentsBetween(@Param("from") long from, @Param("to") long to);
+
+    @Query("SELECT MAX(t.id) FROM LabTest t")
+    Long findMaxId();
 }
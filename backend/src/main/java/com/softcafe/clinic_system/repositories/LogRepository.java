@@ -1,12 +1,20 @@
 package com.softcafe.clinic_system.repositories;
 
 import com.softcafe.clinic_system.entities.Log;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface LogRepository extends JpaRepository<Log, Long> {
-    Page<Log> findByStaff_Id(long id, Pageable pageable);
+    List<Log> findByTimeAfterOrderByTimeDesc(LocalDateTime since, Limit limit);
+
+    List<Log> findAllByOrderByTimeDesc(Limit limit);
+
+    List<Log> findByStaff_IdAndTimeAfterOrderByTimeDesc(long id, LocalDateTime since, Limit limit);
+
+    List<Log> findByStaff_IdOrderByTimeDesc(long id, Limit limit);
 }
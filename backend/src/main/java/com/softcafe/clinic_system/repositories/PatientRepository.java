@@ -1,16 +1,78 @@
 package com.softcafe.clinic_system.repositories;
 
+import com.softcafe.clinic_system.dto.UserIdentifiers;
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
 import com.softcafe.clinic_system.entities.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
+    /**
+     * Builds a patient's DTO straight from the columns of {@code p}, without loading the entity
+     */
+    String DTO = "new com.softcafe.clinic_system.dto.patient.PatientDto(p.id, p.fullName, p.email, p.phone, " +
+            "p.nationalId, p.address, p.dateOfBirth, p.gender, p.image, p.emergencyContact, p.emergencyName, " +
+            "p.insuranceProvider, p.insuranceNumber, p.bloodType, p.createdAt, p.updatedAt)";
+
+    /**
+     * Builds the details the patient search indexes from the columns of {@code p}
+     */
+    String MATCH = "new com.softcafe.clinic_system.dto.patient.PatientMatch(p.id, p.fullName, p.phone, p.insuranceNumber)";
+
+    @Query("SELECT " + DTO + " FROM Patient p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<PatientDto> findBy(Pageable pageable);
+
     Optional<Patient> findByEmail(String email);
 
     Optional<Patient> findByPhone(String phone);
 
     Optional<Patient> findByNationalId(String nid);
+
+    @Query("SELECT " + DTO + " FROM Patient p WHERE (p.createdAt, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PatientDto> findNext(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + MATCH + " FROM Patient p")
+    Stream<PatientMatch> streamSearchEntries();
+
+    @Query("SELECT " + MATCH + " FROM Patient p WHERE p.id = :id")
+    Optional<PatientMatch> findSearchEntry(@Param("id") long id);
+
+    /**
+     * Builds the identifiers the lookup index holds from the columns of {@code p}, patients have no username
+     */
+    String IDENTIFIERS = "new com.softcafe.clinic_system.dto.UserIdentifiers(p.id, p.email, p.phone, p.nationalId, " +
+            "cast(null as String), p.insuranceNumber)";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + IDENTIFIERS + " FROM Patient p")
+    Stream<UserIdentifiers> streamIdentifiers();
+
+    @Query("SELECT " + IDENTIFIERS + " FROM Patient p WHERE p.id = :id")
+    Optional<UserIdentifiers> findIdentifiers(@Param("id") long id);
+
+    /**
+     * Finds every patient holding any of the identifiers in one query, a null identifier matches no one
+     */
+    @Query("SELECT p FROM Patient p WHERE p.email = :email OR p.phone = :phone OR p.nationalId = :nationalId " +
+            "OR p.insuranceNumber = :insuranceNumber")
+    List<Patient> findByAnyIdentifier(@Param("email") String email, @Param("phone") String phone,
+                                      @Param("nationalId") String nationalId,
+                                      @Param("insuranceNumber") String insuranceNumber);
 }
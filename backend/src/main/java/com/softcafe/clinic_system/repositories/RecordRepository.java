@@ -1,21 +1,88 @@
 package com.softcafe.clinic_system.repositories;
 
-import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.dto.record.RecordData;
+import com.softcafe.clinic_system.dto.report.analytics.RecordSymptoms;
+import com.softcafe.clinic_system.dto.report.analytics.TermOccurrence;
+import com.softcafe.clinic_system.dto.search.RecordDocument;
 import com.softcafe.clinic_system.entities.Record;
-import com.softcafe.clinic_system.entities.Staff;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
 public interface RecordRepository extends JpaRepository<Record, Long> {
-    Page<Record> findByPatient(Patient patient, Pageable pageable);
+    /**
+     * Selects record DTOs with their patient and doctor, without loading any entity
+     */
+    String LIST = "SELECT new com.softcafe.clinic_system.dto.record.RecordData(r.id, " +
+            PatientRepository.DTO + ", " + StaffRepository.DTO + ", r.reason, r.symptoms, r.diagnosis, " +
+            "r.treatment, r.notes, r.createdAt, r.updatedAt) " +
+            "FROM Record r JOIN r.patient p JOIN r.doctor s ";
+    String NEWEST_FIRST = " ORDER BY r.createdAt DESC, r.id DESC";
+    /**
+     * Selects the searchable text of records
+     */
+    String DOCUMENT = "SELECT new com.softcafe.clinic_system.dto.search.RecordDocument(r.id, r.patient.id, r.doctor.id, " +
+            "r.symptoms, r.diagnosis, r.treatment, r.notes, r.createdAt) FROM Record r ";
 
-    Page<Record> findByDoctor(Staff doctor, Pageable pageable);
+    @Query(LIST + "WHERE r.patient.id = :patientId" + NEWEST_FIRST)
+    Slice<RecordData> findByPatient(@Param("patientId") long patientId, Pageable pageable);
 
-    Page<Record> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+    long countByPatient_Id(long patientId);
+
+    @Query(LIST + "WHERE r.patient.id = :patientId AND (r.createdAt, r.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<RecordData> findNextByPatient(@Param("patientId") long patientId, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") long id, Limit limit);
+
+    @Query(LIST + "WHERE r.doctor.id = :doctorId" + NEWEST_FIRST)
+    Slice<RecordData> findByDoctor(@Param("doctorId") long doctorId, Pageable pageable);
+
+    long countByDoctor_Id(long doctorId);
+
+    @Query(LIST + "WHERE r.doctor.id = :doctorId AND (r.createdAt, r.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<RecordData> findNextByDoctor(@Param("doctorId") long doctorId, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") long id, Limit limit);
+
+    @Query(LIST + "WHERE r.createdAt BETWEEN :start AND :end" + NEWEST_FIRST)
+    Slice<RecordData> findByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                             Pageable pageable);
+
+    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query(LIST + "WHERE r.createdAt BETWEEN :start AND :end AND (r.createdAt, r.id) < (:createdAt, :id)" + NEWEST_FIRST)
+    List<RecordData> findNextByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                @Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                                Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.analytics.TermOccurrence(r.createdAt, r.diagnosis) " +
+            "FROM Record r WHERE r.diagnosis IS NOT NULL")
+    Stream<TermOccurrence> streamDiagnoses();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.analytics.RecordSymptoms(r.createdAt, r.symptoms) " +
+            "FROM Record r WHERE r.symptoms IS NOT NULL")
+    Stream<RecordSymptoms> streamSymptoms();
+
+    @Query(DOCUMENT + "WHERE r.id IN :ids")
+    List<RecordDocument> findDocuments(@Param("ids") Collection<Long> ids);
+
+    @Query(DOCUMENT + "WHERE r.id BETWEEN :from AND :to")
+    List<RecordDocument> findDocumentsBetween(@Param("from") long from, @Param("to") long to);
+
+    @Query("SELECT MAX(r.id) FROM Record r")
+    Long findMaxId();
 }
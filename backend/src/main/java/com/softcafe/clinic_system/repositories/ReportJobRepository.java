@@ -0,0 +1,91 @@
+package com.softcafe.clinic_system.repositories;
+
+import com.softcafe.clinic_system.entities.JobStatus;
+import com.softcafe.clinic_system.entities.ReportJob;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    Optional<ReportJob> findFirstByRequestKeyAndStatusIn(String requestKey, Collection<JobStatus> statuses);
+
+    /**
+     * Finds the jobs in one of the statuses whose claim wasn't renewed since a moment
+     */
+    @Query("SELECT j.id FROM ReportJob j WHERE j.status IN :statuses " +
+            "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    List<Long> findStale(@Param("statuses") Collection<JobStatus> statuses,
+                         @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Queues a stale job again under a new claim. The conditions are checked on the row being updated, so only one
+     * instance gets it
+     *
+     * @return 1 if the job was claimed, 0 if it finished or someone else claimed it first
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.claimedBy = :instance, j.heartbeatAt = :now, j.progress = 0, " +
+            "j.status = com.softcafe.clinic_system.entities.JobStatus.QUEUED " +
+            "WHERE j.id = :id AND j.status IN :statuses AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int claim(@Param("id") long id, @Param("instance") String instance,
+              @Param("statuses") Collection<JobStatus> statuses, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Renews an instance's claim on the jobs it's working on
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.claimedBy = :instance")
+    int renew(@Param("ids") Collection<Long> ids, @Param("instance") String instance, @Param("now") LocalDateTime now);
+
+    /**
+     * Marks a job as running. Like the other updates of a running job, it only applies while the instance still
+     * holds the job's claim
+     *
+     * @return 1 if the job was updated, 0 if another instance has taken it over
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.softcafe.clinic_system.entities.JobStatus.RUNNING, " +
+            "j.startedAt = :now WHERE j.id = :id AND j.claimedBy = :instance")
+    int start(@Param("id") long id, @Param("instance") String instance, @Param("now") LocalDateTime now);
+
+    /**
+     * Saves a running job's progress, while the instance holds its claim
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.progress = :progress WHERE j.id = :id AND j.claimedBy = :instance")
+    int progress(@Param("id") long id, @Param("instance") String instance, @Param("progress") int progress);
+
+    /**
+     * Stores a finished job's report, while the instance holds its claim
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.softcafe.clinic_system.entities.JobStatus.COMPLETE, " +
+            "j.progress = 100, j.result = :result, j.finishedAt = :now WHERE j.id = :id AND j.claimedBy = :instance")
+    int complete(@Param("id") long id, @Param("instance") String instance, @Param("result") String result,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Marks a job as failed, while the instance holds its claim
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.softcafe.clinic_system.entities.JobStatus.FAILED, " +
+            "j.error = :error, j.finishedAt = :now WHERE j.id = :id AND j.claimedBy = :instance")
+    int fail(@Param("id") long id, @Param("instance") String instance, @Param("error") String error,
+             @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.softcafe.clinic_system.repositories;
+
+import com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue;
+import com.softcafe.clinic_system.entities.PaymentStatus;
+import com.softcafe.clinic_system.entities.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+    Optional<RevenueRollup> findByDayAndDoctorIdAndStatus(LocalDate day, Long doctorId, PaymentStatus status);
+
+    @Modifying
+    @Query("UPDATE RevenueRollup r SET r.bills = r.bills + :bills, r.billed = r.billed + :billed, r.paid = r.paid + :paid " +
+            "WHERE r.day = :day AND r.doctorId = :doctorId AND r.status = :status")
+    int increment(@Param("day") LocalDate day, @Param("doctorId") Long doctorId, @Param("status") PaymentStatus status,
+                  @Param("bills") long bills, @Param("billed") double billed, @Param("paid") double paid);
+
+    @Modifying
+    @Query("DELETE FROM RevenueRollup r WHERE r.day >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT new com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue(" +
+            "r.day, r.doctorId, r.status, r.bills, r.billed, r.paid) " +
+            "FROM RevenueRollup r WHERE r.day BETWEEN :from AND :to")
+    List<DailyRevenue> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
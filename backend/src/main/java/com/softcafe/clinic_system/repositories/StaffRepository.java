@@ -1,23 +1,52 @@
 package com.softcafe.clinic_system.repositories;
 
+import com.softcafe.clinic_system.config.EntityCacheConfig;
+import com.softcafe.clinic_system.dto.UserIdentifiers;
+import com.softcafe.clinic_system.dto.staff.StaffData;
+import com.softcafe.clinic_system.dto.staff.StaffName;
 import com.softcafe.clinic_system.entities.Role;
 import com.softcafe.clinic_system.entities.Staff;
 import com.softcafe.clinic_system.entities.StaffStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Long> {
+    /**
+     * Builds a staff member's DTO straight from the columns of {@code s}, without loading the entity
+     */
+    String DTO = "new com.softcafe.clinic_system.dto.staff.StaffData(s.id, s.fullName, s.username, s.email, " +
+            "s.phone, s.nationalId, s.address, s.dateOfBirth, s.gender, s.image, s.status, s.role, s.lastLogin, " +
+            "s.createdAt, s.updatedAt)";
+
+    @Query("SELECT " + DTO + " FROM Staff s ORDER BY s.id")
+    Slice<StaffData> findBy(Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfig.STAFF_BY_ROLE_REGION)
+    })
     Page<Staff> findByRole(Role role, Pageable page);
 
     Optional<Staff> findByUsernameOrPhoneOrEmail(String username, String phone, String email);
 
     Page<Staff> findByStatus(StaffStatus staffStatus, Pageable pageable);
 
+    long countByStatus(StaffStatus staffStatus);
+
     Optional<Staff> findByEmail(String value);
 
     Optional<Staff> findByPhone(String value);
@@ -26,9 +55,50 @@ public interface StaffRepository extends JpaRepository<Staff, Long> {
 
     Optional<Staff> findByUsername(String username);
 
-    Page<Staff> findByFullNameContainingIgnoreCase(String value, Pageable pageable);
+    /**
+     * Matches {@code lower(full_name)} against a LIKE pattern, which the trigram index on Postgres serves
+     */
+    String NAME_LIKE = "SELECT s FROM Staff s WHERE lower(s.fullName) LIKE :pattern ESCAPE '\\'";
+
+    @Query(NAME_LIKE)
+    Page<Staff> findByNameLike(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(NAME_LIKE + " AND s.role = :role")
+    Page<Staff> findByNameLikeAndRole(@Param("pattern") String pattern, @Param("role") Role role, Pageable pageable);
+
+    @Query(NAME_LIKE + " AND s.status = :status")
+    Page<Staff> findByNameLikeAndStatus(@Param("pattern") String pattern, @Param("status") StaffStatus staffStatus,
+                                        Pageable pageable);
+
+    Page<Staff> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    Page<Staff> findByIdInAndRole(Collection<Long> ids, Role role, Pageable pageable);
+
+    Page<Staff> findByIdInAndStatus(Collection<Long> ids, StaffStatus staffStatus, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.softcafe.clinic_system.dto.staff.StaffName(s.id, s.fullName) FROM Staff s")
+    Stream<StaffName> streamNames();
+
+    /**
+     * Builds the identifiers the lookup index holds from the columns of {@code s}, staff have no insurance number
+     */
+    String IDENTIFIERS = "new com.softcafe.clinic_system.dto.UserIdentifiers(s.id, s.email, s.phone, s.nationalId, " +
+            "s.username, cast(null as String))";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + IDENTIFIERS + " FROM Staff s")
+    Stream<UserIdentifiers> streamIdentifiers();
 
-    Page<Staff> findByFullNameContainingIgnoreCaseAndRole(String value, Role role, Pageable pageable);
+    @Query("SELECT " + IDENTIFIERS + " FROM Staff s WHERE s.id = :id")
+    Optional<UserIdentifiers> findIdentifiers(@Param("id") long id);
 
-    Page<Staff> findByFullNameContainingIgnoreCaseAndStatus(String value, StaffStatus staffStatus, Pageable pageable);
+    /**
+     * Finds the identifiers of every staff member holding any of the given ones in one query
+     */
+    @Query("SELECT " + IDENTIFIERS + " FROM Staff s WHERE s.email = :email OR s.phone = :phone " +
+            "OR s.nationalId = :nationalId OR s.username = :username")
+    List<UserIdentifiers> findByAnyIdentifier(@Param("email") String email, @Param("phone") String phone,
+                                              @Param("nationalId") String nationalId,
+                                              @Param("username") String username);
 }
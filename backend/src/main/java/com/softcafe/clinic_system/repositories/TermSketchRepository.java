@@ -0,0 +1,14 @@
+package com.softcafe.clinic_system.repositories;
+
+import com.softcafe.clinic_system.entities.TermKind;
+import com.softcafe.clinic_system.entities.TermSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface TermSketchRepository extends JpaRepository<TermSketch, Long> {
+    Optional<TermSketch> findByKindAndMonth(TermKind kind, LocalDate month);
+}
@@ -0,0 +1,244 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.report.aggregate.StaffStatusCount;
+import com.softcafe.clinic_system.entities.Appointment;
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps live counts of the appointments created today so dashboards don't query the appointments table.
+ * The counters are replaced with empty ones the first time they are touched after midnight.
+ * <p>
+ * Each instance counts the appointments it saves as their transactions commit. The ones saved by other instances
+ * are announced through {@link EntityCacheService} and only mark the counters as stale, the next read counts today's
+ * appointments again
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentCounterService {
+    private final AppointmentRepository appointmentRepository;
+    private final AtomicReference<DayCounters> current = new AtomicReference<>(new DayCounters(LocalDate.now()));
+    private final Object lock = new Object();
+    /**
+     * Changes committed while the counters are being seeded, replayed on the seeded ones
+     */
+    private List<Consumer<DayCounters>> pending;
+    private volatile boolean stale;
+
+    /**
+     * Loads today's counts from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        stale = false;
+        LocalDate today = LocalDate.now();
+        DayCounters counters = new DayCounters(today);
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        List<StaffStatusCount> rows;
+        try {
+            rows = appointmentRepository.countByStaffAndStatus(
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay().minusNanos(1));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            stale = true;
+            throw e;
+        }
+
+        for (StaffStatusCount row : rows) {
+            counters.add(row.receptionistId(), row.doctorId(), row.status(), row.total());
+        }
+
+        synchronized (lock) {
+            pending.forEach(change -> change.accept(counters));
+            pending = null;
+            current.set(counters);
+        }
+        log.info("Appointment counters seeded for {}", today);
+    }
+
+    /**
+     * Counts an appointment in (or out of) today's counters once the surrounding transaction commits
+     *
+     * @param appointment A saved appointment
+     * @param delta       1 when the appointment is counted, -1 when it is taken away
+     */
+    public void record(Appointment appointment, long delta) {
+        LocalDate day = appointment.getCreatedAt().toLocalDate();
+        Long receptionistId = appointment.getReceptionist().getId();
+        Long doctorId = appointment.getDoctor() == null ? null : appointment.getDoctor().getId();
+        AppointmentStatus status = appointment.getStatus();
+
+        Consumer<DayCounters> change = counters -> {
+            if (counters.day.equals(day)) {
+                counters.add(receptionistId, doctorId, status, delta);
+            }
+        };
+        Runnable update = () -> {
+            synchronized (lock) {
+                change.accept(today());
+                if (pending != null) {
+                    pending.add(change);
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Retrieves the number of appointments created today
+     *
+     * @param status An optional status to count, null for all statuses
+     * @return Number of appointments
+     */
+    public long countToday(AppointmentStatus status) {
+        return counters().sum(Scope.ALL, 0L, status);
+    }
+
+    /**
+     * Retrieves the number of appointments a receptionist booked today
+     *
+     * @param id     Receptionist's primary key
+     * @param status An optional status to count, null for all statuses
+     * @return Number of appointments
+     */
+    public long countTodayByReceptionist(long id, AppointmentStatus status) {
+        return counters().sum(Scope.RECEPTIONIST, id, status);
+    }
+
+    /**
+     * Retrieves the number of appointments booked for a doctor today
+     *
+     * @param id     Doctor's primary key
+     * @param status An optional status to count, null for all statuses
+     * @return Number of appointments
+     */
+    public long countTodayByDoctor(long id, AppointmentStatus status) {
+        return counters().sum(Scope.DOCTOR, id, status);
+    }
+
+    /**
+     * Marks the counters as stale when another instance changed an appointment
+     */
+    @EventListener
+    public void onRemoteChange(EntityCacheService.RemoteChange change) {
+        if (change.type() == Appointment.class) {
+            stale = true;
+        }
+    }
+
+    /**
+     * Retrieves today's counters for reading, seeding them again first when other instances changed appointments
+     *
+     * @return Today's counters
+     */
+    private DayCounters counters() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    try {
+                        seed();
+                    } catch (RuntimeException e) {
+                        log.warn("Couldn't seed the appointment counters again, they may be behind", e);
+                    }
+                }
+            }
+        }
+        return today();
+    }
+
+    /**
+     * Retrieves today's counters, starting empty ones when the date has changed
+     *
+     * @return Today's counters
+     */
+    private DayCounters today() {
+        LocalDate today = LocalDate.now();
+        DayCounters counters = current.get();
+
+        while (counters.day.isBefore(today)) {
+            if (current.compareAndSet(counters, new DayCounters(today))) {
+                log.info("Appointment counters rolled over to {}", today);
+            }
+            counters = current.get();
+        }
+        return counters;
+    }
+
+    private enum Scope {
+        ALL,
+        RECEPTIONIST,
+        DOCTOR
+    }
+
+    private record Key(Scope scope, long staffId, AppointmentStatus status) {
+    }
+
+    /**
+     * Striped counters for a single day
+     */
+    private static final class DayCounters {
+        private final LocalDate day;
+        private final Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+
+        private DayCounters(LocalDate day) {
+            this.day = day;
+        }
+
+        private void add(Long receptionistId, Long doctorId, AppointmentStatus status, long delta) {
+            increment(new Key(Scope.ALL, 0L, status), delta);
+            increment(new Key(Scope.RECEPTIONIST, receptionistId, status), delta);
+            if (doctorId != null) {
+                increment(new Key(Scope.DOCTOR, doctorId, status), delta);
+            }
+        }
+
+        private void increment(Key key, long delta) {
+            counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+
+        private long sum(Scope scope, long staffId, AppointmentStatus status) {
+            if (status != null) {
+                LongAdder adder = counts.get(new Key(scope, staffId, status));
+                return adder == null ? 0 : adder.sum();
+            }
+
+            long total = 0;
+            for (AppointmentStatus value : AppointmentStatus.values()) {
+                total += sum(scope, staffId, value);
+            }
+            return total;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.appointment.AppointmentData;
 import com.softcafe.clinic_system.dto.appointment.AppointmentList;
 import com.softcafe.clinic_system.dto.appointment.NewAppointment;
@@ -8,23 +10,24 @@ import com.softcafe.clinic_system.entities.AppointmentStatus;
 import com.softcafe.clinic_system.entities.Patient;
 import com.softcafe.clinic_system.entities.Staff;
 import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.BillingRepository;
 import com.softcafe.clinic_system.repositories.PatientRepository;
 import com.softcafe.clinic_system.repositories.StaffRepository;
 import com.softcafe.clinic_system.utils.AppointmentUtil;
+import com.softcafe.clinic_system.utils.Cursor;
 import com.softcafe.clinic_system.utils.Util;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +38,10 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final StaffRepository staffRepository;
     private final PatientRepository patientRepository;
+    private final BillingRepository billingRepository;
+    private final RollupService rollupService;
+    private final AppointmentCounterService counterService;
+    private final RowCountService rowCountService;
     private final int PAGE_SIZE = 10;
 
     /**
@@ -42,34 +49,35 @@ public class AppointmentService {
      *
      * @param page Page number
      * @param id   Doctor's primary key
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object containing the total pages and number of appointments
-     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number or ID
+     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number, ID or cursor
      *                                  NOT_FOUND In case doctor's record wasn't found
      */
-    public AppointmentList getByDoctor(int page, Long id) {
+    @ReplicaRead
+    public AppointmentList getByDoctor(int page, Long id, String cursor, PageMode mode) {
         // Validate ID
         Util.validateId(id);
         Util.validatePage(page);
 
-        // Fetch the doctor's details
-        Optional<Staff> doctor = staffRepository.findById(id);
-
         // Check if doctor exists
-        if (doctor.isEmpty()) {
+        if (!staffRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified doctor doesn't exist!");
         }
 
-        // Fetch the list of appointments
-        Page<Appointment> pages = appointmentRepository.findByDoctor(PageRequest.of(page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at")), doctor.get());
-
-        List<AppointmentData> list = new ArrayList<>();
-
-        // Convert each entry to a DTO
-        for (Appointment appointment : pages) {
-            list.add(AppointmentUtil.toDto(appointment));
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(appointmentRepository.findNextByDoctor(
+                    id, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
         }
 
-        return new AppointmentList(pages.getTotalPages(), list);
+        // Fetch the list of appointments
+        Slice<AppointmentData> pages = appointmentRepository.findByDoctor(id, PageRequest.of(page - 1, PAGE_SIZE));
+
+        return toList(pages, rowCountService.totalPages(pages, mode, "appointments:doctor:" + id,
+                () -> appointmentRepository.countByDoctor_Id(id)));
     }
 
     /**
@@ -78,21 +86,27 @@ public class AppointmentService {
      * @param start Starting of date range
      * @param end   ENd of date range
      * @param page  Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object containing the list of appointments and total number of expected pages
-     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number or dates
+     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number, dates or cursor
      */
-    public AppointmentList getByDateRange(LocalDateTime start, LocalDateTime end, int page) {
-        Page<Appointment> pages = null;
+    @ReplicaRead
+    public AppointmentList getByDateRange(LocalDateTime start, LocalDateTime end, int page, String cursor, PageMode mode) {
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(appointmentRepository.findNextByCreatedAtBetween(
+                    start, end, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
+        }
+
+        Slice<AppointmentData> pages = null;
         pages = page == 0 ?
                 appointmentRepository.findByCreatedAtBetween(start, end, Pageable.unpaged()) :
                 appointmentRepository.findByCreatedAtBetween(start, end, PageRequest.of(page - 1, PAGE_SIZE));
-        List<AppointmentData> list = new ArrayList<>();
-
-        for (Appointment appointment : pages) {
-            list.add(AppointmentUtil.toDto(appointment));
-        }
 
-        return new AppointmentList(pages.getTotalPages(), list);
+        return toList(pages, rowCountService.totalPages(pages, mode, "appointments:created:" + start + "/" + end,
+                () -> appointmentRepository.countByCreatedAtBetween(start, end)));
     }
 
     /**
@@ -100,30 +114,33 @@ public class AppointmentService {
      *
      * @param id   Patient's primary key
      * @param page Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object containing the list of appointments and total number of expected pages
-     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number or ID
+     * @throws ResponseStatusException: BAD_REQUEST In case of invalid page number, ID or cursor
      *                                  NOT_FOUND In case patient's details weren't found
      */
-    public AppointmentList getByPatient(Long id, int page) {
+    @ReplicaRead
+    public AppointmentList getByPatient(Long id, int page, String cursor, PageMode mode) {
         Util.validateId(id);
         Util.validatePage(page);
 
-        // Fetch patient's details
-        Optional<Patient> patient = patientRepository.findById(id);
-
-        if (patient.isEmpty()) {
+        // Check if patient exists
+        if (!patientRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified patient doesn't exist!");
         }
 
-        Page<Appointment> appointmentPage = appointmentRepository.findByPatient(patient.get(), PageRequest.of(page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at")));
-
-        List<AppointmentData> appointments = new ArrayList<>();
-
-        for (Appointment appointment : appointmentPage) {
-            appointments.add(AppointmentUtil.toDto(appointment));
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(appointmentRepository.findNextByPatient(
+                    id, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
         }
 
-        return new AppointmentList(appointmentPage.getTotalPages(), appointments);
+        Slice<AppointmentData> appointmentPage = appointmentRepository.findByPatient(id, PageRequest.of(page - 1, PAGE_SIZE));
+
+        return toList(appointmentPage, rowCountService.totalPages(appointmentPage, mode,
+                "appointments:patient:" + id, () -> appointmentRepository.countByPatient_Id(id)));
     }
 
     /**
@@ -168,7 +185,11 @@ public class AppointmentService {
         appointment.setReceptionist(receptionist.get());
         appointment.setStatus(AppointmentStatus.PENDING);
 
-        AppointmentData appointmentData = AppointmentUtil.toDto(appointmentRepository.save(appointment));
+        Appointment saved = appointmentRepository.save(appointment);
+        rollupService.recordAppointment(saved, 1);
+        counterService.record(saved, 1);
+
+        AppointmentData appointmentData = AppointmentUtil.toDto(saved);
 
         log.info("A new appointment with ID: {} was created", appointmentData.id());
         return appointmentData;
@@ -207,11 +228,19 @@ public class AppointmentService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified doctor doesn't exist!");
         }
 
+        // Move the appointment out of its old rollup
+        rollupService.recordAppointment(appointment.get(), -1);
+        counterService.record(appointment.get(), -1);
+
         // Update the data
         appointment.get().setDoctor(doctor.get());
         appointment.get().setPatient(patient.get());
 
-        AppointmentData appointmentData = AppointmentUtil.toDto(appointmentRepository.save(appointment.get()));
+        Appointment saved = appointmentRepository.save(appointment.get());
+        rollupService.recordAppointment(saved, 1);
+        counterService.record(saved, 1);
+
+        AppointmentData appointmentData = AppointmentUtil.toDto(saved);
 
         log.info("Appointment with ID: {} was updated", appointmentData.id());
         return appointmentData;
@@ -223,7 +252,9 @@ public class AppointmentService {
      * @param id The appointment's primary key
      * @throws ResponseStatusException: BAD_REQUEST In case of missing or invalid id
      *                                  NOT_FOUND In case the specified appointment record wasn't found
+     *                                  CONFLICT In case the appointment is billed
      */
+    @Transactional
     public void delete(Long id) {
         Util.validateId(id);
 
@@ -235,6 +266,13 @@ public class AppointmentService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified appointment doesn't exist!");
         }
 
+        // No foreign key guards the billings on a partitioned database
+        if (billingRepository.existsByAppointment_Id(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The specified appointment has billings!");
+        }
+
+        rollupService.recordAppointment(appointment.get(), -1);
+        counterService.record(appointment.get(), -1);
         appointmentRepository.delete(appointment.get());
     }
 
@@ -242,13 +280,41 @@ public class AppointmentService {
      * Retrieves a paginated list of appointments
      *
      * @param page The page number to request
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the total number of expected pages and a list of 10 appointments
      */
-    public AppointmentList getAll(int page) {
-        Page<Appointment> appointmentPage = appointmentRepository.findAll(PageRequest.of(
-                page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")
+    @ReplicaRead
+    public AppointmentList getAll(int page, String cursor, PageMode mode) {
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(appointmentRepository.findNext(
+                    after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
+        }
+
+        Slice<AppointmentData> appointmentPage = appointmentRepository.findBy(PageRequest.of(
+                page, PAGE_SIZE
         ));
 
-        return new AppointmentList(appointmentPage.getTotalPages(), appointmentPage.stream().map(AppointmentUtil::toDto).toList());
+        return toList(appointmentPage, rowCountService.totalTablePages(appointmentPage, mode, "appointments",
+                appointmentRepository::count));
+    }
+
+    private AppointmentList toList(Slice<AppointmentData> page, int totalPages) {
+        return new AppointmentList(totalPages, page.stream().map(AppointmentUtil::withoutEmptyDoctor).toList(),
+                Cursor.next(page.getContent(), page.hasNext(), AppointmentData::createdAt, AppointmentData::id),
+                page.hasNext());
+    }
+
+    /**
+     * Trims the extra row fetched past a cursor page, which tells whether another page follows
+     */
+    private AppointmentList toList(List<AppointmentData> rows) {
+        boolean hasNext = rows.size() > PAGE_SIZE;
+        List<AppointmentData> page = hasNext ? rows.subList(0, PAGE_SIZE) : rows;
+
+        return new AppointmentList(0, page.stream().map(AppointmentUtil::withoutEmptyDoctor).toList(),
+                Cursor.next(page, hasNext, AppointmentData::createdAt, AppointmentData::id), hasNext);
     }
 }
\ No newline at end of file
@@ -1,20 +1,24 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.billing.BillList;
 import com.softcafe.clinic_system.dto.billing.BillingData;
 import com.softcafe.clinic_system.dto.billing.NewBill;
+import com.softcafe.clinic_system.dto.billing.NewPayment;
 import com.softcafe.clinic_system.entities.Billing;
 import com.softcafe.clinic_system.entities.Patient;
 import com.softcafe.clinic_system.entities.PaymentStatus;
 import com.softcafe.clinic_system.repositories.BillingRepository;
 import com.softcafe.clinic_system.repositories.PatientRepository;
 import com.softcafe.clinic_system.utils.BillingUtil;
+import com.softcafe.clinic_system.utils.Cursor;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -30,7 +34,13 @@ public class BillingService {
 
     private final BillingRepository billingRepository;
     private final PatientRepository patientRepository;
+    private final RollupService rollupService;
+    private final RowCountService rowCountService;
     private final int PAGE_SIZE = 10;
+    /**
+     * A payment is retried when the billing's status changes under it, which happens at most twice per billing
+     */
+    private final int PAYMENT_ATTEMPTS = 3;
 
     /**
      * Adds a new billing to the system
@@ -43,7 +53,10 @@ public class BillingService {
         // Fetch patient's details
         Patient patient = getPatient(newBill.patientId());
 
-        BillingData billingData = BillingUtil.toDto(billingRepository.save(BillingUtil.toObject(newBill, patient)));
+        Billing billing = billingRepository.save(BillingUtil.toObject(newBill, patient));
+        rollupService.recordBilling(billing, 1);
+
+        BillingData billingData = BillingUtil.toDto(billing);
 
         billingRepository.flush();
 
@@ -57,17 +70,25 @@ public class BillingService {
      *
      * @param id   Patient's primary key
      * @param page Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the list of bills and total expected pages
      */
-    public BillList getByPatient(Long id, int page) {
+    @ReplicaRead
+    public BillList getByPatient(Long id, int page, String cursor, PageMode mode) {
         // Fetch patient's details
         Patient patient = getPatient(id);
 
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(billingRepository.findNextByPatient(
+                    patient, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ), PAGE_SIZE);
+        }
+
         // Fetch the page of bills
-        Page<Billing> pageOfBills = billingRepository.findByPatient(
-                patient, PageRequest.of(page - 1, PAGE_SIZE, Sort.by(
-                        Sort.Direction.DESC, "created_At"
-                ))
+        Slice<Billing> pageOfBills = billingRepository.findByPatient(
+                patient, PageRequest.of(page - 1, PAGE_SIZE, Cursor.NEWEST_FIRST)
         );
 
         List<BillingData> listOfBills = new ArrayList<>();
@@ -76,7 +97,8 @@ public class BillingService {
             listOfBills.add(BillingUtil.toDto(billing));
         }
 
-        return new BillList(pageOfBills.getTotalPages(), listOfBills);
+        return toList(pageOfBills, listOfBills, rowCountService.totalPages(pageOfBills, mode,
+                "billings:patient:" + id, () -> billingRepository.countByPatient(patient)));
     }
 
     /**
@@ -85,19 +107,27 @@ public class BillingService {
      * @param start Starting data
      * @param end   Ending date
      * @param page  Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the list of bills and total expected pages
      */
-    public BillList getByDateRange(LocalDateTime start, LocalDateTime end, int page) {
+    @ReplicaRead
+    public BillList getByDateRange(LocalDateTime start, LocalDateTime end, int page, String cursor, PageMode mode) {
         // Ensure the end date isn't before starting date
         if (end.isBefore(start)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ensure the ending date is after starting date!");
         }
 
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(billingRepository.findNextByCreatedAtBetween(
+                    start, end, after.createdAt(), after.id(), Limit.of(5 + 1)
+            ), 5);
+        }
+
         // Fetch the page of Billings
-        Page<Billing> billingPage = billingRepository.findByCreatedAtBetween(
-                start, end, PageRequest.of(page - 1, 5, Sort.by(
-                        Sort.Direction.DESC, "createdAt"
-                ))
+        Slice<Billing> billingPage = billingRepository.findByCreatedAtBetween(
+                start, end, PageRequest.of(page - 1, 5, Cursor.NEWEST_FIRST)
         );
 
         List<BillingData> billingList = new ArrayList<>();
@@ -106,7 +136,8 @@ public class BillingService {
             billingList.add(BillingUtil.toDto(billing));
         }
 
-        return new BillList(billingPage.getTotalPages(), billingList);
+        return toList(billingPage, billingList, rowCountService.totalPages(billingPage, mode,
+                "billings:created:" + start + "/" + end, () -> billingRepository.countByCreatedAtBetween(start, end)));
     }
 
     /**
@@ -114,11 +145,21 @@ public class BillingService {
      *
      * @param status Payment status
      * @param page   Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the list of bills and total expected pages
      */
-    public BillList getByStatus(PaymentStatus status, int page) {
-        Page<Billing> billingPage = billingRepository.findByStatus(status, PageRequest.of(page - 1, PAGE_SIZE,
-                Sort.by(Sort.Direction.DESC, "created_at")));
+    @ReplicaRead
+    public BillList getByStatus(PaymentStatus status, int page, String cursor, PageMode mode) {
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(billingRepository.findNextByStatus(
+                    status, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ), PAGE_SIZE);
+        }
+
+        Slice<Billing> billingPage = billingRepository.findByStatus(status, PageRequest.of(page - 1, PAGE_SIZE,
+                Cursor.NEWEST_FIRST));
 
         List<BillingData> list = new ArrayList<>();
 
@@ -126,7 +167,8 @@ public class BillingService {
             list.add(BillingUtil.toDto(billing));
         }
 
-        return new BillList(billingPage.getTotalPages(), list);
+        return toList(billingPage, list, rowCountService.totalPages(billingPage, mode,
+                "billings:status:" + status, () -> billingRepository.countByStatus(status)));
     }
 
     /**
@@ -134,15 +176,25 @@ public class BillingService {
      *
      * @param method Payment method
      * @param page   Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the list of billings and total expected pages
      */
-    public BillList getByPaymentMethod(String method, int page) {
+    @ReplicaRead
+    public BillList getByPaymentMethod(String method, int page, String cursor, PageMode mode) {
         if (method == null || method.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide the payment method!");
         }
 
-        Page<Billing> billingPage = billingRepository.findByPaymentMethod(method, PageRequest.of(
-                page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at")
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(billingRepository.findNextByPaymentMethod(
+                    method, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ), PAGE_SIZE);
+        }
+
+        Slice<Billing> billingPage = billingRepository.findByPaymentMethod(method, PageRequest.of(
+                page - 1, PAGE_SIZE, Cursor.NEWEST_FIRST
         ));
 
         List<BillingData> list = new ArrayList<>();
@@ -151,7 +203,8 @@ public class BillingService {
             list.add(BillingUtil.toDto(billing));
         }
 
-        return new BillList(billingPage.getTotalPages(), list);
+        return toList(billingPage, list, rowCountService.totalPages(billingPage, mode,
+                "billings:method:" + method, () -> billingRepository.countByPaymentMethod(method)));
     }
 
     /**
@@ -166,18 +219,77 @@ public class BillingService {
         // Fetch the billings details
         Billing oldBill = getBilling(id);
 
+        if (updatedBill.version() != null && !updatedBill.version().equals(oldBill.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The billing was changed by someone else, reload it and try again!");
+        }
+
         // Fetch the patient's details
         Patient patient = getPatient(updatedBill.patientId());
 
+        // Move the billing out of its old rollup
+        rollupService.recordBilling(oldBill, -1);
+
         BillingUtil.update(oldBill, updatedBill, patient);
 
-        BillingData billingData = BillingUtil.toDto(billingRepository.save(oldBill));
+        Billing saved = billingRepository.save(oldBill);
+        rollupService.recordBilling(saved, 1);
+
+        BillingData billingData = BillingUtil.toDto(saved);
         billingRepository.flush();
 
         log.info("A billing with ID:{} was updated successfully", id);
         return billingData;
     }
 
+    /**
+     * Records a payment towards a billing. The amount is added and the status derived in a single update,
+     * so payments made at the same time on the same billing are all counted
+     *
+     * @param id      Billing's primary key
+     * @param payment The payment's data
+     * @return The billing's data after the payment
+     */
+    @Transactional
+    public BillingData pay(Long id, NewPayment payment) {
+        if (payment == null || payment.amount() == null || payment.amount() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The amount paid should be above 0!");
+        }
+
+        for (int attempt = 0; attempt < PAYMENT_ATTEMPTS; attempt++) {
+            Billing billing = getBilling(id);
+            PaymentStatus status = billing.getStatus();
+
+            if (status == PaymentStatus.CANCELLED || status == PaymentStatus.PAID) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "The billing is already " + status.name().toLowerCase() + "!");
+            }
+
+            if (billing.getAmountPaid() + payment.amount() > billing.getTotalAmount()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The amount exceeds the billing's balance!");
+            }
+
+            if (billingRepository.pay(id, status, payment.amount(), LocalDateTime.now()) == 0) {
+                // Another payment changed the status or the balance first
+                continue;
+            }
+
+            // The row stays locked until commit, so this is the state the payment left it in
+            Billing paid = getBilling(id);
+            rollupService.recordBilling(Billing.builder()
+                    .appointment(paid.getAppointment())
+                    .createdAt(paid.getCreatedAt())
+                    .totalAmount(paid.getTotalAmount())
+                    .amountPaid(paid.getAmountPaid() - payment.amount())
+                    .status(status)
+                    .build(), -1);
+            rollupService.recordBilling(paid, 1);
+
+            log.info("A payment of {} was made towards billing with ID:{}", payment.amount(), id);
+            return BillingUtil.toDto(paid);
+        }
+
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "The billing is being paid by someone else, try again!");
+    }
+
     /**
      * Removes an existing billing from the system
      *
@@ -188,6 +300,7 @@ public class BillingService {
         // Fetch the billing's data
         Billing billing = getBilling(id);
 
+        rollupService.recordBilling(billing, -1);
         billingRepository.delete(billing);
         log.info("Billing with ID:{} successfully deleted", id);
     }
@@ -205,6 +318,22 @@ public class BillingService {
                         new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified patient doesn't exist!"));
     }
 
+    private BillList toList(Slice<Billing> page, List<BillingData> bills, int totalPages) {
+        return new BillList(totalPages, bills,
+                Cursor.next(page.getContent(), page.hasNext(), Billing::getCreatedAt, Billing::getId), page.hasNext());
+    }
+
+    /**
+     * Trims the extra row fetched past a cursor page, which tells whether another page follows
+     */
+    private BillList toList(List<Billing> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<Billing> page = hasNext ? rows.subList(0, size) : rows;
+
+        return new BillList(0, page.stream().map(BillingUtil::toDto).toList(),
+                Cursor.next(page, hasNext, Billing::getCreatedAt, Billing::getId), hasNext);
+    }
+
     /**
      * Retrieves a billing's details
      *
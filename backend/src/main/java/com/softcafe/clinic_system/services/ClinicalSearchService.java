@@ -0,0 +1,482 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.search.ClinicalKind;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchHit;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchResults;
+import com.softcafe.clinic_system.dto.search.LabTestDocument;
+import com.softcafe.clinic_system.dto.search.RecordDocument;
+import com.softcafe.clinic_system.entities.LabTest;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.repositories.LabTestRepository;
+import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.utils.ClinicalSearchUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Searches the text of records and lab tests from a Lucene index kept on local disk.
+ * <p>
+ * Committed changes are queued by id and a single indexer thread reads the rows again and applies them in batches,
+ * so a row is always indexed as it is in the database. The queue is bounded: when it overflows the changes are
+ * dropped and the index is rebuilt instead. Every instance keeps its own index, and follows the changes the others
+ * announce through {@link EntityCacheService}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClinicalSearchService {
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGE = 100;
+    private static final String[] HIGHLIGHTED = ClinicalSearchUtil.TEXT_FIELDS.keySet().toArray(String[]::new);
+    private final RecordRepository recordRepository;
+    private final LabTestRepository labTestRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<Change> queue;
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean running;
+    private Thread indexer;
+
+    @Value("${app.search.index-dir:search-index}")
+    private Path indexDir;
+
+    @Value("${app.search.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * Changes applied at once, and rows read per query when rebuilding
+     */
+    @Value("${app.search.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Batches read at once when rebuilding, each holds a database connection
+     */
+    @Value("${app.search.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${app.search.retry-delay:5000}")
+    private long retryDelay;
+
+    @PostConstruct
+    void open() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        directory = FSDirectory.open(indexDir);
+        // Every batch and rebuild commits when it's done, so closing only has a rebuild cut short to commit
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setCommitOnClose(false));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Starts the indexer, building the index first when it's empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (writer.getDocStats().numDocs == 0) {
+            rebuildRequested.set(true);
+        }
+
+        running = true;
+        indexer = Thread.ofPlatform().daemon().name("clinical-indexer").start(this::index);
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        running = false;
+        if (indexer != null) {
+            indexer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Searches the symptoms, diagnoses, treatments and notes of records and the findings of lab tests
+     *
+     * @param query     Words to look for. Quotes match a phrase, a trailing * a prefix and a leading - excludes a word
+     * @param patientId Optional patient
+     * @param doctorId  Optional doctor
+     * @param start     Optional earliest creation date
+     * @param end       Optional latest creation date
+     * @param kind      Optional kind of document
+     * @param page      Page number
+     * @return A page of matches, most relevant first, with the matching passages highlighted
+     * @throws ResponseStatusException BAD_REQUEST In case of a missing query, an invalid page or date range
+     */
+    public ClinicalSearchResults search(String query, Long patientId, Long doctorId, LocalDateTime start,
+                                        LocalDateTime end, ClinicalKind kind, int page) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a search query!");
+        }
+        if (page < 1 || page > MAX_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The page should be between 1 and " + MAX_PAGE + "!");
+        }
+        if (start != null && end != null && end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The end date should be after the starting date!");
+        }
+
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, ClinicalSearchUtil.TEXT_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query text = parser.parse(query);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(text, BooleanClause.Occur.MUST);
+        if (patientId != null) {
+            builder.add(LongField.newExactQuery(ClinicalSearchUtil.PATIENT_ID, patientId), BooleanClause.Occur.FILTER);
+        }
+        if (doctorId != null) {
+            builder.add(LongField.newExactQuery(ClinicalSearchUtil.DOCTOR_ID, doctorId), BooleanClause.Occur.FILTER);
+        }
+        if (start != null || end != null) {
+            builder.add(LongField.newRangeQuery(ClinicalSearchUtil.CREATED_AT,
+                    start == null ? Long.MIN_VALUE : ClinicalSearchUtil.toMillis(start),
+                    end == null ? Long.MAX_VALUE : ClinicalSearchUtil.toMillis(end)), BooleanClause.Occur.FILTER);
+        }
+        if (kind != null) {
+            builder.add(new TermQuery(new Term(ClinicalSearchUtil.KIND, kind.name())), BooleanClause.Occur.FILTER);
+        }
+        Query filtered = builder.build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return search(searcher, filtered, text, page);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ClinicalSearchResults search(IndexSearcher searcher, Query query, Query text, int page) throws IOException {
+        // Equally relevant matches list the newest first
+        Sort sort = new Sort(SortField.FIELD_SCORE,
+                new SortedNumericSortField(ClinicalSearchUtil.CREATED_AT, SortField.Type.LONG, true));
+        TopFieldDocs top = searcher.search(query, page * PAGE_SIZE, sort, true);
+        long total = searcher.count(query);
+
+        int from = (page - 1) * PAGE_SIZE;
+        if (from >= top.scoreDocs.length) {
+            return new ClinicalSearchResults(total, totalPages(total), List.of());
+        }
+
+        ScoreDoc[] hits = Arrays.copyOfRange(top.scoreDocs, from, top.scoreDocs.length);
+        int[] docIds = new int[hits.length];
+        int[] passages = new int[HIGHLIGHTED.length];
+        for (int i = 0; i < hits.length; i++) {
+            docIds[i] = hits[i].doc;
+        }
+        Arrays.fill(passages, 2);
+
+        UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", " … ", true))
+                .build();
+        Map<String, String[]> highlights = highlighter.highlightFields(HIGHLIGHTED, text, docIds, passages);
+
+        StoredFields storedFields = searcher.storedFields();
+        List<ClinicalSearchHit> results = new ArrayList<>(hits.length);
+        for (int i = 0; i < hits.length; i++) {
+            Map<String, String> passagesByField = new LinkedHashMap<>();
+            for (String field : HIGHLIGHTED) {
+                String passage = highlights.get(field)[i];
+                if (passage != null && passage.contains("<mark>")) {
+                    // Values of a multi-valued field are joined with a paragraph separator
+                    passagesByField.put(field, passage.replace('\u2029', ';'));
+                }
+            }
+            Document document = storedFields.document(hits[i].doc);
+            results.add(ClinicalSearchUtil.toHit(document, hits[i].score, passagesByField));
+        }
+
+        return new ClinicalSearchResults(total, totalPages(total), results);
+    }
+
+    private static int totalPages(long total) {
+        return (int) Math.min(MAX_PAGE, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    /**
+     * Indexes a record, and its lab tests, once the surrounding transaction commits. A record that no longer
+     * exists is taken out of the index
+     *
+     * @param id The record's primary key
+     */
+    public void recordChanged(long id) {
+        afterCommit(new Change(ClinicalKind.RECORD, id));
+    }
+
+    /**
+     * Indexes a lab test once the surrounding transaction commits. A test that no longer exists is taken out
+     * of the index
+     *
+     * @param id The test's primary key
+     */
+    public void labTestChanged(long id) {
+        afterCommit(new Change(ClinicalKind.LAB_TEST, id));
+    }
+
+    /**
+     * Reads every record and lab test into a fresh index. Searches keep using the current index until it's done
+     */
+    public void rebuild() {
+        rebuildRequested.set(true);
+    }
+
+    /**
+     * Indexes the records and lab tests other instances changed. They were committed before being announced
+     */
+    @EventListener
+    public void onRemoteChange(EntityCacheService.RemoteChange change) {
+        ClinicalKind kind = change.type() == Record.class ? ClinicalKind.RECORD
+                : change.type() == LabTest.class ? ClinicalKind.LAB_TEST : null;
+        if (kind == null) {
+            return;
+        }
+
+        if (change.id() == null) {
+            // Changes were missed while the instances weren't connected
+            rebuild();
+        } else {
+            enqueue(new Change(kind, change.id()));
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(change);
+                }
+            });
+        } else {
+            enqueue(change);
+        }
+    }
+
+    private void enqueue(Change change) {
+        // Never hold up the request, a rebuild catches the index up
+        if (!queue.offer(change) && dropped.getAndIncrement() == 0) {
+            log.warn("The clinical search queue is full, the index will be rebuilt");
+        }
+    }
+
+    private void index() {
+        List<Change> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                if (rebuildRequested.getAndSet(false) || dropped.get() > 0) {
+                    rebuildIndex();
+                    continue;
+                }
+
+                Change first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to update the clinical search index, it will be rebuilt", e);
+                rebuildRequested.set(true);
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Reads the changed rows again and replaces their documents
+     */
+    private void apply(List<Change> batch) throws IOException {
+        Set<Long> records = new LinkedHashSet<>();
+        Set<Long> tests = new LinkedHashSet<>();
+        for (Change change : batch) {
+            (change.kind() == ClinicalKind.RECORD ? records : tests).add(change.id());
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        if (!records.isEmpty()) {
+            List<RecordDocument> found = template.execute(status -> recordRepository.findDocuments(records));
+            // A record's tests carry its patient and doctor
+            List<LabTestDocument> recordTests = template.execute(status -> labTestRepository.findDocumentsByRecords(records));
+
+            Set<Long> missing = new LinkedHashSet<>(records);
+            for (RecordDocument record : found) {
+                missing.remove(record.id());
+                writer.updateDocument(ClinicalSearchUtil.key(ClinicalKind.RECORD, record.id()),
+                        ClinicalSearchUtil.toDocument(record));
+            }
+            for (Long id : missing) {
+                // The record's tests went with it
+                writer.deleteDocuments(LongField.newExactQuery(ClinicalSearchUtil.RECORD_ID, id));
+            }
+            for (LabTestDocument test : recordTests) {
+                tests.remove(test.id());
+                writer.updateDocument(ClinicalSearchUtil.key(ClinicalKind.LAB_TEST, test.id()),
+                        ClinicalSearchUtil.toDocument(test));
+            }
+        }
+
+        if (!tests.isEmpty()) {
+            List<LabTestDocument> found = template.execute(status -> labTestRepository.findDocuments(tests));
+
+            Set<Long> missing = new LinkedHashSet<>(tests);
+            for (LabTestDocument test : found) {
+                missing.remove(test.id());
+                writer.updateDocument(ClinicalSearchUtil.key(ClinicalKind.LAB_TEST, test.id()),
+                        ClinicalSearchUtil.toDocument(test));
+            }
+            for (Long id : missing) {
+                writer.deleteDocuments(ClinicalSearchUtil.key(ClinicalKind.LAB_TEST, id));
+            }
+        }
+
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Replaces every document, reading the records and lab tests in id ranges on several threads. The queued
+     * changes wait and are applied afterwards
+     */
+    private void rebuildIndex() throws IOException, InterruptedException {
+        long started = System.currentTimeMillis();
+        dropped.set(0);
+        writer.deleteAll();
+
+        int records = reindex(recordRepository::findMaxId,
+                (from, to) -> recordRepository.findDocumentsBetween(from, to).stream()
+                        .map(ClinicalSearchUtil::toDocument).toList());
+        int tests = reindex(labTestRepository::findMaxId,
+                (from, to) -> labTestRepository.findDocumentsBetween(from, to).stream()
+                        .map(ClinicalSearchUtil::toDocument).toList());
+
+        writer.commit();
+        searcherManager.maybeRefresh();
+        log.info("Indexed {} records and {} lab tests for search in {} ms", records, tests,
+                System.currentTimeMillis() - started);
+    }
+
+    private int reindex(Supplier<Long> maxId, RangeReader reader) throws IOException, InterruptedException {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        Long max = template.execute(status -> maxId.get());
+        if (max == null) {
+            return 0;
+        }
+
+        List<Future<Integer>> batches = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads,
+                Thread.ofPlatform().name("clinical-rebuild-", 0).factory())) {
+            for (long from = 0; from <= max; from += batchSize) {
+                long to = Math.min(max, from + batchSize - 1);
+                long first = from;
+                batches.add(executor.submit(() -> {
+                    List<Document> documents = template.execute(status -> reader.read(first, to));
+                    writer.addDocuments(documents);
+                    return documents.size();
+                }));
+            }
+        }
+
+        int indexed = 0;
+        for (Future<Integer> batch : batches) {
+            try {
+                indexed += batch.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Failed to reindex a batch", e.getCause());
+            }
+        }
+        return indexed;
+    }
+
+    @FunctionalInterface
+    private interface RangeReader {
+        List<Document> read(long from, long to);
+    }
+
+    private record Change(ClinicalKind kind, long id) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.utils.RowIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory index built from a stream of rows and kept up to date as the changes to them commit. A rebuild runs
+ * beside the current index, which keeps answering, and the changes committed meanwhile are replayed on the new one
+ *
+ * @param <R> What's indexed of a row
+ * @param <I> The index
+ */
+@Slf4j
+final class CommittedIndex<R, I extends RowIndex<R>> {
+    private final String name;
+    private final PlatformTransactionManager transactionManager;
+    private final Supplier<Stream<R>> rows;
+    private final Function<Stream<R>, I> builder;
+    private final Object lock = new Object();
+    private volatile I index;
+    /**
+     * Changes committed while an index is being built, replayed on it once it's done
+     */
+    private List<Consumer<I>> pending;
+
+    /**
+     * @param name               What's indexed, for the logs
+     * @param transactionManager Reads the rows in a transaction of their own
+     * @param rows               Every row, read from the primary
+     * @param builder            Builds an index in one pass
+     */
+    CommittedIndex(String name, PlatformTransactionManager transactionManager, Supplier<Stream<R>> rows,
+                   Function<Stream<R>, I> builder) {
+        this.name = name;
+        this.transactionManager = transactionManager;
+        this.rows = rows;
+        this.builder = builder;
+    }
+
+    /**
+     * @return The index, null until it's first built
+     */
+    I current() {
+        return index;
+    }
+
+    /**
+     * Builds the index from every row
+     */
+    synchronized void build() {
+        long started = System.currentTimeMillis();
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        I built;
+        try {
+            // Read from the primary, a lagging replica would miss the latest rows for good
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            built = template.execute(status -> {
+                try (Stream<R> all = rows.get()) {
+                    return builder.apply(all);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            pending.forEach(change -> change.accept(built));
+            pending = null;
+            index = built;
+        }
+        log.info("Indexed {} {} in {} ms", built.size(), name, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Indexes a row once the surrounding transaction commits
+     *
+     * @param row The row as it was saved, copied so later changes to the entity don't leak in
+     */
+    void put(R row) {
+        afterCommit(() -> apply(current -> current.put(row)));
+    }
+
+    /**
+     * Takes a deleted row out of the index once the surrounding transaction commits
+     *
+     * @param id The row's primary key
+     */
+    void remove(long id) {
+        afterCommit(() -> apply(current -> current.remove(id)));
+    }
+
+    /**
+     * Follows a change committed by another instance
+     *
+     * @param id   The changed row, null when any row may have changed
+     * @param read Reads a row as it is now, empty once it's deleted
+     */
+    void follow(Long id, LongFunction<Optional<R>> read) {
+        if (id == null) {
+            // Changes were missed while the instances weren't connected
+            build();
+        } else {
+            read.apply(id).ifPresentOrElse(
+                    row -> apply(current -> current.put(row)),
+                    () -> apply(current -> current.remove(id))
+            );
+        }
+    }
+
+    private void apply(Consumer<I> change) {
+        synchronized (lock) {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
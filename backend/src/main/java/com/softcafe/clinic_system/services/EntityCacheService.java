@@ -0,0 +1,293 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.config.EntityCacheConfig;
+import com.softcafe.clinic_system.dto.report.CacheRegionStats;
+import com.softcafe.clinic_system.dto.report.EntityCacheStats;
+import com.softcafe.clinic_system.entities.Appointment;
+import com.softcafe.clinic_system.entities.LabTest;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.entities.Staff;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the second-level cache of every instance in step. A change to a staff member or patient is announced with
+ * a Postgres NOTIFY sent by the writing transaction, so it's only delivered once the change commits, and the other
+ * instances evict the entry when they hear it. Changes to records and lab tests are announced the same way for the
+ * search indexes, and changes to appointments for the daily counters, though they aren't cached. Writes that bypass
+ * Hibernate's events, like bulk updates, aren't announced.
+ * What was heard is also published as a {@link RemoteChange} for the other in-memory state, in order on a thread of
+ * its own so a slow or failing listener neither holds up nor stops the evictions
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EntityCacheService implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private static final String CHANNEL = "entity_cache";
+    private static final String STAFF = "Staff";
+    private static final String PATIENT = "Patient";
+    private static final Map<String, Class<?>> TYPES = Map.of(STAFF, Staff.class, PATIENT, Patient.class,
+            "Record", Record.class, "LabTest", LabTest.class, "Appointment", Appointment.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instance = UUID.randomUUID().toString();
+    private final AtomicLong remoteEvictions = new AtomicLong();
+    private final ExecutorService changes =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().daemon().name("entity-cache-changes").factory());
+    private SessionFactoryImplementor sessionFactory;
+    private boolean postgres;
+    private volatile boolean running;
+    private volatile boolean listening;
+
+    @Value("${app.entity-cache.reconnect-delay:5000}")
+    private long reconnectDelay;
+
+    @PostConstruct
+    void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        postgres = sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+
+        // Other databases run a single instance, its own writes keep its cache right
+        if (postgres) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_INSERT, this);
+            registry.appendListeners(EventType.POST_UPDATE, this);
+            registry.appendListeners(EventType.POST_DELETE, this);
+        }
+    }
+
+    /**
+     * Starts listening for the changes announced by the other instances. The listener keeps one connection
+     * of the pool for itself
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        if (!postgres) {
+            return;
+        }
+
+        running = true;
+        Thread.ofPlatform().daemon().name("entity-cache-listener").start(this::receive);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        changes.shutdownNow();
+    }
+
+    /**
+     * @return The hit ratios of the cache regions and the evictions made for other instances
+     */
+    public EntityCacheStats stats() {
+        return new EntityCacheStats(listening, remoteEvictions.get(), List.of(
+                toStats(EntityCacheConfig.USERS_REGION,
+                        sessionFactory.getStatistics().getDomainDataRegionStatistics(EntityCacheConfig.USERS_REGION)),
+                toStats(EntityCacheConfig.STAFF_BY_ROLE_REGION,
+                        sessionFactory.getStatistics().getQueryRegionStatistics(EntityCacheConfig.STAFF_BY_ROLE_REGION))
+        ));
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // New rows belong in the indexes, and any staff change already clears the cached query results
+        announce(event.getSession(), typeOf(event.getEntity()), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        announce(event.getSession(), typeOf(event.getEntity()), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        announce(event.getSession(), typeOf(event.getEntity()), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static String typeOf(Object entity) {
+        String type = entity.getClass().getSimpleName();
+        return TYPES.containsKey(type) ? type : null;
+    }
+
+    /**
+     * Queues a notification in the session's transaction. Postgres only delivers it on commit
+     */
+    private void announce(EventSource session, String type, Object id) {
+        if (type == null) {
+            return;
+        }
+
+        String payload = instance + ":" + type + ":" + (id == null ? "" : id);
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        });
+    }
+
+    private void receive() {
+        boolean connected = false;
+
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                // Whatever changed while nobody was listening went unheard
+                evictAll();
+                if (connected) {
+                    TYPES.values().forEach(type -> publish(new RemoteChange(type, null)));
+                }
+                connected = true;
+                listening = true;
+                log.info("Listening for entity cache evictions from other instances");
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                evict(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                log.error("Couldn't apply the entity cache notification {}", notification.getParameter(), e);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Lost the entity cache listener's connection, reconnecting", e);
+                }
+            } finally {
+                listening = false;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void evict(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].equals(instance) || !TYPES.containsKey(parts[1])) {
+            return;
+        }
+
+        Cache cache = sessionFactory.getCache();
+        Class<?> type = TYPES.get(parts[1]);
+
+        Long id = parts[2].isEmpty() ? null : Long.valueOf(parts[2]);
+
+        if (type == Staff.class || type == Patient.class) {
+            if (id != null) {
+                cache.evictEntityData(type, id);
+            }
+            if (type == Staff.class) {
+                cache.evictQueryRegion(EntityCacheConfig.STAFF_BY_ROLE_REGION);
+            }
+            remoteEvictions.incrementAndGet();
+        }
+        publish(new RemoteChange(type, id));
+    }
+
+    /**
+     * Hands a change to the listeners without waiting for them. A listener that fails on one row is sent a change
+     * of the whole type, so it can start over rather than stay behind
+     */
+    private void publish(RemoteChange change) {
+        changes.execute(() -> {
+            try {
+                eventPublisher.publishEvent(change);
+            } catch (RuntimeException e) {
+                log.error("Couldn't follow the change to {} {}", change.type().getSimpleName(), change.id(), e);
+                if (change.id() != null) {
+                    try {
+                        eventPublisher.publishEvent(new RemoteChange(change.type(), null));
+                    } catch (RuntimeException again) {
+                        log.error("Couldn't follow the changes to {}", change.type().getSimpleName(), again);
+                    }
+                }
+            }
+        });
+    }
+
+    private void evictAll() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Staff.class);
+        cache.evictEntityData(Patient.class);
+        cache.evictQueryRegions();
+    }
+
+    private static CacheRegionStats toStats(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return new CacheRegionStats(region, 0, 0, 0, 0);
+        }
+
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        return new CacheRegionStats(region, hits, misses, statistics.getPutCount(),
+                hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+    }
+
+    /**
+     * Published when another instance changed a staff member, patient, record, lab test or appointment
+     *
+     * @param type Staff, patient, record, lab test or appointment
+     * @param id   The changed row, null when any row of the type may have changed
+     */
+    public record RemoteChange(Class<?> type, Long id) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.Identifier;
+import com.softcafe.clinic_system.dto.UserIdentifiers;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.utils.IdentifierIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves patients and staff by their unique identifiers: email, phone number, national ID number, username and
+ * insurance number.
+ * <p>
+ * Every identifier is held in an {@link IdentifierIndex} built on startup and kept up to date as transactions
+ * commit, so a lookup is a map hit followed by loading the entity from the second-level cache. The hit is checked
+ * against the loaded entity, and a stale hit, a miss or an index still being built falls back to a single query
+ * matching all the identifiers at once
+ */
+@Service
+@RequiredArgsConstructor
+public class IdentifierLookupService {
+    private static final List<Identifier> PATIENT_ORDER =
+            List.of(Identifier.EMAIL, Identifier.PHONE, Identifier.NATIONAL_ID, Identifier.INSURANCE_NUMBER);
+    private static final List<Identifier> STAFF_ORDER =
+            List.of(Identifier.EMAIL, Identifier.PHONE, Identifier.NATIONAL_ID, Identifier.USERNAME);
+
+    private final PatientRepository patientRepository;
+    private final StaffRepository staffRepository;
+    private final PlatformTransactionManager transactionManager;
+    private CommittedIndex<UserIdentifiers, IdentifierIndex> patients;
+    private CommittedIndex<UserIdentifiers, IdentifierIndex> staff;
+
+    @PostConstruct
+    void init() {
+        patients = new CommittedIndex<>("patient identifiers", transactionManager,
+                patientRepository::streamIdentifiers, IdentifierIndex::of);
+        staff = new CommittedIndex<>("staff identifiers", transactionManager, staffRepository::streamIdentifiers,
+                IdentifierIndex::of);
+    }
+
+    /**
+     * Builds both indexes from every patient's and staff member's identifiers
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        patients.build();
+        staff.build();
+    }
+
+    /**
+     * Finds a patient by any of their identifiers, email first, then phone, national ID and insurance number
+     *
+     * @param identifiers The given identifiers, null values are skipped
+     * @return The patient, empty when none holds any of them
+     */
+    public Optional<Patient> findPatient(Map<Identifier, String> identifiers) {
+        Map<Identifier, String> values = normalize(identifiers, PATIENT_ORDER);
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IdentifierIndex current = patients.current();
+        if (current != null) {
+            for (Identifier identifier : PATIENT_ORDER) {
+                Long id = current.find(identifier, values.get(identifier));
+                if (id == null) {
+                    continue;
+                }
+                Optional<Patient> patient = patientRepository.findById(id);
+                if (patient.isPresent() && holds(identifiers(patient.get()), identifier, values)) {
+                    return patient;
+                }
+                // Stale, the query below has the final say
+                break;
+            }
+        }
+
+        List<Patient> found = patientRepository.findByAnyIdentifier(values.get(Identifier.EMAIL),
+                values.get(Identifier.PHONE), values.get(Identifier.NATIONAL_ID), values.get(Identifier.INSURANCE_NUMBER));
+        for (Identifier identifier : PATIENT_ORDER) {
+            for (Patient patient : found) {
+                if (holds(identifiers(patient), identifier, values)) {
+                    return Optional.of(patient);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds which of a new staff member's identifiers another staff member already holds.
+     * <p>
+     * A hit in the index is checked against the loaded staff member. The identifiers without a confirmed hit are
+     * looked up with a single query, as the index may not have heard of a staff member yet
+     *
+     * @param newStaff The new staff member's identifiers
+     * @return The last identifier held by someone else in the order email, phone, national ID and username, or
+     * empty when none is
+     */
+    public Optional<Identifier> findStaffConflict(UserIdentifiers newStaff) {
+        Map<Identifier, String> values = new EnumMap<>(Identifier.class);
+        for (Identifier identifier : STAFF_ORDER) {
+            String value = identifier.normalize(newStaff.get(identifier));
+            if (value != null) {
+                values.put(identifier, value);
+            }
+        }
+
+        List<UserIdentifiers> holders = new ArrayList<>();
+        Map<Identifier, String> missed = new EnumMap<>(values);
+        IdentifierIndex current = staff.current();
+        if (current != null) {
+            for (Identifier identifier : STAFF_ORDER) {
+                Long id = current.find(identifier, values.get(identifier));
+                if (id == null) {
+                    continue;
+                }
+                Optional<UserIdentifiers> holder = staffRepository.findById(id).map(member -> identifiers(member));
+                if (holder.isPresent() && holds(holder.get(), identifier, values)) {
+                    holders.add(holder.get());
+                    missed.remove(identifier);
+                }
+            }
+        }
+
+        // A miss or a stale hit may still be taken, the insert would only fail on commit
+        if (!missed.isEmpty()) {
+            holders.addAll(staffRepository.findByAnyIdentifier(missed.get(Identifier.EMAIL), missed.get(Identifier.PHONE),
+                    missed.get(Identifier.NATIONAL_ID), missed.get(Identifier.USERNAME)));
+        }
+
+        Identifier violated = null;
+        for (Identifier identifier : STAFF_ORDER) {
+            for (UserIdentifiers holder : holders) {
+                if (holds(holder, identifier, values)) {
+                    violated = identifier;
+                }
+            }
+        }
+        return Optional.ofNullable(violated);
+    }
+
+    /**
+     * Indexes a saved patient's identifiers once the surrounding transaction commits
+     *
+     * @param patient A saved patient
+     */
+    public void patientSaved(Patient patient) {
+        // Copy the identifiers now, they may be changed before the transaction commits
+        UserIdentifiers user = identifiers(patient);
+        patients.put(user);
+    }
+
+    /**
+     * Takes a deleted patient out of the index once the surrounding transaction commits
+     *
+     * @param id The patient's primary key
+     */
+    public void patientRemoved(long id) {
+        patients.remove(id);
+    }
+
+    /**
+     * Indexes a saved staff member's identifiers once the surrounding transaction commits
+     *
+     * @param member A saved staff member
+     */
+    public void staffSaved(Staff member) {
+        UserIdentifiers user = identifiers(member);
+        staff.put(user);
+    }
+
+    /**
+     * Takes a deleted staff member out of the index once the surrounding transaction commits
+     *
+     * @param id The staff member's primary key
+     */
+    public void staffRemoved(long id) {
+        staff.remove(id);
+    }
+
+    /**
+     * Follows the patients and staff changed by the other instances
+     */
+    @EventListener
+    public void onRemoteChange(EntityCacheService.RemoteChange change) {
+        if (change.type() == Patient.class) {
+            patients.follow(change.id(), patientRepository::findIdentifiers);
+        } else if (change.type() == Staff.class) {
+            staff.follow(change.id(), staffRepository::findIdentifiers);
+        }
+    }
+
+    /**
+     * Keeps the given identifiers in their saved form, dropping the missing ones
+     */
+    private static Map<Identifier, String> normalize(Map<Identifier, String> identifiers, List<Identifier> order) {
+        Map<Identifier, String> values = new EnumMap<>(Identifier.class);
+        for (Identifier identifier : order) {
+            String value = identifier.normalize(identifiers.get(identifier));
+            if (value != null) {
+                values.put(identifier, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return Whether a user holds the value given for an identifier
+     */
+    private static boolean holds(UserIdentifiers user, Identifier identifier, Map<Identifier, String> values) {
+        String value = values.get(identifier);
+        return value != null && value.equals(identifier.normalize(user.get(identifier)));
+    }
+
+    private static UserIdentifiers identifiers(Patient patient) {
+        return new UserIdentifiers(patient.getId(), patient.getEmail(), patient.getPhone(), patient.getNationalId(),
+                null, patient.getInsuranceNumber());
+    }
+
+    private static UserIdentifiers identifiers(Staff member) {
+        return new UserIdentifiers(member.getId(), member.getEmail(), member.getPhone(), member.getNationalId(),
+                member.getUsername(), null);
+    }
+}
@@ -4,13 +4,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.test.NewTest;
 import com.softcafe.clinic_system.dto.test.TestData;
 import com.softcafe.clinic_system.dto.test.TestList;
@@ -18,6 +20,7 @@ import com.softcafe.clinic_system.entities.LabTest;
 import com.softcafe.clinic_system.entities.Record;
 import com.softcafe.clinic_system.repositories.LabTestRepository;
 import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.utils.Cursor;
 import com.softcafe.clinic_system.utils.LabTestUtil;
 
 import jakarta.transaction.Transactional;
@@ -31,6 +34,8 @@ public class LabTestService {
 
     private final RecordRepository recordRepository;
     private final LabTestRepository labTestRepository;
+    private final RowCountService rowCountService;
+    private final ClinicalSearchService clinicalSearchService;
 
     /**
      * Adds a new test to the system
@@ -45,6 +50,7 @@ public class LabTestService {
 
         TestData save = LabTestUtil.toDto(labTestRepository.save(LabTestUtil.toTest(newTest, record)));
         labTestRepository.flush();
+        clinicalSearchService.labTestChanged(save.id());
 
         log.info("A new test with ID:{} was added", save.id());
 
@@ -57,6 +63,7 @@ public class LabTestService {
      * @param id Record's primary key
      * @return List of tests
      */
+    @ReplicaRead
     public List<TestData> getByRecord(Long id) {
         // Fetch record's details
         Record record = getRecord(id);
@@ -76,18 +83,31 @@ public class LabTestService {
      * @param start Starting date
      * @param end Ending date
      * @param pageNumber Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing the total pages and the list of tests
      */
-    public TestList getByDateRange(LocalDateTime start, LocalDateTime end, int pageNumber) {
+    @ReplicaRead
+    public TestList getByDateRange(LocalDateTime start, LocalDateTime end, int pageNumber, String cursor, PageMode mode) {
         // Validate the dates
         if (end.isBefore(start)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid date range");
         }
 
-        Page<LabTest> page = labTestRepository.findByCreatedAtBetween(
-                start, end, PageRequest.of(pageNumber - 1, 10, Sort.by(
-                        Sort.Direction.DESC, "created_at"
-                ))
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            List<LabTest> rows = labTestRepository.findNextByCreatedAtBetween(
+                    start, end, after.createdAt(), after.id(), Limit.of(10 + 1)
+            );
+            boolean hasNext = rows.size() > 10;
+            List<LabTest> tests = hasNext ? rows.subList(0, 10) : rows;
+
+            return new TestList(0, tests.stream().map(LabTestUtil::toDto).toList(),
+                    Cursor.next(tests, hasNext, LabTest::getCreatedAt, LabTest::getId), hasNext);
+        }
+
+        Slice<LabTest> page = labTestRepository.findByCreatedAtBetween(
+                start, end, PageRequest.of(pageNumber - 1, 10, Cursor.NEWEST_FIRST)
         );
 
         List<TestData> list = new ArrayList<>();
@@ -96,7 +116,11 @@ public class LabTestService {
             list.add(LabTestUtil.toDto(test));
         }
 
-        return new TestList(page.getTotalPages(), list);
+        int totalPages = rowCountService.totalPages(page, mode, "lab_tests:created:" + start + "/" + end,
+                () -> labTestRepository.countByCreatedAtBetween(start, end));
+
+        return new TestList(totalPages, list,
+                Cursor.next(page.getContent(), page.hasNext(), LabTest::getCreatedAt, LabTest::getId), page.hasNext());
     }
 
     /**
@@ -119,6 +143,7 @@ public class LabTestService {
 
         labTestRepository.save(test);
         labTestRepository.flush();
+        clinicalSearchService.labTestChanged(id);
 
         log.info("Lab test with ID:{} was updated", id);
         return LabTestUtil.toDto(test);
@@ -134,6 +159,7 @@ public class LabTestService {
         LabTest test = getTest(id);
 
         labTestRepository.delete(test);
+        clinicalSearchService.labTestChanged(id);
 
         log.info("Lab Test with ID:{} was deleted", id);
     }
@@ -0,0 +1,197 @@
+package com.softcafe.clinic_system.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of appointments, billings and logs ahead of time and archives the months past the
+ * retention period. An archived month is detached, copied to a gzipped CSV under the archive directory and dropped,
+ * its figures stay in the daily rollups, which rebuilds no longer recompute for it. Does nothing on databases without the partitions
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+    private static final List<String> TABLES = List.of("appointments", "billings", "logs");
+    /**
+     * The column each table is partitioned by
+     */
+    private static final Map<String, String> COLUMNS =
+            Map.of("appointments", "created_at", "billings", "created_at", "logs", "time");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupService rollupService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * Months kept in the database, counting the current one. 0 keeps every month
+     */
+    @Value("${app.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.partition.archive-dir:archive}")
+    private Path archiveDir;
+
+    /**
+     * Creates the coming months' partitions and archives the expired ones
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partition.maintenance-cron:0 30 2 * * *}")
+    public void maintain() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        if (!Boolean.TRUE.equals(postgres)) {
+            return;
+        }
+
+        YearMonth now = YearMonth.now();
+        for (String table : TABLES) {
+            if (!isPartitioned(table)) {
+                continue;
+            }
+
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(table, now.plusMonths(i));
+            }
+
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = now.minusMonths(retentionMonths - 1);
+                for (String partition : monthPartitions(table)) {
+                    if (monthOf(table, partition).isBefore(oldestKept)) {
+                        archive(table, partition);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))", Boolean.class, table));
+    }
+
+    /**
+     * Creates a month's partition. Rows of the month that already sit in the default partition, written before the
+     * month had one, would make a plain CREATE fail, so they are moved into a new table that is then attached in
+     * the same transaction
+     */
+    private void createPartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        String column = COLUMNS.get(table);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+                return;
+            }
+
+            String inMonth = " WHERE " + column + " >= '" + from + "' AND " + column + " < '" + to + "'";
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + table + "_default" + inMonth + ")", Boolean.class))) {
+                jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table + bounds);
+                return;
+            }
+
+            Integer moved = new TransactionTemplate(transactionManager).execute(status -> {
+                jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table +
+                        " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM " + table + "_default" + inMonth +
+                        " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+                jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition + bounds);
+                return rows;
+            });
+            log.info("Moved {} rows of {} out of the default partition of {}", moved, month, table);
+        } catch (DataAccessException e) {
+            log.error("Couldn't create the {} partition of {}", month, table, e);
+        }
+    }
+
+    /**
+     * Lists the month tables of a partitioned table, including ones detached by an archive that didn't finish
+     */
+    private List<String> monthPartitions(String table) {
+        return jdbcTemplate.queryForList("SELECT tablename FROM pg_tables WHERE schemaname = current_schema() " +
+                "AND tablename ~ ? ORDER BY tablename", String.class, "^" + table + "_p[0-9]{6}$");
+    }
+
+    /**
+     * Detaches a month, writes it to {@code <archive-dir>/<table>/<partition>.csv.gz} and drops it.
+     * Each step can be repeated, so a month left behind by a failure is picked up on the next run
+     */
+    private void archive(String table, String partition) {
+        Path file = archiveDir.resolve(table).resolve(partition + ".csv.gz");
+        Path partial = file.resolveSibling(partition + ".csv.gz.tmp");
+
+        try {
+            // Before the rows leave the table, so a rebuild running meanwhile can't drop the month's rollups
+            rollupService.archived(table, monthOf(table, partition).plusMonths(1).atDay(1));
+
+            Boolean attached = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits " +
+                    "WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass(?))", Boolean.class, partition, table);
+            if (Boolean.TRUE.equals(attached)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            }
+
+            Files.createDirectories(file.getParent());
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                rows = copyOut(partition, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Archived {} rows of {} to {}", rows, partition, file);
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Couldn't archive {}", partition, e);
+        }
+    }
+
+    private long copyOut(String partition, OutputStream out) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    private static YearMonth monthOf(String table, String partition) {
+        return YearMonth.parse(partition.substring(table.length() + 2), SUFFIX);
+    }
+}
@@ -0,0 +1,100 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.utils.PatientSearchIndex;
+import com.softcafe.clinic_system.utils.PatientUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Finds patients by name, phone number or insurance number from an index held in memory. The index is built
+ * from the database on startup and follows the patients' changes as their transactions commit
+ */
+@Service
+@RequiredArgsConstructor
+public class PatientSearchService {
+    private static final int MAX_LIMIT = 50;
+    private final PatientRepository patientRepository;
+    private final PlatformTransactionManager transactionManager;
+    private CommittedIndex<PatientMatch, PatientSearchIndex> index;
+
+    @PostConstruct
+    void init() {
+        index = new CommittedIndex<>("patients for search", transactionManager,
+                patientRepository::streamSearchEntries, PatientSearchIndex::of);
+    }
+
+    /**
+     * Builds the index from every patient. The current index keeps answering until the new one is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        index.build();
+    }
+
+    /**
+     * Searches patients by name, phone number or insurance number
+     *
+     * @param query Words or beginnings of words, a word may hold one typo
+     * @param limit Maximum number of patients
+     * @return The best matches first
+     * @throws ResponseStatusException BAD_REQUEST In case of a missing query or a limit out of range
+     * @throws ResponseStatusException SERVICE_UNAVAILABLE In case the index is still being built
+     */
+    public List<PatientMatch> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a search query!");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The limit should be between 1 and " + MAX_LIMIT + "!");
+        }
+
+        PatientSearchIndex current = index.current();
+        if (current == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The patient search is still loading, try again shortly!");
+        }
+        return current.search(query, limit);
+    }
+
+    /**
+     * Indexes a saved patient's details once the surrounding transaction commits
+     *
+     * @param patient A saved patient
+     */
+    public void index(Patient patient) {
+        // Copy the details now, the patient may be changed before the transaction commits
+        PatientMatch match = PatientUtil.toMatch(patient);
+        index.put(match);
+    }
+
+    /**
+     * Takes a deleted patient out of the index once the surrounding transaction commits
+     *
+     * @param id The patient's primary key
+     */
+    public void remove(long id) {
+        index.remove(id);
+    }
+
+    /**
+     * Follows the patients changed by the other instances
+     */
+    @EventListener
+    public void onRemoteChange(EntityCacheService.RemoteChange change) {
+        if (change.type() != Patient.class) {
+            return;
+        }
+
+        index.follow(change.id(), patientRepository::findSearchEntry);
+    }
+}
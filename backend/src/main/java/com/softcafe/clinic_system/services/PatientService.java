@@ -1,54 +1,75 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.Identifier;
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.patient.ListOfPatients;
 import com.softcafe.clinic_system.dto.patient.NewPatient;
 import com.softcafe.clinic_system.dto.patient.PatientDto;
 import com.softcafe.clinic_system.entities.Patient;
 import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.utils.Cursor;
 import com.softcafe.clinic_system.utils.PatientUtil;
 import com.softcafe.clinic_system.utils.Util;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PatientService {
     private final PatientRepository patientRepository;
+    private final RowCountService rowCountService;
+    private final PatientSearchService patientSearchService;
+    private final IdentifierLookupService identifierLookupService;
     private final int PAGE_SIZE = 10;
 
     /**
-     * Retrieves a list of patients
+     * Retrieves a list of patients, newest first
      * @param pageNumber The page to extract the list
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return An object containing a list of patients' data nad total number of expected pages
      */
-    public ListOfPatients getByPage(int pageNumber) {
-        Page<Patient> page = patientRepository.findAll(PageRequest.of(pageNumber - 1, PAGE_SIZE));
-        List<Patient> patients= page.toList();
-        List<PatientDto> list = new ArrayList<>();
-        // Convert each patient data to DTO
-        for(Patient patient: patients) {
-            list.add(PatientUtil.toDto(patient));
+    @ReplicaRead
+    public ListOfPatients getByPage(int pageNumber, String cursor, PageMode mode) {
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            List<PatientDto> rows = patientRepository.findNext(after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1));
+            boolean hasNext = rows.size() > PAGE_SIZE;
+            List<PatientDto> patients = hasNext ? rows.subList(0, PAGE_SIZE) : rows;
+
+            return new ListOfPatients(0, patients,
+                    Cursor.next(patients, hasNext, PatientDto::createdAt, PatientDto::id), hasNext);
         }
 
-        return new ListOfPatients(page.getTotalPages(), list);
+        // The rows are read straight into DTOs
+        Slice<PatientDto> page = patientRepository.findBy(PageRequest.of(pageNumber - 1, PAGE_SIZE));
+        List<PatientDto> patients = page.getContent();
+
+        int totalPages = rowCountService.totalTablePages(page, mode, "patients", patientRepository::count);
+
+        return new ListOfPatients(totalPages, patients,
+                Cursor.next(patients, page.hasNext(), PatientDto::createdAt, PatientDto::id), page.hasNext());
     }
 
     /**
      * Retrieves the total number of patients in the system
      * @return The total number
      */
+    @ReplicaRead
     public long getTotalNumberOfPatients() {
         return patientRepository.count();
     }
@@ -57,6 +78,7 @@ public class PatientService {
      * Obtains the total number of pages that can be queried
      * @return Total number of pages
      */
+    @ReplicaRead
     public int getTotalPages() {
         return patientRepository.findAll(PageRequest.ofSize(PAGE_SIZE)).getTotalPages();
     }
@@ -80,6 +102,8 @@ public class PatientService {
             PatientUtil.validate(dto);
             Patient patient = patientRepository.save(PatientUtil.toPatient(dto));
             patientRepository.flush();
+            patientSearchService.index(patient);
+            identifierLookupService.patientSaved(patient);
             log.info("A new patient with ID: {} has been added", patient.getId());
             return PatientUtil.toDto(patient);
         } catch (DataIntegrityViolationException e) { // Handle errors related to constraints (unique constraint)
@@ -117,7 +141,10 @@ public class PatientService {
             PatientUtil.validate(newData);
             PatientUtil.updatePatient(patient, newData);
             log.info("Patient with ID: {} was updated", patient.getId());
-            return PatientUtil.toDto(patientRepository.save(patient));
+            Patient saved = patientRepository.save(patient);
+            patientSearchService.index(saved);
+            identifierLookupService.patientSaved(saved);
+            return PatientUtil.toDto(saved);
         } catch (DataIntegrityViolationException e) {
             String violatedField = Util.parseViolation(e);
             String message = violatedField == null ?
@@ -146,6 +173,8 @@ public class PatientService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
 
         patientRepository.delete(patient);
+        patientSearchService.remove(id);
+        identifierLookupService.patientRemoved(id);
         log.info("Patient with ID: {} was deleted", id);
     }
 
@@ -154,51 +183,34 @@ public class PatientService {
      * @param email An optional email address
      * @param phone An optional phone number
      * @param nid An optional nation ID card number
-     * @return The patient's data or null
+     * @param insurance An optional insurance number
+     * @return The patient holding the email, else the phone number, national ID or insurance number
      * @throws ResponseStatusException BAD_REQUEST in case of null identifiers
      * @throws ResponseStatusException NOT_FOUND in case of missing patient data
      */
-    public PatientDto get(String email, String phone, String nid) {
+    public PatientDto get(String email, String phone, String nid, String insurance) {
         // Check if all parameters are null
-        if (email == null && phone == null && nid == null) {
+        if (email == null && phone == null && nid == null && insurance == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide at least one identifier!");
         }
 
-        PatientDto dto = null;
-
-        if (email != null) {
-            if (Util.isValidEmail(email)) {
-                Optional<Patient> patient = patientRepository.findByEmail(email);
-                if (patient.isPresent()) {
-                    dto = PatientUtil.toDto(patient.get());
-                }
-            } else {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid email address!");
-            }
+        if (email != null && !Util.isValidEmail(email)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid email address!");
         }
 
-        if (dto == null && phone != null) {
-            if (Util.isValidPhone(phone)) {
-                Optional<Patient> patient = patientRepository.findByPhone(phone);
-                if (patient.isPresent()) {
-                    dto = PatientUtil.toDto(patient.get());
-                }
-            } else {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid phone number!");
-            }
+        if (phone != null && !Util.isValidPhone(phone)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid phone number!");
         }
 
-        if (dto == null && nid != null) {
-            Optional<Patient> patient = patientRepository.findByNationalId(nid);
-            if (patient.isPresent()) {
-                dto = PatientUtil.toDto(patient.get());
-            }
-        }
+        Map<Identifier, String> identifiers = new EnumMap<>(Identifier.class);
+        identifiers.put(Identifier.EMAIL, email);
+        identifiers.put(Identifier.PHONE, phone);
+        identifiers.put(Identifier.NATIONAL_ID, nid);
+        identifiers.put(Identifier.INSURANCE_NUMBER, insurance);
 
-        if (dto == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified patient wasn't found!");
-        }
+        Patient patient = identifierLookupService.findPatient(identifiers).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified patient wasn't found!"));
 
-        return dto;
+        return PatientUtil.toDto(patient);
     }
-}
\ No newline at end of file
+}
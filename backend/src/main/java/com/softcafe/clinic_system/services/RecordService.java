@@ -1,5 +1,7 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.PageMode;
 import com.softcafe.clinic_system.dto.record.NewRecord;
 import com.softcafe.clinic_system.dto.record.RecordData;
 import com.softcafe.clinic_system.dto.record.RecordsList;
@@ -9,19 +11,19 @@ import com.softcafe.clinic_system.entities.Staff;
 import com.softcafe.clinic_system.repositories.PatientRepository;
 import com.softcafe.clinic_system.repositories.RecordRepository;
 import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.utils.Cursor;
 import com.softcafe.clinic_system.utils.RecordUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -32,6 +34,9 @@ public class RecordService {
     private final RecordRepository recordRepository;
     private final PatientRepository patientRepository;
     private final StaffRepository staffRepository;
+    private final TermAnalyticsService termAnalyticsService;
+    private final RowCountService rowCountService;
+    private final ClinicalSearchService clinicalSearchService;
 
     /**
      * Adds a new record to the system
@@ -49,13 +54,17 @@ public class RecordService {
         // Check if doctor exists
         Staff doctor = getDoctor(newRecord.doctorId());
 
-        RecordData recordData = RecordUtil.toDTO(recordRepository.save(RecordUtil.toRecord(
+        Record saved = recordRepository.save(RecordUtil.toRecord(
                 patient,
                 doctor,
                 newRecord
-        )));
+        ));
 
         recordRepository.flush();
+        termAnalyticsService.record(saved, 1);
+        clinicalSearchService.recordChanged(saved.getId());
+
+        RecordData recordData = RecordUtil.toDTO(saved);
 
         log.info("A new patient record with ID:{} has been saved", recordData.id());
         return recordData;
@@ -66,25 +75,32 @@ public class RecordService {
      *
      * @param id   The patient's primary key
      * @param page Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object containing the list of records and expected pages
      * @throws ResponseStatusException NOT_FOUND In case the patient's details weren't found
      */
-    public RecordsList getByPatient(Long id, int page) {
+    @ReplicaRead
+    public RecordsList getByPatient(Long id, int page, String cursor, PageMode mode) {
         // Check if patient exists
-        Patient patient = getPatient(id);
+        if (!patientRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified patient wasn't found!");
+        }
+
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(recordRepository.findNextByPatient(
+                    id, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
+        }
 
         // Fetch the list of records
-        Page<Record> recordsPage = recordRepository.findByPatient(patient,
-                PageRequest.of(page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at"))
+        Slice<RecordData> recordsPage = recordRepository.findByPatient(id,
+                PageRequest.of(page - 1, PAGE_SIZE)
         );
 
-        List<RecordData> recordDataList = new ArrayList<>();
-
-        for (Record record : recordsPage) {
-            recordDataList.add(RecordUtil.toDTO(record));
-        }
-
-        return new RecordsList(recordsPage.getTotalPages(), recordDataList);
+        return toList(recordsPage, rowCountService.totalPages(recordsPage, mode,
+                "records:patient:" + id, () -> recordRepository.countByPatient_Id(id)));
     }
 
     /**
@@ -92,25 +108,32 @@ public class RecordService {
      *
      * @param id   Doctor's primary key
      * @param page Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object with the list of records and total expected pages
      * @throws ResponseStatusException NOT_FOUND In case doctor's details weren't found
      */
-    public RecordsList getByDoctor(Long id, int page) {
+    @ReplicaRead
+    public RecordsList getByDoctor(Long id, int page, String cursor, PageMode mode) {
         // Check if doctor exists
-        Staff doctor = getDoctor(id);
+        if (!staffRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified doctor wasn't found!");
+        }
+
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(recordRepository.findNextByDoctor(
+                    id, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
+        }
 
         // Fetch the records list
-        Page<Record> recordPage = recordRepository.findByDoctor(doctor, PageRequest.of(
-                page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at")
+        Slice<RecordData> recordPage = recordRepository.findByDoctor(id, PageRequest.of(
+                page - 1, PAGE_SIZE
         ));
 
-        List<RecordData> recordDataList = new ArrayList<>();
-
-        for (Record record : recordPage) {
-            recordDataList.add(RecordUtil.toDTO(record));
-        }
-
-        return new RecordsList(recordPage.getTotalPages(), recordDataList);
+        return toList(recordPage, rowCountService.totalPages(recordPage, mode,
+                "records:doctor:" + id, () -> recordRepository.countByDoctor_Id(id)));
     }
 
     /**
@@ -119,25 +142,30 @@ public class RecordService {
      * @param start Starting date
      * @param end   Ending date
      * @param page  Page number
+     * @param cursor The cursor returned with the previous page, it replaces the page number when present
+     * @param mode How the total pages are worked out
      * @return A record object containing the list of records and expected total pages
      * @throws ResponseStatusException BAD_REQUEST In case the ending date is before starting date
      */
-    public RecordsList getByDateRange(LocalDateTime start, LocalDateTime end, int page) {
+    @ReplicaRead
+    public RecordsList getByDateRange(LocalDateTime start, LocalDateTime end, int page, String cursor, PageMode mode) {
         if (end.isBefore(start)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The end date should be after the starting date!");
         }
 
-        Page<Record> recordPage = recordRepository.findByCreatedAtBetween(start, end, PageRequest.of(
-                page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created_at")
-        ));
-
-        List<RecordData> list = new ArrayList<>();
-
-        for (Record record : recordPage) {
-            list.add(RecordUtil.toDTO(record));
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            return toList(recordRepository.findNextByCreatedAtBetween(
+                    start, end, after.createdAt(), after.id(), Limit.of(PAGE_SIZE + 1)
+            ));
         }
 
-        return new RecordsList(recordPage.getTotalPages(), list);
+        Slice<RecordData> recordPage = recordRepository.findByCreatedAtBetween(start, end, PageRequest.of(
+                page - 1, PAGE_SIZE
+        ));
+
+        return toList(recordPage, rowCountService.totalPages(recordPage, mode,
+                "records:created:" + start + "/" + end, () -> recordRepository.countByCreatedAtBetween(start, end)));
     }
 
     /**
@@ -162,11 +190,16 @@ public class RecordService {
         Staff doctor = getDoctor(updatedRecord.doctorId());
 
         // Update the record
+        termAnalyticsService.record(record, -1);
         RecordUtil.update(record, updatedRecord, patient, doctor);
 
+        Record saved = recordRepository.save(record);
+        termAnalyticsService.record(saved, 1);
+        clinicalSearchService.recordChanged(id);
+
         log.info("Record with ID:{} was updated", id);
 
-        return RecordUtil.toDTO(recordRepository.save(record));
+        return RecordUtil.toDTO(saved);
     }
 
     /**
@@ -182,13 +215,30 @@ public class RecordService {
                 .orElseThrow(() ->
                         new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified record wasn't found!"));
 
+        termAnalyticsService.record(record, -1);
         recordRepository.delete(record);
 
         recordRepository.flush();
+        clinicalSearchService.recordChanged(id);
 
         log.info("Record with ID:{} was deleted", id);
     }
 
+    private RecordsList toList(Slice<RecordData> page, int totalPages) {
+        return new RecordsList(totalPages, page.getContent(),
+                Cursor.next(page.getContent(), page.hasNext(), RecordData::createdAt, RecordData::id), page.hasNext());
+    }
+
+    /**
+     * Trims the extra row fetched past a cursor page, which tells whether another page follows
+     */
+    private RecordsList toList(List<RecordData> rows) {
+        boolean hasNext = rows.size() > PAGE_SIZE;
+        List<RecordData> page = hasNext ? rows.subList(0, PAGE_SIZE) : rows;
+
+        return new RecordsList(0, page, Cursor.next(page, hasNext, RecordData::createdAt, RecordData::id), hasNext);
+    }
+
     /**
      * Retrieves the doctor's details
      *
@@ -0,0 +1,101 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.config.ReplicaRoutingDataSource;
+import com.softcafe.clinic_system.dto.report.ReplicaStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+/**
+ * Measures how far the read replica trails the primary and stops sending reads to it while it lags too far behind
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplicaLagService {
+    /**
+     * A standby that has replayed everything it received is caught up, even when the primary has been idle
+     * since its last transaction
+     */
+    private static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT), 0) END";
+
+    private final ObjectProvider<ReplicaRoutingDataSource> routingDataSource;
+    private volatile ReplicaStatus status;
+
+    @Value("${app.datasource.replica.max-lag:30000}")
+    private long maxLag;
+
+    /**
+     * @return The replica's last measured state
+     */
+    public ReplicaStatus getStatus() {
+        ReplicaStatus current = status;
+        return current != null ? current : new ReplicaStatus(routingDataSource.getIfAvailable() != null, false, -1, maxLag, null);
+    }
+
+    /**
+     * @return The replica's last measured lag in milliseconds, -1 if unknown
+     */
+    public long getLag() {
+        return getStatus().lagMillis();
+    }
+
+    /**
+     * Measures the replica's lag and decides whether it may serve reads
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-interval:5000}")
+    public void measure() {
+        ReplicaRoutingDataSource routing = routingDataSource.getIfAvailable();
+        if (routing == null) {
+            return;
+        }
+
+        long lag;
+        try {
+            lag = measureLag(new JdbcTemplate(routing.getReplica()));
+        } catch (DataAccessException e) {
+            log.warn("Couldn't measure the replica's lag", e);
+            lag = -1;
+        }
+
+        boolean serving = lag >= 0 && lag <= maxLag;
+        if (serving != routing.isReplicaUsable()) {
+            if (serving) {
+                log.info("Replica caught up ({} ms behind), reads are sent to it again", lag);
+            } else {
+                log.warn("Replica is {} ms behind, reads fall back to the primary", lag);
+            }
+        }
+
+        routing.setReplicaUsable(serving);
+        status = new ReplicaStatus(true, serving, lag, maxLag, LocalDateTime.now());
+    }
+
+    private static long measureLag(JdbcTemplate replica) {
+        Long lag = replica.execute((ConnectionCallback<Long>) connection -> {
+            if (!connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")) {
+                // Stand-in databases don't replicate, reaching them is all there is to check
+                return connection.isValid(1) ? 0L : -1L;
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                return result.getLong(1);
+            }
+        });
+        return lag == null ? -1 : lag;
+    }
+}
@@ -0,0 +1,148 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.report.CacheStats;
+import com.softcafe.clinic_system.dto.report.aggregate.ReportPartial;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the report figures of single days. A day stays cached until a write touches it or the
+ * memory budget forces the least recently used days out
+ */
+@Service
+public class ReportCache {
+    private final Map<LocalDate, ReportPartial> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<LocalDate, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong epoch = new AtomicLong();
+    private long bytes;
+
+    @Value("${app.report.cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    /**
+     * Retrieves a cached day
+     *
+     * @param day The day
+     * @return The day's figures or null when it isn't cached
+     */
+    public synchronized ReportPartial get(LocalDate day) {
+        ReportPartial partial = entries.get(day);
+
+        if (partial == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return partial;
+    }
+
+    /**
+     * Reads a day's generation. It must be read before querying the day so that
+     * figures computed while a write was committing are never cached
+     *
+     * @param day The day
+     * @return The day's current generation
+     */
+    public long generation(LocalDate day) {
+        // Both counters only grow, so their sum changes whenever either of them does
+        return epoch.get() + generations.getOrDefault(day, 0L);
+    }
+
+    /**
+     * Caches a day's figures unless the day was invalidated after its generation was read
+     *
+     * @param day        The day
+     * @param generation The generation read before the figures were queried
+     * @param partial    The day's figures
+     */
+    public synchronized void put(LocalDate day, long generation, ReportPartial partial) {
+        if (generation(day) != generation) {
+            return;
+        }
+
+        ReportPartial previous = entries.put(day, partial);
+        bytes += partial.estimateSize() - (previous == null ? 0 : previous.estimateSize());
+
+        // Drop the least recently used days until the budget is met
+        Iterator<Map.Entry<LocalDate, ReportPartial>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<LocalDate, ReportPartial> eldest = iterator.next();
+            bytes -= eldest.getValue().estimateSize();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops a day that is being written to, both right away and once the surrounding transaction ends
+     *
+     * @param day The day touched by the write
+     */
+    public void invalidate(LocalDate day) {
+        evict(day);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(day);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every cached day, both right away and once the surrounding transaction ends
+     */
+    public void clear() {
+        evictAll();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Retrieves the cache's usage statistics
+     *
+     * @return Hit, miss and memory figures
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), invalidations.get(), entries.size(), bytes, maxBytes);
+    }
+
+    private synchronized void evict(LocalDate day) {
+        generations.merge(day, 1L, Long::sum);
+        ReportPartial removed = entries.remove(day);
+
+        if (removed != null) {
+            bytes -= removed.estimateSize();
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private synchronized void evictAll() {
+        epoch.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        bytes = 0;
+    }
+}
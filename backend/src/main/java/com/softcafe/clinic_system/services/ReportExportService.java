@@ -0,0 +1,142 @@
+package com.softcafe.clinic_system.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softcafe.clinic_system.config.ReplicaRoutingDataSource;
+import com.softcafe.clinic_system.dto.report.export.AppointmentRow;
+import com.softcafe.clinic_system.dto.report.export.BillingRow;
+import com.softcafe.clinic_system.dto.report.export.ExportFormat;
+import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.BillingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+    private static final int FLUSH_EVERY = 500;
+    private final AppointmentRepository appointmentRepository;
+    private final BillingRepository billingRepository;
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Streams the appointments made in a period
+     *
+     * @param start  Start of date range
+     * @param end    End of date range
+     * @param format File format
+     * @return A body that writes the rows as they are read from the database
+     * @throws org.springframework.web.server.ResponseStatusException BAD_REQUEST In case of invalid dates
+     */
+    public StreamingResponseBody exportAppointments(LocalDateTime start, LocalDateTime end, ExportFormat format) {
+        reportService.validateDate(start, end);
+        return out -> write(() -> appointmentRepository.streamRows(start, end), AppointmentRow.class, format, out);
+    }
+
+    /**
+     * Streams the billings made in a period
+     *
+     * @param start  Start of date range
+     * @param end    End of date range
+     * @param format File format
+     * @return A body that writes the rows as they are read from the database
+     * @throws org.springframework.web.server.ResponseStatusException BAD_REQUEST In case of invalid dates
+     */
+    public StreamingResponseBody exportBillings(LocalDateTime start, LocalDateTime end, ExportFormat format) {
+        reportService.validateDate(start, end);
+        return out -> write(() -> billingRepository.streamRows(start, end), BillingRow.class, format, out);
+    }
+
+    /**
+     * Writes rows one at a time while the database cursor stays open in a read-only transaction, which the
+     * replica serves when one is configured. Only one row and the writer's buffer are held in memory
+     *
+     * @param rows   Opens the row stream
+     * @param type   The row's type
+     * @param format File format
+     * @param out    Response body
+     */
+    private <T extends Record> void write(Supplier<Stream<T>> rows, Class<T> type, ExportFormat format, OutputStream out) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        ReplicaRoutingDataSource.readFromReplica(() -> template.execute(status -> {
+            RecordComponent[] columns = type.getRecordComponents();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+            try (Stream<T> stream = rows.get()) {
+                if (format == ExportFormat.CSV) {
+                    writer.write(Arrays.stream(columns).map(RecordComponent::getName).collect(Collectors.joining(",")));
+                    writer.write('\n');
+                }
+
+                long written = 0;
+                for (T row : (Iterable<T>) stream::iterator) {
+                    writer.write(format == ExportFormat.CSV ? toCsv(row, columns) : objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+
+                    // Send the first row right away, then in chunks
+                    if (++written == 1 || written % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return null;
+        }));
+    }
+
+    /**
+     * Converts a row to a CSV line
+     *
+     * @param row     The row
+     * @param columns The row's components
+     * @return The CSV line without a line break
+     */
+    private static String toCsv(Record row, RecordComponent[] columns) {
+        StringBuilder line = new StringBuilder();
+
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) line.append(',');
+
+            Object value;
+            try {
+                value = columns[i].getAccessor().invoke(row);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+
+            if (value == null) continue;
+
+            String text = value.toString();
+            // RFC 4180: fields holding a separator, a quote or a line break are quoted
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        return line.toString();
+    }
+}
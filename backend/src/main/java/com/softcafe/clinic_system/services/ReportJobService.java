@@ -0,0 +1,283 @@
+package com.softcafe.clinic_system.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softcafe.clinic_system.dto.report.ReportJobData;
+import com.softcafe.clinic_system.dto.report.aggregate.ReportPartial;
+import com.softcafe.clinic_system.dto.report.manager.ManagerReport;
+import com.softcafe.clinic_system.entities.JobStatus;
+import com.softcafe.clinic_system.entities.ReportJob;
+import com.softcafe.clinic_system.repositories.ReportJobRepository;
+import com.softcafe.clinic_system.utils.ReportJobUtil;
+import com.softcafe.clinic_system.utils.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReportJobService {
+    private static final List<JobStatus> IN_FLIGHT = List.of(JobStatus.QUEUED, JobStatus.RUNNING);
+    private final ReportJobRepository reportJobRepository;
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final String instance = UUID.randomUUID().toString();
+    /**
+     * The jobs this instance has queued or is running, whose claims it renews
+     */
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * How long a claim lasts without being renewed before another instance may take the job over
+     */
+    @Value("${app.report-jobs.claim-timeout:300000}")
+    private long claimTimeout;
+
+    /**
+     * Queues a manager report. A request identical to one that is still queued or running joins that job
+     *
+     * @param start Start of date range
+     * @param end   End of date range
+     * @return The job's state
+     * @throws ResponseStatusException: BAD_REQUEST In case of invalid dates
+     *                                  SERVICE_UNAVAILABLE In case the job queue is full
+     */
+    public synchronized ReportJobData submit(LocalDateTime start, LocalDateTime end) {
+        reportService.validateDate(start, end);
+        String requestKey = "manager:" + start + "/" + end;
+
+        Optional<ReportJob> inFlight = reportJobRepository.findFirstByRequestKeyAndStatusIn(requestKey, IN_FLIGHT);
+
+        if (inFlight.isPresent()) {
+            return ReportJobUtil.toDto(inFlight.get());
+        }
+
+        ReportJob job = reportJobRepository.save(ReportJob.builder()
+                .requestKey(requestKey)
+                .start(start)
+                .end(end)
+                .status(JobStatus.QUEUED)
+                .claimedBy(instance)
+                .heartbeatAt(LocalDateTime.now())
+                .build());
+
+        if (!execute(job.getId())) {
+            fail(job.getId(), "The report queue was full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many reports are being generated, try again later!");
+        }
+
+        log.info("Report job with ID: {} was queued", job.getId());
+        return ReportJobUtil.toDto(job);
+    }
+
+    /**
+     * Retrieves a report job's state
+     *
+     * @param id The job's primary key
+     * @return The job's state
+     * @throws ResponseStatusException: BAD_REQUEST In case of an invalid ID
+     *                                  NOT_FOUND In case the job doesn't exist
+     */
+    public ReportJobData get(Long id) {
+        return ReportJobUtil.toDto(find(id));
+    }
+
+    /**
+     * Retrieves the report computed by a finished job
+     *
+     * @param id The job's primary key
+     * @return The manager's report
+     * @throws ResponseStatusException: BAD_REQUEST In case of an invalid ID
+     *                                  NOT_FOUND In case the job doesn't exist
+     *                                  CONFLICT In case the job hasn't finished or failed
+     */
+    public ManagerReport getResult(Long id) {
+        ReportJob job = find(id);
+
+        if (job.getStatus() == JobStatus.FAILED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The report couldn't be generated, submit it again!");
+        }
+
+        if (job.getStatus() != JobStatus.COMPLETE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The report isn't ready yet!");
+        }
+
+        try {
+            return objectMapper.readValue(job.getResult(), ManagerReport.class);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "The stored report couldn't be read!");
+        }
+    }
+
+    /**
+     * Queues again the jobs whose instance stopped renewing their claims, because it was shut down or crashed.
+     * Jobs another instance is still working on are left alone
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.report-jobs.resume-interval:60000}")
+    public void resume() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(claimTimeout * 1_000_000);
+
+        for (Long id : reportJobRepository.findStale(IN_FLIGHT, staleBefore)) {
+            if (reportJobRepository.claim(id, instance, IN_FLIGHT, now, staleBefore) == 0) {
+                // Another instance claimed it first
+                continue;
+            }
+
+            log.info("Report job with ID: {} was resumed", id);
+            if (!execute(id)) {
+                fail(id, "The report queue was full");
+            }
+        }
+    }
+
+    /**
+     * Renews the claims on the jobs this instance is working on
+     */
+    @Scheduled(fixedDelayString = "${app.report-jobs.heartbeat-interval:60000}")
+    public void heartbeat() {
+        if (!claimed.isEmpty()) {
+            reportJobRepository.renew(List.copyOf(claimed), instance, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Hands a claimed job to the report executor
+     *
+     * @param id The job's primary key
+     * @return Whether the executor accepted it
+     */
+    private boolean execute(Long id) {
+        claimed.add(id);
+        try {
+            reportExecutor.execute(() -> run(id));
+            return true;
+        } catch (TaskRejectedException e) {
+            claimed.remove(id);
+            return false;
+        }
+    }
+
+    /**
+     * Computes a job's report one month at a time, saving the progress after each month
+     *
+     * @param id The job's primary key
+     */
+    private void run(Long id) {
+        try {
+            run(reportJobRepository.findById(id).orElseThrow());
+        } finally {
+            // Left unrenewed, a job that couldn't be marked as finished is taken over later
+            claimed.remove(id);
+        }
+    }
+
+    private void run(ReportJob job) {
+        Long id = job.getId();
+        if (lost(reportJobRepository.start(id, instance, LocalDateTime.now()), id)) {
+            return;
+        }
+
+        try {
+            List<LocalDateTime[]> windows = monthlyWindows(job.getStart(), job.getEnd());
+            ReportPartial partial = ReportPartial.EMPTY;
+            int saved = 0;
+
+            for (int i = 0; i < windows.size(); i++) {
+                partial = partial.merge(reportService.getPartial(windows.get(i)[0], windows.get(i)[1]));
+
+                int progress = (i + 1) * 100 / windows.size();
+                if (progress != saved && i < windows.size() - 1) {
+                    if (lost(reportJobRepository.progress(id, instance, progress), id)) {
+                        return;
+                    }
+                    saved = progress;
+                }
+            }
+
+            String result = objectMapper.writeValueAsString(reportService.toReport(partial));
+            if (lost(reportJobRepository.complete(id, instance, result, LocalDateTime.now()), id)) {
+                return;
+            }
+
+            log.info("Report job with ID: {} finished", id);
+        } catch (Exception e) {
+            log.error("Report job with ID: {} failed", id, e);
+            fail(id, "The report couldn't be generated");
+        }
+    }
+
+    /**
+     * @param updated Rows changed by an update of the job
+     * @param id      The job's primary key
+     * @return Whether another instance has taken the job over, in which case this one stops working on it
+     */
+    private boolean lost(int updated, Long id) {
+        if (updated == 0) {
+            log.info("Report job with ID: {} was taken over by another instance", id);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Splits a range at the start of every month
+     *
+     * @param start Start of date range
+     * @param end   End of date range
+     * @return Consecutive start and end pairs covering the range
+     */
+    private static List<LocalDateTime[]> monthlyWindows(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime[]> windows = new ArrayList<>();
+        LocalDateTime windowStart = start;
+
+        while (!windowStart.isAfter(end)) {
+            LocalDateTime nextMonth = windowStart.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            LocalDateTime windowEnd = nextMonth.isAfter(end) ? end : nextMonth.minusNanos(1);
+
+            windows.add(new LocalDateTime[]{windowStart, windowEnd});
+            windowStart = nextMonth;
+        }
+        return windows;
+    }
+
+    private ReportJob find(Long id) {
+        Util.validateId(id);
+
+        return reportJobRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "The specified report job doesn't exist!"));
+    }
+
+    /**
+     * Marks a job as failed, unless another instance has taken it over
+     *
+     * @param id     The job's primary key
+     * @param reason What clients are told, without the details of the error
+     */
+    private void fail(Long id, String reason) {
+        try {
+            reportJobRepository.fail(id, instance, reason, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Report job with ID: {} couldn't be marked as failed", id, e);
+        }
+    }
+}
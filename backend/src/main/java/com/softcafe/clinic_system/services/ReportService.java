@@ -1,24 +1,50 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.config.ReplicaRoutingDataSource;
 import com.softcafe.clinic_system.dto.report.manager.ManagerReport;
 import com.softcafe.clinic_system.dto.report.manager.RevenueData;
 import com.softcafe.clinic_system.dto.appointment.ManagerAppointmentReport;
+import com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount;
+import com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue;
+import com.softcafe.clinic_system.dto.report.aggregate.DoctorRevenue;
+import com.softcafe.clinic_system.dto.report.aggregate.DoctorStatusCount;
+import com.softcafe.clinic_system.dto.report.aggregate.ReportPartial;
+import com.softcafe.clinic_system.dto.report.aggregate.RevenueTotals;
 import com.softcafe.clinic_system.dto.report.doctor.DoctorsReport;
+import com.softcafe.clinic_system.dto.report.timeseries.BucketedAppointments;
+import com.softcafe.clinic_system.dto.report.timeseries.BucketedRevenue;
+import com.softcafe.clinic_system.dto.report.timeseries.SeriesGroup;
+import com.softcafe.clinic_system.dto.report.timeseries.TimeBucket;
+import com.softcafe.clinic_system.dto.report.timeseries.TimeSeries;
+import com.softcafe.clinic_system.dto.report.timeseries.TimeSeriesPoint;
 import com.softcafe.clinic_system.entities.*;
 import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.AppointmentRollupRepository;
 import com.softcafe.clinic_system.repositories.BillingRepository;
+import com.softcafe.clinic_system.repositories.RevenueRollupRepository;
 import com.softcafe.clinic_system.repositories.StaffRepository;
-import com.softcafe.clinic_system.utils.BillingUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +52,15 @@ public class ReportService {
     private final AppointmentRepository appointmentRepository;
     private final StaffRepository staffRepository;
     private final BillingRepository billingRepository;
+    private final AppointmentRollupRepository appointmentRollupRepository;
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final ReportCache reportCache;
+    private final ForkJoinPool reportPool;
+    private final PlatformTransactionManager transactionManager;
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+
+    @Value("${app.report.shard-days:7}")
+    private int shardDays;
 
     /**
      * Fetches a report for the manager role
@@ -34,88 +69,261 @@ public class ReportService {
      * @param end   End of date range
      * @return An object providing the data to the report
      */
+    @ReplicaRead
     public ManagerReport getManager(LocalDateTime start, LocalDateTime end) {
         validateDate(start, end);
+        return toReport(getPartial(start, end));
+    }
 
-        // Fetch data
-        List<Appointment> appointments = appointmentRepository.findByCreatedAtBetween(start, end, Pageable.unpaged()).getContent();
-        List<Staff> doctors = staffRepository.findByRole(Role.DOCTOR, Pageable.unpaged()).getContent();
-        List<Billing> billings = billingRepository.findByCreatedAtBetween(start, end, Pageable.unpaged()).getContent();
+    /**
+     * Fetches the report figures of a range.
+     * Whole days are assembled from cached daily figures, partial days at the edges of the range are read from the base tables.
+     * Wide ranges are split into shards of days that are aggregated in parallel on the report pool, read from the
+     * replica when the caller's reads are
+     *
+     * @param start Start of date range
+     * @param end   End of date range
+     * @return The figures of the range
+     */
+    public ReportPartial getPartial(LocalDateTime start, LocalDateTime end) {
+        // Days completely covered by the range
+        LocalDate firstDay = start.toLocalTime().equals(LocalTime.MIDNIGHT) ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate lastDay = end.toLocalTime().isBefore(END_OF_DAY) ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+
+        if (firstDay.isAfter(lastDay)) {
+            return getRaw(start, end);
+        }
+
+        // The pool's threads don't share the caller's routing, it's handed to the shards
+        ReportPartial partial = reportPool.invoke(new ShardTask(firstDay, lastDay, ReplicaRoutingDataSource.isReplicaRead()));
 
-        // Create a map of appointment IDs to their doctor IDs for quick lookup
-        Map<Long, Long> appointmentDoctorMap = appointments.stream()
-                .collect(Collectors.toMap(
-                        Appointment::getId,
-                        appointment -> appointment.getDoctor().getId()
-                ));
+        if (start.isBefore(firstDay.atStartOfDay())) {
+            partial = partial.merge(getRaw(start, firstDay.atStartOfDay().minusNanos(1)));
+        }
+
+        if (end.isAfter(lastDay.plusDays(1).atStartOfDay())) {
+            partial = partial.merge(getRaw(lastDay.plusDays(1).atStartOfDay(), end));
+        }
+        return partial;
+    }
+
+    /**
+     * Fetches the revenue and appointments of a range split into time buckets.
+     * The bucketing is done by the database, one query for billings and one for appointments
+     *
+     * @param start   Start of date range
+     * @param end     End of date range
+     * @param bucket  Width of the buckets
+     * @param groupBy How the points are split into series
+     * @return The time series
+     */
+    @ReplicaRead
+    public TimeSeries getTimeSeries(LocalDateTime start, LocalDateTime end, TimeBucket bucket, SeriesGroup groupBy) {
+        validateDate(start, end);
+        String unit = bucket.name().toLowerCase();
+
+        // Points keyed by bucket, then by series
+        Map<LocalDate, Map<String, TimeSeriesPoint>> points = new TreeMap<>();
+
+        for (BucketedRevenue row : billingRepository.sumByBucket(unit, groupBy.name(), start, end)) {
+            points.computeIfAbsent(row.getBucket().toLocalDate(), day -> new LinkedHashMap<>())
+                    .put(row.getSeries(), new TimeSeriesPoint(row.getBucket().toLocalDate(), row.getSeries(),
+                            row.getBills(), row.getBilled(), row.getPaid(), 0));
+        }
+
+        // Appointments have no payment method, so that grouping only carries billing figures
+        String appointmentGroup = groupBy == SeriesGroup.DOCTOR ? groupBy.name() : SeriesGroup.NONE.name();
+
+        for (BucketedAppointments row : appointmentRepository.countByBucket(unit, appointmentGroup, start, end)) {
+            String series = groupBy == SeriesGroup.PAYMENT_METHOD ? null : row.getSeries();
+
+            points.computeIfAbsent(row.getBucket().toLocalDate(), day -> new LinkedHashMap<>())
+                    .merge(series, new TimeSeriesPoint(row.getBucket().toLocalDate(), series, 0, 0, 0, row.getAppointments()),
+                            (existing, visits) -> new TimeSeriesPoint(existing.bucket(), existing.series(),
+                                    existing.bills(), existing.billed(), existing.paid(), visits.appointments()));
+        }
+
+        return new TimeSeries(bucket, groupBy, points.values().stream().flatMap(series -> series.values().stream()).toList());
+    }
+
+    /**
+     * Converts the figures of a range into the manager's report
+     *
+     * @param partial The range's figures
+     * @return The report
+     */
+    public ManagerReport toReport(ReportPartial partial) {
+        List<Staff> doctors = staffRepository.findByRole(Role.DOCTOR, Pageable.unpaged()).getContent();
 
         // Appointment report
-        Map<AppointmentStatus, Long> appointmentCounts = appointments.stream()
-                .collect(Collectors.groupingBy(
-                        Appointment::getStatus,
-                        Collectors.counting()
-                ));
+        long completed = partial.count(AppointmentStatus.COMPLETE);
+        long pending = partial.count(AppointmentStatus.PENDING);
+        long cancelled = partial.count(AppointmentStatus.CANCELLED);
 
         ManagerAppointmentReport managerAppointmentReport = new ManagerAppointmentReport(
-                appointments.size(),
-                appointmentCounts.getOrDefault(AppointmentStatus.COMPLETE, 0L),
-                appointmentCounts.getOrDefault(AppointmentStatus.PENDING, 0L),
-                appointmentCounts.getOrDefault(AppointmentStatus.CANCELLED, 0L)
+                completed + pending + cancelled,
+                completed,
+                pending,
+                cancelled
         );
 
         // Doctor reports
         List<DoctorsReport> doctorsReportList = doctors.stream()
-                .map(doctor -> {
-                    // Get doctor
-                    Long doctorId = doctor.getId();
-
-                    // Count appointments for this doctor
-                    long completed = appointments.stream()
-                            .filter(a -> a.getDoctor().getId().equals(doctorId) &&
-                                    a.getStatus() == AppointmentStatus.COMPLETE)
-                            .count();
-
-                    long cancelled = appointments.stream()
-                            .filter(a -> a.getDoctor().getId().equals(doctorId) &&
-                                    a.getStatus() == AppointmentStatus.CANCELLED)
-                            .count();
-
-                    // Calculate revenue from billings for this doctor's appointments
-                    double revenue = billings.stream()
-                            .filter(b -> {
-                                Long billingAppointmentId = b.getAppointment().getId();
-                                Long associatedDoctorId = appointmentDoctorMap.get(billingAppointmentId);
-                                return doctorId.equals(associatedDoctorId);
-                            })
-                            .mapToDouble(b -> BillingUtil.toDto(b).amountPaid())
-                            .sum();
-
-                    return new DoctorsReport(
-                            doctorId,
-                            doctor.getFullName(),
-                            completed,
-                            cancelled,
-                            revenue
-                    );
-                })
+                .map(doctor -> new DoctorsReport(
+                        doctor.getId(),
+                        doctor.getFullName(),
+                        partial.count(doctor.getId(), AppointmentStatus.COMPLETE),
+                        partial.count(doctor.getId(), AppointmentStatus.CANCELLED),
+                        partial.revenue().getOrDefault(doctor.getId(), 0.0)
+                ))
                 .toList();
 
-        // Revenue calculations
-        double totalPaidRevenue = billings.stream()
-                .mapToDouble(b -> BillingUtil.toDto(b).amountPaid())
-                .sum();
+        RevenueData revenueData = new RevenueData(partial.paid(), partial.expected());
 
-        double totalExpectedRevenue = billings.stream()
-                .mapToDouble(b -> BillingUtil.toDto(b).totalAmount())
-                .sum();
+        return new ManagerReport(managerAppointmentReport, doctorsReportList, revenueData);
+    }
+
+    /**
+     * Assembles the figures of whole days, reading only the days missing from the cache
+     *
+     * @param first First day
+     * @param last  Last day, inclusive
+     * @return The figures of the days
+     */
+    private ReportPartial getDays(LocalDate first, LocalDate last) {
+        ReportPartial total = ReportPartial.EMPTY;
+        LocalDate missingFrom = null;
 
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            ReportPartial cached = reportCache.get(day);
 
-        RevenueData revenueData = new RevenueData(
-                totalPaidRevenue,
-                totalExpectedRevenue
-        );
+            if (cached == null) {
+                if (missingFrom == null) missingFrom = day;
+                continue;
+            }
 
-        return new ManagerReport(managerAppointmentReport, doctorsReportList, revenueData);
+            if (missingFrom != null) {
+                total = total.merge(loadDays(missingFrom, day.minusDays(1)));
+                missingFrom = null;
+            }
+            total = total.merge(cached);
+        }
+
+        if (missingFrom != null) {
+            total = total.merge(loadDays(missingFrom, last));
+        }
+        return total;
+    }
+
+    /**
+     * Assembles the figures of whole days in a read-only transaction of their own, which the replica may serve
+     *
+     * @param first First day
+     * @param last  Last day, inclusive
+     * @return The figures of the days
+     */
+    private ReportPartial getDaysFromReplica(LocalDate first, LocalDate last) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return ReplicaRoutingDataSource.readFromReplica(() -> template.execute(status -> getDays(first, last)));
+    }
+
+    /**
+     * Aggregates a run of days, halving it until each shard is at most {@code shardDays} long
+     */
+    private class ShardTask extends RecursiveTask<ReportPartial> {
+        private final LocalDate first;
+        private final LocalDate last;
+        private final boolean replica;
+
+        ShardTask(LocalDate first, LocalDate last, boolean replica) {
+            this.first = first;
+            this.last = last;
+            this.replica = replica;
+        }
+
+        @Override
+        protected ReportPartial compute() {
+            long days = ChronoUnit.DAYS.between(first, last) + 1;
+
+            if (days <= shardDays) {
+                return replica ? getDaysFromReplica(first, last) : getDays(first, last);
+            }
+
+            // Split on a shard boundary so that each shard reads a contiguous run of days
+            long shards = (days + shardDays - 1) / shardDays;
+            LocalDate middle = first.plusDays((shards / 2) * shardDays);
+
+            ShardTask left = new ShardTask(first, middle.minusDays(1), replica);
+            left.fork();
+            ReportPartial right = new ShardTask(middle, last, replica).compute();
+
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Reads a run of days from the rollups and caches each of them
+     *
+     * @param first First day
+     * @param last  Last day, inclusive
+     * @return The figures of the days
+     */
+    private ReportPartial loadDays(LocalDate first, LocalDate last) {
+        Map<LocalDate, Long> generations = new HashMap<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            generations.put(day, reportCache.generation(day));
+        }
+
+        Map<LocalDate, List<DoctorStatusCount>> statusCounts = new HashMap<>();
+        Map<LocalDate, List<DailyRevenue>> revenue = new HashMap<>();
+
+        for (DailyAppointmentCount row : appointmentRollupRepository.findDaily(first, last)) {
+            statusCounts.computeIfAbsent(row.day(), day -> new ArrayList<>())
+                    .add(new DoctorStatusCount(row.doctorId(), row.status(), row.total()));
+        }
+
+        for (DailyRevenue row : revenueRollupRepository.findDaily(first, last)) {
+            revenue.computeIfAbsent(row.day(), day -> new ArrayList<>()).add(row);
+        }
+
+        ReportPartial total = ReportPartial.EMPTY;
+        LocalDate today = LocalDate.now();
+
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            List<DailyRevenue> revenueRows = revenue.getOrDefault(day, List.of());
+
+            ReportPartial partial = ReportPartial.of(
+                    statusCounts.getOrDefault(day, List.of()),
+                    revenueRows.stream().map(row -> new DoctorRevenue(row.doctorId(), row.paid())).toList(),
+                    new RevenueTotals(
+                            revenueRows.stream().mapToDouble(DailyRevenue::paid).sum(),
+                            revenueRows.stream().mapToDouble(DailyRevenue::billed).sum()
+                    )
+            );
+
+            // Days that haven't started yet would only cache empty figures
+            if (!day.isAfter(today)) {
+                reportCache.put(day, generations.get(day), partial);
+            }
+            total = total.merge(partial);
+        }
+        return total;
+    }
+
+    /**
+     * Reads the figures of a range straight from the appointments and billings tables
+     *
+     * @param start Start of date range
+     * @param end   End of date range
+     * @return The figures of the range
+     */
+    private ReportPartial getRaw(LocalDateTime start, LocalDateTime end) {
+        return ReportPartial.of(
+                appointmentRepository.countByDoctorAndStatus(start, end),
+                billingRepository.sumRevenueByDoctor(start, end),
+                billingRepository.sumRevenue(start, end)
+        );
     }
 
     /**
@@ -123,9 +331,9 @@ public class ReportService {
      * @param start Starting date
      * @param end Ending date
      */
-    private void validateDate(LocalDateTime start, LocalDateTime end) {
+    public void validateDate(LocalDateTime start, LocalDateTime end) {
         if (start.isAfter(end) || end.isBefore(start)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Enter valid start and end dates!");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.report.aggregate.DailyAppointmentCount;
+import com.softcafe.clinic_system.dto.report.aggregate.DailyRevenue;
+import com.softcafe.clinic_system.entities.*;
+import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.AppointmentRollupRepository;
+import com.softcafe.clinic_system.repositories.ArchiveWatermarkRepository;
+import com.softcafe.clinic_system.repositories.BillingRepository;
+import com.softcafe.clinic_system.repositories.RevenueRollupRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+    /**
+     * Doctor key used for appointments and bills that aren't tied to a doctor
+     */
+    public static final long UNASSIGNED = 0L;
+    private static final String APPOINTMENTS = "appointments";
+    private static final String BILLINGS = "billings";
+
+    private final AppointmentRollupRepository appointmentRollupRepository;
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final BillingRepository billingRepository;
+    private final ArchiveWatermarkRepository archiveWatermarkRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ReportCache reportCache;
+
+    /**
+     * Adds an appointment to (or removes it from) the daily appointment rollups.
+     * Must be called inside the transaction that changes the appointment
+     *
+     * @param appointment A saved appointment
+     * @param delta       1 when the appointment is counted, -1 when it is taken away
+     */
+    public void recordAppointment(Appointment appointment, long delta) {
+        LocalDate day = appointment.getCreatedAt().toLocalDate();
+        Long doctorId = appointment.getDoctor() == null ? UNASSIGNED : appointment.getDoctor().getId();
+        reportCache.invalidate(day);
+
+        if (appointmentRollupRepository.increment(day, doctorId, appointment.getStatus(), delta) == 0) {
+            createIfAbsent(() -> appointmentRollupRepository.findByDayAndDoctorIdAndStatus(day, doctorId, appointment.getStatus())
+                    .isEmpty(), () -> appointmentRollupRepository.saveAndFlush(AppointmentRollup.builder()
+                    .day(day)
+                    .doctorId(doctorId)
+                    .status(appointment.getStatus())
+                    .build()));
+            appointmentRollupRepository.increment(day, doctorId, appointment.getStatus(), delta);
+        }
+    }
+
+    /**
+     * Adds a billing to (or removes it from) the daily revenue rollups.
+     * Must be called inside the transaction that changes the billing
+     *
+     * @param billing A saved billing
+     * @param sign    1 when the billing is counted, -1 when it is taken away
+     */
+    public void recordBilling(Billing billing, long sign) {
+        LocalDate day = billing.getCreatedAt().toLocalDate();
+        Long doctorId = billing.getAppointment() == null || billing.getAppointment().getDoctor() == null ?
+                UNASSIGNED : billing.getAppointment().getDoctor().getId();
+        double billed = sign * billing.getTotalAmount();
+        double paid = sign * billing.getAmountPaid();
+        reportCache.invalidate(day);
+
+        if (revenueRollupRepository.increment(day, doctorId, billing.getStatus(), sign, billed, paid) == 0) {
+            createIfAbsent(() -> revenueRollupRepository.findByDayAndDoctorIdAndStatus(day, doctorId, billing.getStatus())
+                    .isEmpty(), () -> revenueRollupRepository.saveAndFlush(RevenueRollup.builder()
+                    .day(day)
+                    .doctorId(doctorId)
+                    .status(billing.getStatus())
+                    .build()));
+            revenueRollupRepository.increment(day, doctorId, billing.getStatus(), sign, billed, paid);
+        }
+    }
+
+    /**
+     * Builds the rollups on the first start against a database that already holds appointments or billings
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        boolean empty = appointmentRollupRepository.count() == 0 && revenueRollupRepository.count() == 0;
+
+        if (empty && (appointmentRepository.count() > 0 || billingRepository.count() > 0)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Marks the days before a day as archived for a table. Their rollups are the only figures left once the rows
+     * are gone, so rebuilds and checks leave them as they are from then on
+     *
+     * @param table    The table whose rows are archived
+     * @param keptFrom First day whose rows stay in the table
+     */
+    @Transactional
+    public void archived(String table, LocalDate keptFrom) {
+        LocalDate current = keptFrom(table);
+        if (current == null || current.isBefore(keptFrom)) {
+            archiveWatermarkRepository.save(new ArchiveWatermark(table, keptFrom));
+        }
+    }
+
+    /**
+     * Recomputes the rollup rows from the appointments and billings tables, except those of archived days
+     */
+    @Transactional
+    public void rebuild() {
+        LocalDate appointmentsFrom = keptFrom(APPOINTMENTS);
+        LocalDate billingsFrom = keptFrom(BILLINGS);
+
+        if (appointmentsFrom == null) {
+            appointmentRollupRepository.deleteAllInBatch();
+        } else {
+            appointmentRollupRepository.deleteFrom(appointmentsFrom);
+        }
+        if (billingsFrom == null) {
+            revenueRollupRepository.deleteAllInBatch();
+        } else {
+            revenueRollupRepository.deleteFrom(billingsFrom);
+        }
+        reportCache.clear();
+
+        appointmentRollupRepository.saveAll(computeAppointmentRollups(appointmentsFrom).values());
+        revenueRollupRepository.saveAll(computeRevenueRollups(billingsFrom).values());
+
+        log.info("Appointment and revenue rollups were rebuilt");
+    }
+
+    /**
+     * Compares the stored rollups against the appointments and billings tables, except those of archived days
+     *
+     * @return The number of rollup rows that differ from the base tables
+     */
+    @Transactional
+    public long reconcile() {
+        LocalDate appointmentsFrom = keptFrom(APPOINTMENTS);
+        LocalDate billingsFrom = keptFrom(BILLINGS);
+        Map<String, AppointmentRollup> expectedAppointments = computeAppointmentRollups(appointmentsFrom);
+        Map<String, RevenueRollup> expectedRevenue = computeRevenueRollups(billingsFrom);
+        long mismatches = 0;
+
+        for (AppointmentRollup stored : appointmentRollupRepository.findAll()) {
+            if (!isKept(stored.getDay(), appointmentsFrom)) continue;
+            AppointmentRollup expected = expectedAppointments.remove(key(stored.getDay(), stored.getDoctorId(), stored.getStatus()));
+            long total = expected == null ? 0 : expected.getTotal();
+            if (stored.getTotal() != total) mismatches++;
+        }
+
+        for (RevenueRollup stored : revenueRollupRepository.findAll()) {
+            if (!isKept(stored.getDay(), billingsFrom)) continue;
+            RevenueRollup expected = expectedRevenue.remove(key(stored.getDay(), stored.getDoctorId(), stored.getStatus()));
+            if (expected == null) {
+                if (stored.getBills() != 0) mismatches++;
+            } else if (stored.getBills() != expected.getBills()
+                    || Math.abs(stored.getBilled() - expected.getBilled()) > 0.005
+                    || Math.abs(stored.getPaid() - expected.getPaid()) > 0.005) {
+                mismatches++;
+            }
+        }
+
+        // Rows that exist in the base tables but were never rolled up
+        mismatches += expectedAppointments.size() + expectedRevenue.size();
+
+        if (mismatches > 0) {
+            log.warn("{} rollup rows differ from the base tables", mismatches);
+        }
+        return mismatches;
+    }
+
+    /**
+     * Groups the appointments table into rollup rows
+     *
+     * @param from First day to roll up, null for every day
+     * @return Rollup rows mapped by their (day, doctor, status) key
+     */
+    private Map<String, AppointmentRollup> computeAppointmentRollups(LocalDate from) {
+        List<DailyAppointmentCount> rows = appointmentRepository.countByDayDoctorAndStatus();
+        Map<String, AppointmentRollup> rollups = new HashMap<>();
+
+        for (DailyAppointmentCount row : rows) {
+            if (!isKept(row.day(), from)) continue;
+            Long doctorId = Objects.requireNonNullElse(row.doctorId(), UNASSIGNED);
+            rollups.put(key(row.day(), doctorId, row.status()), AppointmentRollup.builder()
+                    .day(row.day())
+                    .doctorId(doctorId)
+                    .status(row.status())
+                    .total(row.total())
+                    .build());
+        }
+        return rollups;
+    }
+
+    /**
+     * Groups the billings table into rollup rows
+     *
+     * @param from First day to roll up, null for every day
+     * @return Rollup rows mapped by their (day, doctor, status) key
+     */
+    private Map<String, RevenueRollup> computeRevenueRollups(LocalDate from) {
+        List<DailyRevenue> rows = billingRepository.sumByDayDoctorAndStatus();
+        Map<String, RevenueRollup> rollups = new HashMap<>();
+
+        for (DailyRevenue row : rows) {
+            if (!isKept(row.day(), from)) continue;
+            Long doctorId = Objects.requireNonNullElse(row.doctorId(), UNASSIGNED);
+            rollups.put(key(row.day(), doctorId, row.status()), RevenueRollup.builder()
+                    .day(row.day())
+                    .doctorId(doctorId)
+                    .status(row.status())
+                    .bills(row.bills())
+                    .billed(row.billed())
+                    .paid(row.paid())
+                    .build());
+        }
+        return rollups;
+    }
+
+    /**
+     * Inserts an empty rollup row in its own transaction so that concurrent writers
+     * never fail on the unique key; a row created by another writer in the meantime is kept
+     *
+     * @param absent Checks whether the row is still missing
+     * @param create Saves the empty row
+     */
+    private void createIfAbsent(BooleanSupplier absent, Runnable create) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            template.executeWithoutResult(status -> {
+                if (absent.getAsBoolean()) create.run();
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Rollup row was created by a concurrent writer");
+        }
+    }
+
+    /**
+     * @return The first day a table still holds, null when none of it was archived
+     */
+    private LocalDate keptFrom(String table) {
+        return archiveWatermarkRepository.findById(table).map(ArchiveWatermark::getKeptFrom).orElse(null);
+    }
+
+    private static boolean isKept(LocalDate day, LocalDate keptFrom) {
+        return keptFrom == null || !day.isBefore(keptFrom);
+    }
+
+    private static String key(LocalDate day, Long doctorId, Enum<?> status) {
+        return day + ":" + doctorId + ":" + status;
+    }
+}
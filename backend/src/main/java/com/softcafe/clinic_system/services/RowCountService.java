@@ -0,0 +1,174 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.config.ReplicaRoutingDataSource;
+import com.softcafe.clinic_system.dto.PageMode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Supplies the totals of list pages. Exact totals are counted with the page, while slice pages read
+ * counts that are refreshed in the background, so the request never waits on a COUNT(*)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RowCountService {
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor countExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<String, Long> tableEstimates = new ConcurrentHashMap<>();
+    private final Map<String, CachedCount> counts = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private boolean postgres;
+
+    @Value("${app.count.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.count.cache.ttl:60000}")
+    private long ttl;
+
+    @PostConstruct
+    void detectDatabase() {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")));
+    }
+
+    /**
+     * Works out the total pages of a filtered list
+     *
+     * @param slice The fetched page
+     * @param mode  How the client wants the total
+     * @param key   Identifies the list and its filter in the count cache
+     * @param count Counts the list's rows
+     * @return The total number of pages, -1 while a slice's count isn't ready
+     */
+    public int totalPages(Slice<?> slice, PageMode mode, String key, LongSupplier count) {
+        if (isLast(slice)) {
+            return slice.getNumber() + (slice.hasContent() ? 1 : 0);
+        }
+
+        long rows = mode == PageMode.PAGE ? count.getAsLong() : cached(key, count);
+        return toPages(rows, slice.getSize());
+    }
+
+    /**
+     * Works out the total pages of a whole table. Slices read the planner's row estimate
+     *
+     * @param slice The fetched page
+     * @param mode  How the client wants the total
+     * @param table The table listed
+     * @param count Counts the table's rows
+     * @return The total number of pages, -1 while a slice's count isn't ready
+     */
+    public int totalTablePages(Slice<?> slice, PageMode mode, String table, LongSupplier count) {
+        if (isLast(slice)) {
+            return slice.getNumber() + (slice.hasContent() ? 1 : 0);
+        }
+        if (mode == PageMode.PAGE) {
+            return toPages(count.getAsLong(), slice.getSize());
+        }
+
+        long rows = tableEstimates.computeIfAbsent(table, this::estimate);
+        // Tables that were never analyzed have no estimate yet
+        return toPages(rows < 0 ? cached(table, count) : rows, slice.getSize());
+    }
+
+    /**
+     * Refreshes the planner estimates of the tables listed so far
+     */
+    @Scheduled(fixedDelayString = "${app.count.estimate-interval:60000}")
+    public void refreshEstimates() {
+        for (String table : List.copyOf(tableEstimates.keySet())) {
+            tableEstimates.put(table, estimate(table));
+        }
+    }
+
+    /**
+     * Reads a cached count, counting again in the background once it is older than the TTL
+     *
+     * @return The cached rows, -1 until the first count completes
+     */
+    private long cached(String key, LongSupplier count) {
+        CachedCount cached;
+        synchronized (counts) {
+            cached = counts.get(key);
+        }
+
+        if (cached == null || System.currentTimeMillis() - cached.countedAt() > ttl) {
+            refresh(key, count);
+        }
+        return cached == null ? -1 : cached.rows();
+    }
+
+    private void refresh(String key, LongSupplier count) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        try {
+            countExecutor.execute(() -> {
+                try {
+                    // Like the slice it totals, a background count may be served by the replica
+                    long rows = ReplicaRoutingDataSource.readFromReplica(() -> template.execute(status -> count.getAsLong()));
+                    synchronized (counts) {
+                        counts.put(key, new CachedCount(rows, System.currentTimeMillis()));
+                        if (counts.size() > maxEntries) {
+                            counts.remove(counts.keySet().iterator().next());
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Counting {} failed", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // The queue is full, a later request will try again
+            refreshing.remove(key);
+        }
+    }
+
+    private long estimate(String table) {
+        String query = postgres ?
+                "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = ?" :
+                "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE LOWER(TABLE_NAME) = ? AND LOWER(TABLE_SCHEMA) = LOWER(CURRENT_SCHEMA)";
+        List<Long> rows = jdbcTemplate.queryForList(query, Long.class, table);
+        return rows.isEmpty() || rows.get(0) == null ? -1 : rows.get(0);
+    }
+
+    /**
+     * The last page with rows, or an empty first page, gives the total without counting
+     */
+    private static boolean isLast(Slice<?> slice) {
+        return !slice.hasNext() && (slice.hasContent() || slice.isFirst());
+    }
+
+    private static int toPages(long rows, int size) {
+        return rows < 0 ? -1 : (int) ((rows + size - 1) / size);
+    }
+
+    private record CachedCount(long rows, long countedAt) {
+    }
+}
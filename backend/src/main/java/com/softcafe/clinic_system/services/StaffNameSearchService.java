@@ -0,0 +1,127 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.staff.StaffName;
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.utils.StaffNameIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds staff whose names contain a piece of text.
+ * <p>
+ * On Postgres the LIKE query is served by the pg_trgm index on {@code lower(full_name)}. Other databases have no
+ * such index, so the names are held in a {@link StaffNameIndex} built on startup and kept up to date as the
+ * staff's transactions commit. The index picks the matching ids and the database pages, filters and sorts them
+ */
+@Service
+@RequiredArgsConstructor
+public class StaffNameSearchService {
+    private final StaffRepository staffRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private CommittedIndex<StaffName, StaffNameIndex> index;
+
+    /**
+     * Above this many matches the ids are no cheaper to look up than scanning the names
+     */
+    @Value("${app.staff-search.max-candidates:300}")
+    private int maxCandidates;
+
+    @PostConstruct
+    void init() {
+        index = new CommittedIndex<>("staff names for search", transactionManager, staffRepository::streamNames,
+                StaffNameIndex::of);
+    }
+
+    /**
+     * Builds the index from every staff member's name, unless the database has a trigram index of its own
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        if (!Boolean.TRUE.equals(postgres)) {
+            index.build();
+        }
+    }
+
+    /**
+     * Finds the staff whose names contain a value, ignoring case
+     *
+     * @param value    Part of a name
+     * @param role     Optional role filter
+     * @param status   Optional status filter, ignored when a role is given
+     * @param pageable Page and sort
+     * @return A page of staff members
+     */
+    public Page<Staff> search(String value, Role role, StaffStatus status, Pageable pageable) {
+        StaffNameIndex current = index.current();
+        long[] ids = current == null ? null : current.find(value);
+
+        if (ids == null || ids.length > maxCandidates) {
+            String pattern = "%" + escape(StaffNameIndex.normalize(value)) + "%";
+            if (role != null) {
+                return staffRepository.findByNameLikeAndRole(pattern, role, pageable);
+            }
+            if (status != null) {
+                return staffRepository.findByNameLikeAndStatus(pattern, status, pageable);
+            }
+            return staffRepository.findByNameLike(pattern, pageable);
+        }
+
+        if (ids.length == 0) {
+            return Page.empty(pageable);
+        }
+
+        List<Long> matches = Arrays.stream(ids).boxed().toList();
+        if (role != null) {
+            return staffRepository.findByIdInAndRole(matches, role, pageable);
+        }
+        if (status != null) {
+            return staffRepository.findByIdInAndStatus(matches, status, pageable);
+        }
+        return staffRepository.findByIdIn(matches, pageable);
+    }
+
+    /**
+     * Indexes a saved staff member's name once the surrounding transaction commits
+     *
+     * @param staff A saved staff member
+     */
+    public void index(Staff staff) {
+        // Copy the name now, it may be changed before the transaction commits
+        StaffName name = new StaffName(staff.getId(), staff.getFullName());
+        index.put(name);
+    }
+
+    /**
+     * Takes a deleted staff member out of the index once the surrounding transaction commits
+     *
+     * @param id The staff member's primary key
+     */
+    public void remove(long id) {
+        index.remove(id);
+    }
+
+    /**
+     * Escapes the LIKE wildcards, so a name containing % or _ is matched as written
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
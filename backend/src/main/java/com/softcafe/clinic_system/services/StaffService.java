@@ -1,5 +1,8 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
+import com.softcafe.clinic_system.dto.PageMode;
+import com.softcafe.clinic_system.dto.UserIdentifiers;
 import com.softcafe.clinic_system.dto.staff.ListOfStaff;
 import com.softcafe.clinic_system.dto.staff.NewStaff;
 import com.softcafe.clinic_system.dto.staff.StaffCredentials;
@@ -17,6 +20,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.bcrypt.BCrypt;
@@ -32,6 +36,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class StaffService {
     private final StaffRepository staffRepository;
+    private final RowCountService rowCountService;
+    private final StaffNameSearchService staffNameSearchService;
+    private final IdentifierLookupService identifierLookupService;
     private final int PAGE_SIZE = 10;
 
     /**
@@ -62,7 +69,11 @@ public class StaffService {
             // Hash the password
             newStaff.setPassword(BCrypt.hashpw(staff.password(), BCrypt.gensalt(10)));
 
-            StaffData staffData = StaffUtil.toDto(staffRepository.save(newStaff));
+            Staff saved = staffRepository.save(newStaff);
+            staffNameSearchService.index(saved);
+            identifierLookupService.staffSaved(saved);
+
+            StaffData staffData = StaffUtil.toDto(saved);
             log.info("A staff member with ID: {} has been created", staffData.id());
 
             return staffData;
@@ -88,41 +99,36 @@ public class StaffService {
      * @throws ResponseStatusException CONFLICT in case of duplicated values
      */
     private void StaffExists(Staff newStaff) {
-        String violated = null;
-
-        if (staffRepository.findByEmail(newStaff.getEmail()).isPresent()) violated = "email";
-        if (staffRepository.findByPhone(newStaff.getPhone()).isPresent()) violated = "phone number";
-        if (staffRepository.findByNationalId(newStaff.getNationalId()).isPresent()) violated = "national ID number";
-        if (staffRepository.findByUsername(newStaff.getUsername()).isPresent()) violated = "username";
-
-        if (violated != null) throw new ResponseStatusException(
-                HttpStatus.CONFLICT, "A staff member with the specified " + violated + " already exists!"
-        );
+        UserIdentifiers identifiers = new UserIdentifiers(null, newStaff.getEmail(), newStaff.getPhone(),
+                newStaff.getNationalId(), newStaff.getUsername(), null);
+
+        identifierLookupService.findStaffConflict(identifiers).ifPresent(violated -> {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT, "A staff member with the specified " + violated.label() + " already exists!"
+            );
+        });
     }
 
     /**
      * Retrieves a list of all staff members
      *
      * @param page The page number to fetch from
+     * @param mode How the total pages are worked out
      * @return A record containing the total number of pages and the list of staff members
      * @throws ResponseStatusException BAD_REQUEST In case of an invalid page number
      */
-    public ListOfStaff getAll(int page) {
+    @ReplicaRead
+    public ListOfStaff getAll(int page, PageMode mode) {
         // Validate the page
         if (page <= 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid page!");
         }
 
-        Page<Staff> staffPage = staffRepository.findAll(PageRequest.of(page - 1, PAGE_SIZE));
+        Slice<StaffData> staffPage = staffRepository.findBy(PageRequest.of(page - 1, PAGE_SIZE));
 
-        int totalPages = staffPage.getTotalPages();
+        int totalPages = rowCountService.totalTablePages(staffPage, mode, "staff", staffRepository::count);
 
-        List<StaffData> staffDataList = new ArrayList<>();
-
-        for (Staff staff : staffPage) {
-            staffDataList.add(StaffUtil.toDto(staff));
-        }
-        return new ListOfStaff(totalPages, staffDataList);
+        return new ListOfStaff(totalPages, staffPage.getContent(), staffPage.hasNext());
     }
 
     /**
@@ -204,7 +210,11 @@ public class StaffService {
             if (newData.password() != null)
                 oldData.setPassword(BCrypt.hashpw(newData.password(), BCrypt.gensalt(10)));
 
-            StaffData data = StaffUtil.toDto(staffRepository.save(oldData));
+            Staff saved = staffRepository.save(oldData);
+            staffNameSearchService.index(saved);
+            identifierLookupService.staffSaved(saved);
+
+            StaffData data = StaffUtil.toDto(saved);
 
             log.info("Account with ID: {} was updated", data.id());
 
@@ -244,6 +254,8 @@ public class StaffService {
         }
 
         staffRepository.delete(staff.get());
+        staffNameSearchService.remove(id);
+        identifierLookupService.staffRemoved(id);
 
         log.info("Staff member with ID {} was removed", id);
     }
@@ -258,6 +270,7 @@ public class StaffService {
      * @param page       Page number
      * @return An object containing a list of staff and the total expected pages
      */
+    @ReplicaRead
     public ListOfStaff searchSortAndFilter(String identifier, String value, String filter, String sort, int page) {
         Page<Staff> staffPage = null;
         List<StaffData> staffList = new ArrayList<>();
@@ -288,7 +301,7 @@ public class StaffService {
                 } else {
                     staffList.add(StaffUtil.toDto(staff));
                 }
-                return new ListOfStaff(1, staffList);
+                return new ListOfStaff(1, staffList, false);
             } else if (identifier.equalsIgnoreCase("phone")) {
                 Util.isValidPhone(value);
                 Staff staff = staffRepository.findByPhone(value).orElseThrow(() ->
@@ -301,18 +314,16 @@ public class StaffService {
                 } else {
                     staffList.add(StaffUtil.toDto(staff));
                 }
-                return new ListOfStaff(1, staffList);
+                return new ListOfStaff(1, staffList, false);
             } else if (identifier.equalsIgnoreCase("name")) {
                 if (filter != null) {
                     if (List.of("NURSE", "DOCTOR", "PHARMACIST", "TECHNICIAN", "RECEPTIONIST").contains(filter)) {
-                        staffPage = staffRepository.findByFullNameContainingIgnoreCaseAndRole(
-                                value, Role.valueOf(filter), pageable);
+                        staffPage = staffNameSearchService.search(value, Role.valueOf(filter), null, pageable);
                     } else if (List.of("ON_DUTY", "OFF", "SUSPENDED").contains(filter)) {
-                        staffPage = staffRepository.findByFullNameContainingIgnoreCaseAndStatus(
-                                value, StaffStatus.valueOf(filter), pageable);
+                        staffPage = staffNameSearchService.search(value, null, StaffStatus.valueOf(filter), pageable);
                     }
                 } else {
-                    staffPage = staffRepository.findByFullNameContainingIgnoreCase(value, pageable);
+                    staffPage = staffNameSearchService.search(value, null, null, pageable);
                 }
             }
         }
@@ -332,7 +343,7 @@ public class StaffService {
         if (staffPage != null) {
             List<StaffData> finalStaffList = staffList;
             staffPage.getContent().forEach(staff -> finalStaffList.add(StaffUtil.toDto(staff)));
-            return new ListOfStaff(staffPage.getTotalPages(), staffList);
+            return new ListOfStaff(staffPage.getTotalPages(), staffList, staffPage.hasNext());
         }
 
         throw new ResponseStatusException(
@@ -345,9 +356,10 @@ public class StaffService {
      *
      * @return An object containing the list of doctors
      */
+    @ReplicaRead
     public ListOfStaff getDoctorOnDuty() {
         List<Staff> doctors = staffRepository.findByRole(Role.DOCTOR, Pageable.unpaged()).stream().toList();
         doctors = doctors.stream().filter(doctor -> doctor.getStatus() == StaffStatus.ON_DUTY).toList();
-        return new ListOfStaff(0, doctors.stream().map(StaffUtil::toDto).toList());
+        return new ListOfStaff(0, doctors.stream().map(StaffUtil::toDto).toList(), false);
     }
 }
@@ -1,55 +1,44 @@
 package com.softcafe.clinic_system.services;
 
+import com.softcafe.clinic_system.config.ReplicaRead;
 import com.softcafe.clinic_system.dto.report.LogData;
 import com.softcafe.clinic_system.dto.report.ManagerStats;
 import com.softcafe.clinic_system.dto.report.ReceptionistStats;
-import com.softcafe.clinic_system.entities.Appointment;
 import com.softcafe.clinic_system.entities.AppointmentStatus;
 import com.softcafe.clinic_system.entities.Log;
 import com.softcafe.clinic_system.entities.StaffStatus;
-import com.softcafe.clinic_system.repositories.AppointmentRepository;
 import com.softcafe.clinic_system.repositories.LogRepository;
 import com.softcafe.clinic_system.repositories.StaffRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
+    private static final Limit LATEST_LOGS = Limit.of(5);
 
     private final StaffRepository staffRepository;
-    private final AppointmentRepository appointmentRepository;
-    private final LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.of(0, 0, 0));
-    private final LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.of(23, 59, 59));
     private final LogRepository logRepository;
+    private final AppointmentCounterService counterService;
 
     /**
      * Retrieves statistics for the manager role
      *
      * @return An object containing the statistics for manager
      */
+    @ReplicaRead
     public ManagerStats getForManager() {
         long totalStaff = staffRepository.count();
-        long dailyAppointments = appointmentRepository.findByCreatedAtBetween(startOfDay, endOfDay, Pageable.unpaged())
-                .getTotalElements();
-        long staffOnDuty = staffRepository.findByStatus(StaffStatus.ON_DUTY, Pageable.unpaged()).getTotalElements();
-        Page<Log> logPage = logRepository.findAll(PageRequest.of(0, 5, Sort.by(
-                Sort.Direction.DESC, "time")));
-        List<LogData> logList = new ArrayList<>();
-
-        for (Log log : logPage) {
-            logList.add(new LogData(log.getId(), log.getAction(), log.getTime()));
-        }
+        long dailyAppointments = counterService.countToday(null);
+        long staffOnDuty = staffRepository.countByStatus(StaffStatus.ON_DUTY);
+        List<LogData> logList = latestLogs(since -> logRepository.findByTimeAfterOrderByTimeDesc(since, LATEST_LOGS),
+                () -> logRepository.findAllByOrderByTimeDesc(LATEST_LOGS));
 
         return new ManagerStats(totalStaff, staffOnDuty, dailyAppointments, logList);
     }
@@ -60,16 +49,30 @@ public class StatisticsService {
      * @param id Receptionist's primary key
      * @return A statistics object containing appointments data (total, incomplete, complete) and the receptionists logs
      */
+    @ReplicaRead
     public ReceptionistStats getForReceptionist(long id) {
-        Page<Appointment> todayAppointments = appointmentRepository.findByCreatedAtBetweenAndReceptionist_Id(
-                startOfDay, endOfDay, id, Pageable.unpaged()
-        );
-        Page<Log> logPage = logRepository.findByStaff_Id(id, PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "time")));
         return new ReceptionistStats(
-                todayAppointments.getTotalElements(),
-                todayAppointments.stream().filter(appointment -> appointment.getStatus() == AppointmentStatus.COMPLETE).count(),
-                todayAppointments.stream().filter(appointment -> appointment.getStatus() == AppointmentStatus.PENDING).count(),
-                logPage.stream().map(log -> new LogData(log.getId(), log.getAction(), log.getTime())).toList()
+                counterService.countTodayByReceptionist(id, null),
+                counterService.countTodayByReceptionist(id, AppointmentStatus.COMPLETE),
+                counterService.countTodayByReceptionist(id, AppointmentStatus.PENDING),
+                latestLogs(since -> logRepository.findByStaff_IdAndTimeAfterOrderByTimeDesc(id, since, LATEST_LOGS),
+                        () -> logRepository.findByStaff_IdOrderByTimeDesc(id, LATEST_LOGS))
         );
     }
+
+    /**
+     * Reads the latest logs from the last month, which only touches the newest partitions of the logs table.
+     * Falls back to the whole table when the month has too few logs
+     *
+     * @param recent Reads the logs written since a time
+     * @param all    Reads the logs of every month
+     * @return The latest logs, newest first
+     */
+    private List<LogData> latestLogs(Function<LocalDateTime, List<Log>> recent, Supplier<List<Log>> all) {
+        List<Log> logs = recent.apply(LocalDateTime.now().minusMonths(1));
+        if (logs.size() < LATEST_LOGS.max()) {
+            logs = all.get();
+        }
+        return logs.stream().map(log -> new LogData(log.getId(), log.getAction(), log.getTime())).toList();
+    }
 }
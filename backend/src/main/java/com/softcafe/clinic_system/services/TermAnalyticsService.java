@@ -0,0 +1,170 @@
+package com.softcafe.clinic_system.services;
+
+import com.softcafe.clinic_system.dto.report.analytics.RecordSymptoms;
+import com.softcafe.clinic_system.dto.report.analytics.TermCount;
+import com.softcafe.clinic_system.dto.report.analytics.TermOccurrence;
+import com.softcafe.clinic_system.dto.report.analytics.TopTerms;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.entities.TermKind;
+import com.softcafe.clinic_system.entities.TermSketch;
+import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.repositories.TermSketchRepository;
+import com.softcafe.clinic_system.utils.CountMinTopK;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps approximate counts of the diagnoses and symptoms written on records, one sketch per month.
+ * Sketches are updated when a record's transaction commits and written to the database periodically
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TermAnalyticsService {
+    private static final int WIDTH = 1024;
+    private static final int DEPTH = 5;
+    private static final int CAPACITY = 100;
+    private final TermSketchRepository termSketchRepository;
+    private final RecordRepository recordRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<Bucket, CountMinTopK> sketches = new ConcurrentHashMap<>();
+    private final Set<Bucket> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Loads the saved sketches, building them from the records the first time the application starts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        for (TermSketch sketch : termSketchRepository.findAll()) {
+            sketches.put(new Bucket(sketch.getKind(), YearMonth.from(sketch.getMonth())), CountMinTopK.fromBytes(sketch.getData()));
+        }
+
+        if (sketches.isEmpty()) {
+            // The records are streamed, only the sketches are held in memory
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.executeWithoutResult(status -> {
+                try (Stream<TermOccurrence> diagnoses = recordRepository.streamDiagnoses()) {
+                    diagnoses.forEach(row -> add(TermKind.DIAGNOSIS, row, 1));
+                }
+                try (Stream<RecordSymptoms> symptoms = recordRepository.streamSymptoms()) {
+                    symptoms.forEach(row -> row.symptoms().forEach(symptom ->
+                            add(TermKind.SYMPTOM, new TermOccurrence(row.createdAt(), symptom), 1)));
+                }
+            });
+            flush();
+        }
+        log.info("Loaded {} term sketches", sketches.size());
+    }
+
+    /**
+     * Counts a record's diagnosis and symptoms in (or out of) its month once the surrounding transaction commits
+     *
+     * @param record A saved record
+     * @param delta  1 when the record is counted, -1 when it is taken away
+     */
+    public void record(Record record, long delta) {
+        // Copy the terms now, the record may be changed before the transaction commits
+        List<TermOccurrence> diagnoses = record.getDiagnosis() == null ? List.of() :
+                List.of(new TermOccurrence(record.getCreatedAt(), record.getDiagnosis()));
+        List<TermOccurrence> symptoms = record.getSymptoms() == null ? List.of() :
+                record.getSymptoms().stream().map(symptom -> new TermOccurrence(record.getCreatedAt(), symptom)).toList();
+
+        Runnable update = () -> {
+            diagnoses.forEach(row -> add(TermKind.DIAGNOSIS, row, delta));
+            symptoms.forEach(row -> add(TermKind.SYMPTOM, row, delta));
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Retrieves the most frequent diagnoses or symptoms of a month
+     *
+     * @param kind  Diagnoses or symptoms
+     * @param month The month
+     * @param limit Maximum number of terms
+     * @return Approximate counts, most frequent first
+     * @throws ResponseStatusException BAD_REQUEST In case the limit is out of range
+     */
+    public TopTerms top(TermKind kind, YearMonth month, int limit) {
+        if (limit < 1 || limit > CAPACITY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The limit should be between 1 and " + CAPACITY + "!");
+        }
+
+        CountMinTopK sketch = sketches.get(new Bucket(kind, month));
+
+        if (sketch == null) {
+            return new TopTerms(kind, month, 0, 0, List.of());
+        }
+
+        long errorBound = sketch.errorBound();
+        List<TermCount> terms = new ArrayList<>();
+
+        for (Map.Entry<String, Long> entry : sketch.top(limit)) {
+            terms.add(new TermCount(entry.getKey(), entry.getValue(), Math.max(0, entry.getValue() - errorBound)));
+        }
+        return new TopTerms(kind, month, sketch.total(), errorBound, terms);
+    }
+
+    /**
+     * Writes the sketches changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval:60000}")
+    @PreDestroy
+    public void flush() {
+        for (Bucket bucket : List.copyOf(dirty)) {
+            dirty.remove(bucket);
+            byte[] data = sketches.get(bucket).toBytes();
+
+            TermSketch sketch = termSketchRepository.findByKindAndMonth(bucket.kind(), bucket.month().atDay(1))
+                    .orElseGet(() -> TermSketch.builder().kind(bucket.kind()).month(bucket.month().atDay(1)).build());
+            sketch.setData(data);
+            termSketchRepository.save(sketch);
+        }
+    }
+
+    private void add(TermKind kind, TermOccurrence occurrence, long delta) {
+        String term = occurrence.term().trim().toLowerCase(Locale.ROOT);
+
+        if (term.isEmpty() || occurrence.createdAt() == null) {
+            return;
+        }
+
+        Bucket bucket = new Bucket(kind, YearMonth.from(occurrence.createdAt()));
+        sketches.computeIfAbsent(bucket, key -> new CountMinTopK(WIDTH, DEPTH, CAPACITY)).add(term, delta);
+        dirty.add(bucket);
+    }
+
+    private record Bucket(TermKind kind, YearMonth month) {
+    }
+}
@@ -21,4 +21,25 @@ public class AppointmentUtil {
                 appointment.getUpdatedAt()
         );
     }
+
+    /**
+     * Clears the doctor of a projected appointment that has none, since the projection fills it with nulls
+     *
+     * @param appointment Projected appointment DTO
+     * @return Appointment DTO
+     */
+    public static AppointmentData withoutEmptyDoctor(AppointmentData appointment) {
+        if (appointment.doctor() == null || appointment.doctor().id() != null) {
+            return appointment;
+        }
+
+        return new AppointmentData(
+                appointment.id(),
+                appointment.patient(),
+                null,
+                appointment.status(),
+                appointment.createdAt(),
+                appointment.updatedAt()
+        );
+    }
 }
@@ -25,7 +25,8 @@ public class BillingUtil {
                 billing.getAmountPaid(),
                 billing.getStatus(),
                 billing.getCreatedAt(),
-                billing.getUpdatedAt()
+                billing.getUpdatedAt(),
+                billing.getVersion()
         );
     }
 
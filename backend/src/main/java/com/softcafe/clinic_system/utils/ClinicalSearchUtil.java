@@ -0,0 +1,147 @@
+package com.softcafe.clinic_system.utils;
+
+import com.softcafe.clinic_system.dto.search.ClinicalKind;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchHit;
+import com.softcafe.clinic_system.dto.search.LabTestDocument;
+import com.softcafe.clinic_system.dto.search.RecordDocument;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps records and lab tests to the documents of the clinical search index and back
+ */
+public class ClinicalSearchUtil {
+    public static final String KEY = "key";
+    public static final String KIND = "kind";
+    public static final String ID = "id";
+    public static final String RECORD_ID = "recordId";
+    public static final String PATIENT_ID = "patientId";
+    public static final String DOCTOR_ID = "doctorId";
+    public static final String CREATED_AT = "createdAt";
+    public static final String SYMPTOMS = "symptoms";
+    public static final String DIAGNOSIS = "diagnosis";
+    public static final String TREATMENT = "treatment";
+    public static final String NOTES = "notes";
+    public static final String FINDINGS = "findings";
+    /**
+     * The searched fields and their weights, a diagnosis says more about a visit than a note does
+     */
+    public static final Map<String, Float> TEXT_FIELDS = Map.of(
+            DIAGNOSIS, 2.0f,
+            SYMPTOMS, 1.5f,
+            FINDINGS, 1.5f,
+            TREATMENT, 1.0f,
+            NOTES, 1.0f
+    );
+
+    /**
+     * Stored text with its offsets, so highlighting doesn't analyze the text again
+     */
+    private static final FieldType TEXT;
+
+    static {
+        TEXT = new FieldType(TextField.TYPE_STORED);
+        TEXT.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TEXT.freeze();
+    }
+
+    /**
+     * @return The term identifying a record's or lab test's document
+     */
+    public static Term key(ClinicalKind kind, long id) {
+        return new Term(KEY, kind + ":" + id);
+    }
+
+    public static Document toDocument(RecordDocument record) {
+        Document document = header(ClinicalKind.RECORD, record.id(), record.id(), record.patientId(),
+                record.doctorId(), record.createdAt());
+        addText(document, SYMPTOMS, record.symptoms());
+        addText(document, DIAGNOSIS, record.diagnosis() == null ? null : List.of(record.diagnosis()));
+        addText(document, TREATMENT, record.treatment());
+        addText(document, NOTES, record.notes());
+        return document;
+    }
+
+    public static Document toDocument(LabTestDocument test) {
+        Document document = header(ClinicalKind.LAB_TEST, test.id(), test.recordId(), test.patientId(),
+                test.doctorId(), test.createdAt());
+        addText(document, FINDINGS, test.findings());
+        return document;
+    }
+
+    /**
+     * Reads a hit back from its stored fields
+     *
+     * @param document   The stored fields
+     * @param score      Relevance
+     * @param highlights Matching passages by field
+     * @return The hit
+     */
+    public static ClinicalSearchHit toHit(Document document, float score, Map<String, String> highlights) {
+        return new ClinicalSearchHit(
+                ClinicalKind.valueOf(document.get(KIND)),
+                longValue(document, ID),
+                longValue(document, RECORD_ID),
+                longValue(document, PATIENT_ID),
+                longValue(document, DOCTOR_ID),
+                document.getField(CREATED_AT) == null ? null :
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(longValue(document, CREATED_AT)), ZoneOffset.UTC),
+                score,
+                highlights
+        );
+    }
+
+    /**
+     * @return The date as sorted and filtered on in the index
+     */
+    public static long toMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Document header(ClinicalKind kind, Long id, Long recordId, Long patientId, Long doctorId,
+                                   LocalDateTime createdAt) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key(kind, id).text(), Field.Store.NO));
+        document.add(new StringField(KIND, kind.name(), Field.Store.YES));
+        document.add(new LongField(ID, id, Field.Store.YES));
+        addLong(document, RECORD_ID, recordId);
+        addLong(document, PATIENT_ID, patientId);
+        addLong(document, DOCTOR_ID, doctorId);
+        addLong(document, CREATED_AT, createdAt == null ? null : toMillis(createdAt));
+        return document;
+    }
+
+    private static void addLong(Document document, String field, Long value) {
+        if (value != null) {
+            document.add(new LongField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static void addText(Document document, String field, List<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    document.add(new Field(field, value, TEXT));
+                }
+            }
+        }
+    }
+
+    private static Long longValue(Document document, String field) {
+        IndexableField value = document.getField(field);
+        return value == null ? null : value.numericValue().longValue();
+    }
+}
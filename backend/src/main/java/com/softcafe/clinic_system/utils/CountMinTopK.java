@@ -0,0 +1,191 @@
+package com.softcafe.clinic_system.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Count-Min sketch that also tracks its most frequent terms.
+ * <p>
+ * Estimates never undercount and overcount by at most {@code e / width} of the total with probability
+ * {@code 1 - e^-depth}. Counts may be decremented, so terms can be taken back out when the record they
+ * came from changes. Memory and lookups don't depend on the number of distinct terms
+ */
+public class CountMinTopK {
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final long[] counts;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long total;
+
+    /**
+     * @param width    Counters per row, the error shrinks as it grows
+     * @param depth    Number of rows, the error's probability shrinks as it grows
+     * @param capacity Number of frequent terms tracked
+     */
+    public CountMinTopK(int width, int depth, int capacity) {
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.counts = new long[width * depth];
+    }
+
+    /**
+     * Adds occurrences of a term
+     *
+     * @param term  The term
+     * @param delta Occurrences to add, negative to take them away
+     */
+    public synchronized void add(String term, long delta) {
+        int hash = term.hashCode();
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + index(hash, row)] += delta;
+        }
+        total += delta;
+
+        long estimate = estimate(term);
+
+        if (candidates.containsKey(term)) {
+            if (estimate > 0) {
+                candidates.put(term, estimate);
+            } else {
+                candidates.remove(term);
+            }
+        } else if (delta > 0) {
+            if (candidates.size() < capacity) {
+                candidates.put(term, estimate);
+            } else {
+                // Replace the least frequent candidate when the term overtakes it
+                Map.Entry<String, Long> least = candidates.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .orElseThrow();
+
+                if (estimate > least.getValue()) {
+                    candidates.remove(least.getKey());
+                    candidates.put(term, estimate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates a term's occurrences
+     *
+     * @param term The term
+     * @return An estimate that is never below the true count
+     */
+    public synchronized long estimate(String term) {
+        int hash = term.hashCode();
+        long estimate = Long.MAX_VALUE;
+
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + index(hash, row)]);
+        }
+        return Math.max(0, estimate);
+    }
+
+    /**
+     * Retrieves the most frequent terms
+     *
+     * @param limit Maximum number of terms
+     * @return Terms and their estimates, most frequent first
+     */
+    public synchronized List<Map.Entry<String, Long>> top(int limit) {
+        return candidates.keySet().stream()
+                .map(term -> Map.entry(term, estimate(term)))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @return Occurrences of all terms
+     */
+    public synchronized long total() {
+        return total;
+    }
+
+    /**
+     * @return The amount an estimate may exceed the true count by
+     */
+    public synchronized long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    /**
+     * Serializes the sketch
+     *
+     * @return The sketch's bytes
+     */
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(counts.length * Long.BYTES + 1024);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(width);
+            out.writeInt(depth);
+            out.writeInt(capacity);
+            out.writeLong(total);
+            for (long count : counts) {
+                out.writeLong(count);
+            }
+            out.writeInt(candidates.size());
+            for (String term : candidates.keySet()) {
+                out.writeUTF(term);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a serialized sketch
+     *
+     * @param data The sketch's bytes
+     * @return The sketch
+     */
+    public static CountMinTopK fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            CountMinTopK sketch = new CountMinTopK(in.readInt(), in.readInt(), in.readInt());
+            sketch.total = in.readLong();
+            for (int i = 0; i < sketch.counts.length; i++) {
+                sketch.counts[i] = in.readLong();
+            }
+
+            int candidates = in.readInt();
+            for (int i = 0; i < candidates; i++) {
+                String term = in.readUTF();
+                sketch.candidates.put(term, sketch.estimate(term));
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Derives the row's counter from two mixes of the term's hash
+     */
+    private int index(int hash, int row) {
+        int h1 = mix(hash);
+        int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,72 @@
+package com.softcafe.clinic_system.utils;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A position in a list sorted by creation date, newest first, with the primary key breaking ties.
+ * Clients receive it as an opaque string and the next page is read from the rows sorted before it
+ *
+ * @param createdAt Creation date of the last row read
+ * @param id        Primary key of the last row read
+ */
+public record Cursor(LocalDateTime createdAt, long id) {
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    // Sorts after every row, so the first page is read from it
+    private static final Cursor START = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    /**
+     * Reads a cursor handed out with a previous page
+     *
+     * @param cursor The cursor, blank for the first page
+     * @return The position to read the next page from
+     * @throws ResponseStatusException BAD_REQUEST In case the cursor is malformed
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Cursor(LocalDateTime.parse(keys[0]), Long.parseLong(keys[1]));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a valid cursor!");
+        }
+    }
+
+    /**
+     * Creates the cursor following the last row of a page
+     *
+     * @param rows      The page's rows
+     * @param hasNext   Whether more rows follow the page
+     * @param createdAt Reads a row's creation date
+     * @param id        Reads a row's primary key
+     * @return The next page's cursor or null if this is the last page
+     */
+    public static <T> String next(List<T> rows, boolean hasNext, Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        if (!hasNext || rows.isEmpty()) {
+            return null;
+        }
+
+        T last = rows.get(rows.size() - 1);
+        return new Cursor(createdAt.apply(last), id.apply(last)).encode();
+    }
+
+    /**
+     * @return The opaque form handed to clients
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,103 @@
+package com.softcafe.clinic_system.utils;
+
+import com.softcafe.clinic_system.dto.Identifier;
+import com.softcafe.clinic_system.dto.UserIdentifiers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory map from every unique identifier of a set of users, patients or staff, to their primary key.
+ * Lookups don't lock, writes are serialized
+ */
+public class IdentifierIndex implements RowIndex<UserIdentifiers> {
+    private final Map<Identifier, Map<String, Long>> ids = new EnumMap<>(Identifier.class);
+    /**
+     * What each user is indexed under, to replace or remove it
+     */
+    private final Map<Long, UserIdentifiers> users = new ConcurrentHashMap<>();
+
+    public IdentifierIndex() {
+        for (Identifier identifier : Identifier.values()) {
+            ids.put(identifier, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Builds an index in one pass
+     *
+     * @param users Every user's identifiers
+     * @return The index
+     */
+    public static IdentifierIndex of(Stream<UserIdentifiers> users) {
+        IdentifierIndex index = new IdentifierIndex();
+        users.forEach(index::link);
+        return index;
+    }
+
+    /**
+     * @return Number of indexed users
+     */
+    @Override
+    public int size() {
+        return users.size();
+    }
+
+    /**
+     * Adds a user or replaces their identifiers
+     *
+     * @param user The user's current identifiers
+     */
+    @Override
+    public synchronized void put(UserIdentifiers user) {
+        unlink(user.id());
+        link(user);
+    }
+
+    /**
+     * Takes a user out of the index
+     *
+     * @param id The user's primary key
+     */
+    @Override
+    public synchronized void remove(long id) {
+        unlink(id);
+    }
+
+    /**
+     * @param identifier The kind of identifier
+     * @param value      Its value, in any case for emails and usernames
+     * @return The primary key of the user holding it, null when none does
+     */
+    public Long find(Identifier identifier, String value) {
+        String key = identifier.normalize(value);
+        return key == null ? null : ids.get(identifier).get(key);
+    }
+
+    private void link(UserIdentifiers user) {
+        users.put(user.id(), user);
+        for (Identifier identifier : Identifier.values()) {
+            String key = identifier.normalize(user.get(identifier));
+            if (key != null) {
+                ids.get(identifier).put(key, user.id());
+            }
+        }
+    }
+
+    private void unlink(long id) {
+        UserIdentifiers previous = users.remove(id);
+        if (previous == null) {
+            return;
+        }
+
+        for (Identifier identifier : Identifier.values()) {
+            String key = identifier.normalize(previous.get(identifier));
+            if (key != null) {
+                // Another user may have taken the value over since
+                ids.get(identifier).remove(key, id);
+            }
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.softcafe.clinic_system.utils;
+
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory index of patients' names, phone numbers and insurance numbers.
+ * <p>
+ * A query is split into words and every word has to match one of a patient's terms: exactly, as a prefix or, for
+ * words of four letters or more, within one typo (a missing, extra, wrong or swapped letter). Patients rank by how
+ * well their terms matched, exact above prefix above typo. Searches don't lock, writes are serialized and replace
+ * the postings they touch
+ */
+public class PatientSearchIndex implements RowIndex<PatientMatch> {
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int TYPO = 1;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Ids of the patients holding each term, sorted
+     */
+    private final ConcurrentSkipListMap<String, long[]> postings;
+    private final Map<Long, Entry> entries;
+
+    public PatientSearchIndex() {
+        this(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private PatientSearchIndex(ConcurrentSkipListMap<String, long[]> postings, Map<Long, Entry> entries) {
+        this.postings = postings;
+        this.entries = entries;
+    }
+
+    /**
+     * Builds an index in one pass, much faster than adding the patients one at a time
+     *
+     * @param patients Every patient to index
+     * @return The index
+     */
+    public static PatientSearchIndex of(Stream<PatientMatch> patients) {
+        Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        Map<String, Ids> ids = new HashMap<>();
+
+        patients.forEach(patient -> {
+            Entry entry = entry(patient);
+            entries.put(patient.id(), entry);
+            for (String term : entry.terms()) {
+                ids.computeIfAbsent(term, key -> new Ids()).add(patient.id());
+            }
+        });
+
+        TreeMap<String, long[]> sorted = new TreeMap<>();
+        ids.forEach((term, list) -> sorted.put(term, list.toSortedArray()));
+        return new PatientSearchIndex(new ConcurrentSkipListMap<>(sorted), entries);
+    }
+
+    /**
+     * @return Number of indexed patients
+     */
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds a patient or replaces their indexed details
+     *
+     * @param patient The patient's current details
+     */
+    @Override
+    public synchronized void put(PatientMatch patient) {
+        Entry entry = entry(patient);
+        Entry previous = entries.put(patient.id(), entry);
+
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (!contains(entry.terms(), term)) {
+                    unlink(term, patient.id());
+                }
+            }
+        }
+        for (String term : entry.terms()) {
+            if (previous == null || !contains(previous.terms(), term)) {
+                link(term, patient.id());
+            }
+        }
+    }
+
+    /**
+     * Takes a patient out of the index
+     *
+     * @param id The patient's primary key
+     */
+    @Override
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                unlink(term, id);
+            }
+        }
+    }
+
+    /**
+     * Finds the patients matching every word of a query. Only the candidates of the rarest word are visited,
+     * best matches first, and the walk stops once nothing left can outrank the patients found
+     *
+     * @param query Words or beginnings of words from a name, phone number or insurance number
+     * @param limit Maximum number of patients
+     * @return The best matches first, ties in the order the rarest word's terms and ids sort
+     */
+    public List<PatientMatch> search(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        addTokens(query, false, words);
+
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        String rarest = null;
+        long fewest = Long.MAX_VALUE;
+        int bestOfAll = 0;
+        int[] best = new int[words.size()];
+
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            best[i] = bestMatch(word);
+            if (best[i] == 0) {
+                return List.of();
+            }
+            bestOfAll += best[i];
+
+            long candidates = countCandidates(word, fewest);
+            if (rarest == null || candidates < fewest) {
+                rarest = word;
+                fewest = candidates;
+            }
+        }
+
+        List<String> others = new ArrayList<>(words);
+        others.remove(rarest);
+        int othersBest = bestOfAll - best[words.indexOf(rarest)];
+
+        Walk walk = new Walk(others, limit);
+        long[] exact = postings.get(rarest);
+
+        if (walk.tier(EXACT, othersBest, exact == null ? List.of() : List.of(exact)) &&
+                walk.tier(PREFIX, othersBest, prefixed(rarest).values()) &&
+                typoable(rarest)) {
+            walk.tier(TYPO, othersBest, typos(rarest).stream().map(postings::get).toList());
+        }
+        return walk.results();
+    }
+
+    /**
+     * @return The best any term of the index matches the word
+     */
+    private int bestMatch(String word) {
+        if (postings.containsKey(word)) {
+            return EXACT;
+        }
+        if (!prefixed(word).isEmpty()) {
+            return PREFIX;
+        }
+        // Looking for an actual typo costs more than a search, the bound only has to be high enough
+        return typoable(word) ? TYPO : 0;
+    }
+
+    /**
+     * Counts the patients holding the word or a term it starts, giving up once the count passes the cap
+     */
+    private long countCandidates(String word, long cap) {
+        long[] exact = postings.get(word);
+        long count = exact == null ? 0 : exact.length;
+
+        for (long[] ids : prefixed(word).values()) {
+            if (count >= cap) {
+                break;
+            }
+            count += ids.length;
+        }
+        return count;
+    }
+
+    private NavigableMap<String, long[]> prefixed(String word) {
+        return postings.subMap(word, false, word + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Numbers aren't guessed at, a near miss is another patient's number
+     */
+    private static boolean typoable(String word) {
+        if (word.length() < MIN_TYPO_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The indexed terms one typo away from the word, in order
+     */
+    private Set<String> typos(String word) {
+        Set<String> typos = new TreeSet<>();
+        StringBuilder variant = new StringBuilder(word.length() + 1);
+
+        for (int i = 0; i <= word.length(); i++) {
+            // Extra letter
+            for (char c : ALPHABET) {
+                variant.setLength(0);
+                variant.append(word, 0, i).append(c).append(word, i, word.length());
+                addIfIndexed(variant, typos);
+            }
+
+            if (i == word.length()) {
+                break;
+            }
+
+            // Missing letter
+            variant.setLength(0);
+            variant.append(word, 0, i).append(word, i + 1, word.length());
+            addIfIndexed(variant, typos);
+
+            // Wrong letter
+            for (char c : ALPHABET) {
+                if (c != word.charAt(i)) {
+                    variant.setLength(0);
+                    variant.append(word, 0, i).append(c).append(word, i + 1, word.length());
+                    addIfIndexed(variant, typos);
+                }
+            }
+
+            // Swapped letters
+            if (i + 1 < word.length() && word.charAt(i) != word.charAt(i + 1)) {
+                variant.setLength(0);
+                variant.append(word, 0, i).append(word.charAt(i + 1)).append(word.charAt(i))
+                        .append(word, i + 2, word.length());
+                addIfIndexed(variant, typos);
+            }
+        }
+        return typos;
+    }
+
+    private void addIfIndexed(CharSequence variant, Set<String> typos) {
+        String term = variant.toString();
+        if (postings.containsKey(term)) {
+            typos.add(term);
+        }
+    }
+
+    /**
+     * @return How well the word matches the best of the terms, 0 if it matches none
+     */
+    private static int match(String word, String[] terms) {
+        int best = 0;
+
+        for (String term : terms) {
+            if (term.equals(word)) {
+                return EXACT;
+            }
+            if (term.startsWith(word)) {
+                best = PREFIX;
+            } else if (best == 0 && typoable(word) && oneTypoApart(word, term)) {
+                best = TYPO;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Whether the strings differ by one missing, extra, wrong or swapped character
+     */
+    static boolean oneTypoApart(String a, String b) {
+        int lengthA = a.length();
+        int lengthB = b.length();
+
+        if (Math.abs(lengthA - lengthB) > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < lengthA && i < lengthB && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+
+        if (lengthA == lengthB) {
+            return a.regionMatches(i + 1, b, i + 1, lengthA - i - 1) ||
+                    (i + 1 < lengthA && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i) &&
+                            a.regionMatches(i + 2, b, i + 2, lengthA - i - 2));
+        }
+        return lengthA > lengthB ? a.regionMatches(i + 1, b, i, lengthB - i) : b.regionMatches(i + 1, a, i, lengthA - i);
+    }
+
+    private void link(String term, long id) {
+        postings.compute(term, (key, ids) -> {
+            long[] current = ids == null ? EMPTY : ids;
+            int position = Arrays.binarySearch(current, id);
+            if (position >= 0) {
+                return current;
+            }
+
+            int insertAt = -position - 1;
+            long[] updated = new long[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = id;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+            return updated;
+        });
+    }
+
+    private void unlink(String term, long id) {
+        postings.computeIfPresent(term, (key, ids) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            return updated;
+        });
+    }
+
+    private static boolean contains(String[] terms, String term) {
+        for (String candidate : terms) {
+            if (candidate.equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Entry entry(PatientMatch patient) {
+        List<String> terms = new ArrayList<>(6);
+        addTokens(patient.fullName(), false, terms);
+        // Phone and insurance numbers are one term, whatever separators they were written with
+        addTokens(patient.phone(), true, terms);
+        addTokens(patient.insuranceNumber(), true, terms);
+
+        return new Entry(patient, terms.stream().distinct().toArray(String[]::new));
+    }
+
+    /**
+     * Splits text into lower-cased words of letters and digits without accents, so "José" is found as "jose"
+     *
+     * @param text  The text
+     * @param whole Whether the whole text is one word
+     * @param words Receives the words
+     */
+    private static void addTokens(String text, boolean whole, Collection<String> words) {
+        if (text == null) {
+            return;
+        }
+
+        String plain = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                // Accents become marks of their own, which aren't letters
+                plain = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+
+        StringBuilder word = new StringBuilder(plain.length());
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (!whole && Character.isWhitespace(c) && !word.isEmpty()) {
+                addIfAbsent(word.toString(), words);
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            addIfAbsent(word.toString(), words);
+        }
+    }
+
+    private static void addIfAbsent(String word, Collection<String> words) {
+        if (!words.contains(word)) {
+            words.add(word);
+        }
+    }
+
+    private record Entry(PatientMatch patient, String[] terms) {
+    }
+
+    private record Scored(Entry entry, int score, long order) {
+    }
+
+    /**
+     * Visits the candidates of the rarest word, scoring them on every other word and keeping the best
+     */
+    private class Walk {
+        private static final Comparator<Scored> RANKING = Comparator.comparingInt(Scored::score).reversed()
+                .thenComparingLong(Scored::order);
+
+        private final List<String> others;
+        private final int limit;
+        private final PriorityQueue<Scored> top;
+        private final Set<Long> seen = new HashSet<>();
+        private long visited;
+
+        Walk(List<String> others, int limit) {
+            this.others = others;
+            this.limit = limit;
+            this.top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        }
+
+        /**
+         * Visits the patients the rarest word matches with one quality
+         *
+         * @param quality    How well the rarest word matched
+         * @param othersBest The best the other words can still add
+         * @param lists      The matched terms' postings
+         * @return Whether a lower quality could still outrank the patients found
+         */
+        boolean tier(int quality, int othersBest, Collection<long[]> lists) {
+            for (long[] ids : lists) {
+                if (ids == null) {
+                    continue;
+                }
+
+                for (long id : ids) {
+                    // Later patients of a tier rank after earlier ones with the same score
+                    if (full(quality + othersBest)) {
+                        return false;
+                    }
+                    // A patient met in a better tier already has their best score
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+
+                    Entry entry = entries.get(id);
+                    if (entry != null) {
+                        score(entry, quality);
+                    }
+                }
+            }
+            return !full(quality - 1 + othersBest);
+        }
+
+        private void score(Entry entry, int quality) {
+            int score = quality;
+
+            for (String word : others) {
+                int match = match(word, entry.terms());
+                if (match == 0) {
+                    return;
+                }
+                score += match;
+            }
+
+            top.offer(new Scored(entry, score, visited++));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        private boolean full(int reachable) {
+            return top.size() >= limit && top.peek().score() >= reachable;
+        }
+
+        List<PatientMatch> results() {
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            return ranked.stream().map(scored -> scored.entry().patient()).toList();
+        }
+    }
+
+    /**
+     * A growable list of ids, used while building
+     */
+    private static class Ids {
+        // Most numbers belong to one patient
+        private long[] ids = new long[1];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
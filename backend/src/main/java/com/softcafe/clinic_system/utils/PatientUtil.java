@@ -2,6 +2,7 @@ package com.softcafe.clinic_system.utils;
 
 import com.softcafe.clinic_system.dto.patient.NewPatient;
 import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
 import com.softcafe.clinic_system.entities.Patient;
 
 import java.time.LocalDateTime;
@@ -146,4 +147,13 @@ public class PatientUtil {
                 patient.getUpdatedAt()
         );
     }
+
+    /**
+     * Converts a patient object to the details the search indexes
+     * @param patient The patient object
+     * @return The search entry
+     */
+    public static PatientMatch toMatch(Patient patient) {
+        return new PatientMatch(patient.getId(), patient.getFullName(), patient.getPhone(), patient.getInsuranceNumber());
+    }
 }
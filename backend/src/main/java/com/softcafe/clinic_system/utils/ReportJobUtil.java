@@ -0,0 +1,26 @@
+package com.softcafe.clinic_system.utils;
+
+import com.softcafe.clinic_system.dto.report.ReportJobData;
+import com.softcafe.clinic_system.entities.ReportJob;
+
+public class ReportJobUtil {
+
+    /**
+     * Converts a report job to DTO
+     *
+     * @param job Report job
+     * @return Report job DTO
+     */
+    public static ReportJobData toDto(ReportJob job) {
+        return new ReportJobData(
+                job.getId(),
+                job.getStatus(),
+                job.getProgress(),
+                job.getStart(),
+                job.getEnd(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.softcafe.clinic_system.utils;
+
+/**
+ * An in-memory index over the rows of a table, each row known by its primary key
+ *
+ * @param <R> What's indexed of a row
+ */
+public interface RowIndex<R> {
+    /**
+     * @return Number of indexed rows
+     */
+    int size();
+
+    /**
+     * Adds a row or replaces what's indexed of it
+     *
+     * @param row The row as it is now
+     */
+    void put(R row);
+
+    /**
+     * Takes a row out of the index
+     *
+     * @param id The row's primary key
+     */
+    void remove(long id);
+}
@@ -0,0 +1,247 @@
+package com.softcafe.clinic_system.utils;
+
+import com.softcafe.clinic_system.dto.staff.StaffName;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory trigram index of staff names, answering case-insensitive substring searches.
+ * <p>
+ * A name is lower-cased and split into its overlapping three-letter slices. A name holding a substring holds every
+ * trigram of it, so only the names in the intersection of those trigrams' postings are checked. Substrings shorter
+ * than a trigram can't be served. Searches don't lock, writes are serialized and replace the postings they touch
+ */
+public class StaffNameIndex implements RowIndex<StaffName> {
+    public static final int GRAM = 3;
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Ids of the staff whose names hold each trigram, sorted
+     */
+    private final Map<String, long[]> postings;
+    private final Map<Long, String> names;
+
+    public StaffNameIndex() {
+        this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private StaffNameIndex(Map<String, long[]> postings, Map<Long, String> names) {
+        this.postings = postings;
+        this.names = names;
+    }
+
+    /**
+     * Builds an index in one pass
+     *
+     * @param staff Every staff member's name
+     * @return The index
+     */
+    public static StaffNameIndex of(Stream<StaffName> staff) {
+        Map<Long, String> names = new ConcurrentHashMap<>();
+        Map<String, Ids> ids = new HashMap<>();
+
+        staff.forEach(member -> {
+            String name = normalize(member.fullName());
+            names.put(member.id(), name);
+            for (String gram : grams(name)) {
+                ids.computeIfAbsent(gram, key -> new Ids()).add(member.id());
+            }
+        });
+
+        Map<String, long[]> postings = new ConcurrentHashMap<>(ids.size() * 4 / 3 + 1);
+        ids.forEach((gram, list) -> postings.put(gram, list.toSortedArray()));
+        return new StaffNameIndex(postings, names);
+    }
+
+    /**
+     * @return Number of indexed staff members
+     */
+    @Override
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Adds a staff member or replaces their indexed name
+     *
+     * @param staff The staff member's current name
+     */
+    @Override
+    public synchronized void put(StaffName staff) {
+        String name = normalize(staff.fullName());
+        String previous = names.put(staff.id(), name);
+        Set<String> grams = grams(name);
+        Set<String> old = previous == null ? Set.of() : grams(previous);
+
+        for (String gram : old) {
+            if (!grams.contains(gram)) {
+                unlink(gram, staff.id());
+            }
+        }
+        for (String gram : grams) {
+            if (!old.contains(gram)) {
+                link(gram, staff.id());
+            }
+        }
+    }
+
+    /**
+     * Takes a staff member out of the index
+     *
+     * @param id The staff member's primary key
+     */
+    @Override
+    public synchronized void remove(long id) {
+        String previous = names.remove(id);
+
+        if (previous != null) {
+            for (String gram : grams(previous)) {
+                unlink(gram, id);
+            }
+        }
+    }
+
+    /**
+     * Finds the staff whose names contain a substring, ignoring case. The postings are intersected rarest first,
+     * so the work follows the rarest trigram rather than the number of staff
+     *
+     * @param value The substring
+     * @return Sorted ids of the matching staff, null when the substring is shorter than a trigram
+     */
+    public long[] find(String value) {
+        String needle = normalize(value);
+        if (needle.length() < GRAM) {
+            return null;
+        }
+
+        Set<String> grams = grams(needle);
+        long[][] lists = new long[grams.size()][];
+        int i = 0;
+        for (String gram : grams) {
+            long[] ids = postings.get(gram);
+            if (ids == null) {
+                return EMPTY;
+            }
+            lists[i++] = ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+
+        long[] candidates = lists[0];
+        for (int j = 1; j < lists.length && candidates.length > 0; j++) {
+            candidates = intersect(candidates, lists[j]);
+        }
+
+        // The trigrams may appear apart or out of order, only the name itself tells
+        if (grams.size() == 1 && needle.length() == GRAM) {
+            return candidates;
+        }
+        long[] matches = new long[candidates.length];
+        int found = 0;
+        for (long id : candidates) {
+            String name = names.get(id);
+            if (name != null && name.contains(needle)) {
+                matches[found++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * The form names are matched in, the same as {@code lower(full_name)} in the database
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Looks each id of the shorter list up in the longer one, moving forward only
+     */
+    private static long[] intersect(long[] shorter, long[] longer) {
+        long[] both = new long[shorter.length];
+        int found = 0;
+        int from = 0;
+
+        for (long id : shorter) {
+            int at = Arrays.binarySearch(longer, from, longer.length, id);
+            if (at >= 0) {
+                both[found++] = id;
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+            if (from == longer.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(both, found);
+    }
+
+    private void link(String gram, long id) {
+        long[] ids = postings.getOrDefault(gram, EMPTY);
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return;
+        }
+
+        int insertAt = -at - 1;
+        long[] linked = new long[ids.length + 1];
+        System.arraycopy(ids, 0, linked, 0, insertAt);
+        linked[insertAt] = id;
+        System.arraycopy(ids, insertAt, linked, insertAt + 1, ids.length - insertAt);
+        postings.put(gram, linked);
+    }
+
+    private void unlink(String gram, long id) {
+        long[] ids = postings.get(gram);
+        int at = ids == null ? -1 : Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return;
+        }
+
+        if (ids.length == 1) {
+            postings.remove(gram);
+            return;
+        }
+        long[] unlinked = new long[ids.length - 1];
+        System.arraycopy(ids, 0, unlinked, 0, at);
+        System.arraycopy(ids, at + 1, unlinked, at, ids.length - at - 1);
+        postings.put(gram, unlinked);
+    }
+
+    /**
+     * A growable list of ids
+     */
+    private static final class Ids {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+-- The tables added shortly before the migrations took over the schema. V1 creates them on a new database, but a
+-- database created by ddl-auto=update and baselined at V1 may not have them yet.
+
+create sequence if not exists appointment_rollups_seq start with 1 increment by 50;
+
+create sequence if not exists report_jobs_seq start with 1 increment by 50;
+
+create sequence if not exists revenue_rollups_seq start with 1 increment by 50;
+
+create sequence if not exists term_sketches_seq start with 1 increment by 50;
+
+create table if not exists appointment_rollups (
+    rollup_date date not null,
+    doctor_id bigint not null,
+    id bigint not null,
+    total bigint not null,
+    status varchar(255) not null check (status in ('PENDING','COMPLETE','CANCELLED')),
+    primary key (id),
+    unique (rollup_date, doctor_id, status)
+);
+
+create table if not exists report_jobs (
+    progress integer,
+    created_at timestamp(6),
+    finished_at timestamp(6),
+    id bigint not null,
+    range_end timestamp(6) not null,
+    range_start timestamp(6) not null,
+    started_at timestamp(6),
+    error varchar(255),
+    request_key varchar(255) not null,
+    result TEXT,
+    status varchar(255) not null check (status in ('QUEUED','RUNNING','COMPLETE','FAILED')),
+    primary key (id)
+);
+
+create table if not exists revenue_rollups (
+    billed float(53) not null,
+    paid float(53) not null,
+    rollup_date date not null,
+    bills bigint not null,
+    doctor_id bigint not null,
+    id bigint not null,
+    status varchar(255) not null check (status in ('PENDING','PARTIALLY_PAID','PAID','CANCELLED')),
+    primary key (id),
+    unique (rollup_date, doctor_id, status)
+);
+
+create table if not exists term_sketches (
+    bucket_month date not null,
+    id bigint not null,
+    updated_at timestamp(6),
+    data ${binary_type} not null,
+    kind varchar(255) not null check (kind in ('DIAGNOSIS','SYMPTOM')),
+    primary key (id),
+    unique (kind, bucket_month)
+);
+
+create index if not exists IDX3uitjd1l71k67jhsdgn01wdkn
+    on report_jobs (request_key, status);
@@ -0,0 +1,231 @@
+-- Schema of a new database, as Hibernate generated it from the entities when the migrations took it over.
+-- Databases created by ddl-auto=update are baselined at this version and skip this script, though they predate
+-- some of its tables: V1_2 adds those, and V3 the record id sequence.
+-- The json_type and binary_type placeholders are set per database in the application properties.
+
+create sequence appointment_rollups_seq start with 1 increment by 50;
+
+create sequence appointments_seq start with 1 increment by 50;
+
+create sequence billings_seq start with 1 increment by 50;
+
+create sequence laboratory_tests_seq start with 1 increment by 50;
+
+create sequence logs_seq start with 1 increment by 50;
+
+create sequence patient_records_seq start with 1 increment by 50;
+
+create sequence report_jobs_seq start with 1 increment by 50;
+
+create sequence revenue_rollups_seq start with 1 increment by 50;
+
+create sequence term_sketches_seq start with 1 increment by 50;
+
+create sequence users_seq start with 1 increment by 50;
+
+create table appointment_rollups (
+    rollup_date date not null,
+    doctor_id bigint not null,
+    id bigint not null,
+    total bigint not null,
+    status varchar(255) not null check (status in ('PENDING','COMPLETE','CANCELLED')),
+    primary key (id),
+    unique (rollup_date, doctor_id, status)
+);
+
+create table appointments (
+    status smallint check (status between 0 and 2),
+    created_at timestamp(6),
+    doctor_id bigint,
+    id bigint not null,
+    patient_id bigint not null,
+    receptionist_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table billings (
+    amount_paid float(53),
+    total_amount float(53),
+    appointment_id bigint,
+    created_at timestamp(6),
+    id bigint not null,
+    patient_id bigint not null,
+    updated_at timestamp(6),
+    payment_method varchar(255),
+    status varchar(255) check (status in ('PENDING','PARTIALLY_PAID','PAID','CANCELLED')),
+    bills ${json_type},
+    primary key (id)
+);
+
+create table laboratory_tests (
+    created_at timestamp(6),
+    id bigint not null,
+    record_id bigint,
+    updated_at timestamp(6),
+    findings varchar(255) array,
+    investigations varchar(255) array,
+    primary key (id)
+);
+
+create table logs (
+    id bigint not null,
+    staff_id bigint,
+    time timestamp(6),
+    action varchar(255),
+    primary key (id)
+);
+
+create table patient_records (
+    created_at timestamp(6),
+    doctor_id bigint not null,
+    id bigint not null,
+    patient_id bigint not null,
+    updated_at timestamp(6),
+    diagnosis varchar(255),
+    reason_for_visiting varchar(255),
+    notes varchar(255) array,
+    symptoms varchar(255) array,
+    treatment varchar(255) array,
+    primary key (id)
+);
+
+create table patients (
+    date_of_birth date not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    updated_at timestamp(6) not null,
+    address varchar(255) not null,
+    blood_type varchar(255),
+    email_address varchar(255) unique,
+    emergency_contact varchar(255) not null,
+    emergency_name varchar(255) not null,
+    full_name varchar(255) not null,
+    gender varchar(255) check (gender in ('MALE','FEMALE')),
+    insurance_number varchar(255) not null unique,
+    insurance_provider varchar(255) not null,
+    national_id_number varchar(255) not null unique,
+    phone_number varchar(255) not null unique,
+    profile_image varchar(255),
+    primary key (id)
+);
+
+create table report_jobs (
+    progress integer,
+    created_at timestamp(6),
+    finished_at timestamp(6),
+    id bigint not null,
+    range_end timestamp(6) not null,
+    range_start timestamp(6) not null,
+    started_at timestamp(6),
+    error varchar(255),
+    request_key varchar(255) not null,
+    result TEXT,
+    status varchar(255) not null check (status in ('QUEUED','RUNNING','COMPLETE','FAILED')),
+    primary key (id)
+);
+
+create table revenue_rollups (
+    billed float(53) not null,
+    paid float(53) not null,
+    rollup_date date not null,
+    bills bigint not null,
+    doctor_id bigint not null,
+    id bigint not null,
+    status varchar(255) not null check (status in ('PENDING','PARTIALLY_PAID','PAID','CANCELLED')),
+    primary key (id),
+    unique (rollup_date, doctor_id, status)
+);
+
+create table staff (
+    date_of_birth date not null,
+    role smallint not null check (role between 0 and 5),
+    created_at timestamp(6) not null,
+    id bigint not null,
+    last_login timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    address varchar(255) not null,
+    email_address varchar(255) unique,
+    full_name varchar(255) not null,
+    gender varchar(255) check (gender in ('MALE','FEMALE')),
+    national_id_number varchar(255) not null unique,
+    password varchar(255) not null,
+    phone_number varchar(255) not null unique,
+    profile_image varchar(255),
+    status varchar(255) check (status in ('ON_DUTY','OFF','SUSPENDED')),
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table term_sketches (
+    bucket_month date not null,
+    id bigint not null,
+    updated_at timestamp(6),
+    data ${binary_type} not null,
+    kind varchar(255) not null check (kind in ('DIAGNOSIS','SYMPTOM')),
+    primary key (id),
+    unique (kind, bucket_month)
+);
+
+create table users (
+    date_of_birth date not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    updated_at timestamp(6) not null,
+    address varchar(255) not null,
+    email_address varchar(255) unique,
+    full_name varchar(255) not null,
+    gender varchar(255) check (gender in ('MALE','FEMALE')),
+    national_id_number varchar(255) not null unique,
+    phone_number varchar(255) not null unique,
+    profile_image varchar(255),
+    primary key (id)
+);
+
+create index IDX3uitjd1l71k67jhsdgn01wdkn
+    on report_jobs (request_key, status);
+
+alter table if exists appointments
+    add constraint FKpl8b6u7l0um3bib5p3f5vpc4r
+    foreign key (doctor_id)
+    references staff;
+
+alter table if exists appointments
+    add constraint FK8exap5wmg8kmb1g1rx3by21yt
+    foreign key (patient_id)
+    references patients;
+
+alter table if exists appointments
+    add constraint FKnph5npsseihwlpmo6estfxusd
+    foreign key (receptionist_id)
+    references staff;
+
+alter table if exists billings
+    add constraint FKq265krl0kfrw01si4ypv3eiqv
+    foreign key (appointment_id)
+    references appointments;
+
+alter table if exists billings
+    add constraint FKnk5g6ljwmexmh0l3h26aww3or
+    foreign key (patient_id)
+    references patients;
+
+alter table if exists laboratory_tests
+    add constraint FKk95l4ef398u7vrx33uawpxba0
+    foreign key (record_id)
+    references patient_records;
+
+alter table if exists logs
+    add constraint FKm58n6g142e6j1kexvlmjv4m0l
+    foreign key (staff_id)
+    references staff;
+
+alter table if exists patient_records
+    add constraint FKie3mxk1b4ipuopnlohy5m1v1a
+    foreign key (doctor_id)
+    references staff;
+
+alter table if exists patient_records
+    add constraint FKp3i7exgh035i4miakj703j1si
+    foreign key (patient_id)
+    references patients;
@@ -0,0 +1,32 @@
+-- Indexes matching the filters and sorts of the repository list queries.
+-- Lists are sorted by creation date, newest first, so the filter column leads and created_at follows.
+
+-- AppointmentRepository
+create index idx_appointments_doctor_created on appointments (doctor_id, created_at desc);
+create index idx_appointments_patient_created on appointments (patient_id, created_at desc);
+create index idx_appointments_receptionist_created on appointments (receptionist_id, created_at);
+create index idx_appointments_created on appointments (created_at);
+
+-- BillingRepository
+create index idx_billings_patient_created on billings (patient_id, created_at desc);
+create index idx_billings_status_created on billings (status, created_at desc);
+create index idx_billings_method_created on billings (payment_method, created_at desc);
+create index idx_billings_appointment on billings (appointment_id);
+create index idx_billings_created on billings (created_at);
+
+-- RecordRepository
+create index idx_records_patient_created on patient_records (patient_id, created_at desc);
+create index idx_records_doctor_created on patient_records (doctor_id, created_at desc);
+create index idx_records_created on patient_records (created_at);
+
+-- LabTestRepository
+create index idx_lab_tests_record on laboratory_tests (record_id);
+create index idx_lab_tests_created on laboratory_tests (created_at);
+
+-- LogRepository and the latest logs of the statistics
+create index idx_logs_staff_time on logs (staff_id, time desc);
+create index idx_logs_time on logs (time desc);
+
+-- StaffRepository
+create index idx_staff_role on staff (role);
+create index idx_staff_status on staff (status);
@@ -0,0 +1,37 @@
+-- Cursor pages are read with (created_at, id) < (?, ?), newest first.
+-- Each list index now ends with the primary key, so the row comparison is a range on the index
+-- and a page deep in the list starts reading where the cursor points, like the first page.
+-- The columns are ascending and read backwards, which row comparisons support on every database.
+
+-- AppointmentRepository
+drop index idx_appointments_doctor_created;
+drop index idx_appointments_patient_created;
+drop index idx_appointments_created;
+create index idx_appointments_doctor_created on appointments (doctor_id, created_at, id);
+create index idx_appointments_patient_created on appointments (patient_id, created_at, id);
+create index idx_appointments_created on appointments (created_at, id);
+
+-- BillingRepository
+drop index idx_billings_patient_created;
+drop index idx_billings_status_created;
+drop index idx_billings_method_created;
+drop index idx_billings_created;
+create index idx_billings_patient_created on billings (patient_id, created_at, id);
+create index idx_billings_status_created on billings (status, created_at, id);
+create index idx_billings_method_created on billings (payment_method, created_at, id);
+create index idx_billings_created on billings (created_at, id);
+
+-- RecordRepository
+drop index idx_records_patient_created;
+drop index idx_records_doctor_created;
+drop index idx_records_created;
+create index idx_records_patient_created on patient_records (patient_id, created_at, id);
+create index idx_records_doctor_created on patient_records (doctor_id, created_at, id);
+create index idx_records_created on patient_records (created_at, id);
+
+-- LabTestRepository
+drop index idx_lab_tests_created;
+create index idx_lab_tests_created on laboratory_tests (created_at, id);
+
+-- PatientRepository
+create index idx_patients_created on patients (created_at, id);
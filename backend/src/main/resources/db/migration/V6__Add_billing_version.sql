@@ -0,0 +1,3 @@
+-- Billing is versioned, so two full updates of the same bill can't overwrite each other.
+-- Payments bump the version too, making a full update that raced a payment fail instead of undoing it.
+alter table billings add column version bigint default 0 not null;
@@ -0,0 +1,7 @@
+-- Failure messages, SQL errors among them, often run past 255 characters.
+alter table report_jobs alter column error set data type text;
+
+-- Each in-flight job is claimed by the instance running it, which renews the claim while it works on the job.
+-- Only jobs whose claim went stale are taken over, so a restarting instance leaves the others' jobs alone.
+alter table report_jobs add column claimed_by varchar(255);
+alter table report_jobs add column heartbeat_at timestamp(6);
@@ -0,0 +1,7 @@
+-- The first day each partitioned table still holds, once its older months were archived.
+-- The rollups of the days before it can no longer be recomputed, so rebuilds and checks leave them as they are.
+create table archive_watermarks (
+    table_name varchar(255) not null,
+    kept_from date not null,
+    primary key (table_name)
+);
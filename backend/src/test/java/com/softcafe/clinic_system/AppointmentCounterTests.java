@@ -0,0 +1,46 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.entities.Appointment;
+import com.softcafe.clinic_system.services.AppointmentCounterService;
+import com.softcafe.clinic_system.services.EntityCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the appointments other instances book today once they announce them
+ */
+class AppointmentCounterTests extends SeededContextTests {
+    private static final long APPOINTMENT = 900_101;
+
+    @Autowired
+    private AppointmentCounterService counterService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void followsAppointmentsBookedByOtherInstances() {
+        long before = counterService.countToday(null);
+        long receptionistBefore = counterService.countTodayByReceptionist(1, null);
+
+        // Written past the service, as another instance would
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO appointments (id, status, created_at, updated_at, doctor_id, patient_id, " +
+                "receptionist_id) VALUES (?, 0, ?, ?, NULL, ?, 1)", APPOINTMENT, now, now, FIRST_PATIENT);
+
+        try {
+            assertEquals(before, counterService.countToday(null));
+
+            eventPublisher.publishEvent(new EntityCacheService.RemoteChange(Appointment.class, APPOINTMENT));
+            assertEquals(before + 1, counterService.countToday(null));
+            assertEquals(receptionistBefore + 1, counterService.countTodayByReceptionist(1, null));
+        } finally {
+            jdbcTemplate.update("DELETE FROM appointments WHERE id = ?", APPOINTMENT);
+            counterService.seed();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.dto.appointment.AppointmentData;
+import com.softcafe.clinic_system.dto.appointment.NewAppointment;
+import com.softcafe.clinic_system.dto.billing.BillingData;
+import com.softcafe.clinic_system.dto.billing.NewBill;
+import com.softcafe.clinic_system.dto.billing.NewPayment;
+import com.softcafe.clinic_system.entities.Billing;
+import com.softcafe.clinic_system.entities.PaymentStatus;
+import com.softcafe.clinic_system.repositories.BillingRepository;
+import com.softcafe.clinic_system.services.AppointmentService;
+import com.softcafe.clinic_system.services.BillingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pays the same billing from many threads at once: every payment must count and the status must follow the sum
+ */
+class BillingPaymentTests extends SeededContextTests {
+    private static final int PAYMENTS = 200;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BillingService billingService;
+    @Autowired
+    private BillingRepository billingRepository;
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Test
+    void concurrentPaymentsAreAllCounted() throws Exception {
+        BillingData bill = newBill(PAYMENTS);
+
+        List<Future<BillingData>> payments = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < PAYMENTS; i++) {
+                payments.add(executor.submit(() -> billingService.pay(bill.id(), new NewPayment(1.0))));
+            }
+        }
+        for (Future<BillingData> payment : payments) {
+            payment.get();
+        }
+
+        Billing paid = billingRepository.findById(bill.id()).orElseThrow();
+        assertEquals(PAYMENTS, paid.getAmountPaid());
+        assertEquals(PaymentStatus.PAID, paid.getStatus());
+        assertEquals(PAYMENTS, paid.getVersion());
+
+        // The rollups moved along with every payment
+        assertEquals(
+                jdbcTemplate.queryForObject("SELECT SUM(amount_paid) FROM billings", Double.class),
+                jdbcTemplate.queryForObject("SELECT SUM(paid) FROM revenue_rollups", Double.class)
+        );
+    }
+
+    @Test
+    void paymentsStopAtTheBalance() throws Exception {
+        BillingData bill = newBill(10);
+
+        mockMvc.perform(post("/api/billing/" + bill.id() + "/payment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 15}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/billing/" + bill.id() + "/payment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PARTIALLY_PAID"));
+        mockMvc.perform(post("/api/billing/" + bill.id() + "/payment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 6}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amountPaid").value(10.0))
+                .andExpect(jsonPath("$.status").value("PAID"));
+        mockMvc.perform(post("/api/billing/" + bill.id() + "/payment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 1}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void staleUpdatesAreRejected() throws Exception {
+        BillingData bill = newBill(10);
+        billingService.pay(bill.id(), new NewPayment(5.0));
+
+        mockMvc.perform(put("/api/billing").param("id", bill.id().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"patientId\": " + FIRST_PATIENT + ", \"bills\": {\"consultation\": 10}, " +
+                                "\"paymentMethod\": \"cash\", \"amountPaid\": 0, \"status\": \"PENDING\", " +
+                                "\"version\": " + bill.version() + "}"))
+                .andExpect(status().isConflict());
+        assertEquals(5.0, billingRepository.findById(bill.id()).orElseThrow().getAmountPaid());
+    }
+
+    @Test
+    void billedAppointmentsAreKept() throws Exception {
+        AppointmentData appointment = appointmentService.add(new NewAppointment(FIRST_PATIENT, 0L, 1L));
+        BillingData bill = newBill(10);
+        jdbcTemplate.update("UPDATE billings SET appointment_id = ? WHERE id = ?", appointment.id(), bill.id());
+
+        mockMvc.perform(delete("/api/appointment/" + appointment.id()))
+                .andExpect(status().isConflict());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments WHERE id = ?", Integer.class,
+                appointment.id()));
+    }
+
+    private BillingData newBill(double total) {
+        return billingService.add(new NewBill(FIRST_PATIENT, Map.of("consultation", total), "cash", 0.0,
+                PaymentStatus.PENDING, null));
+    }
+}
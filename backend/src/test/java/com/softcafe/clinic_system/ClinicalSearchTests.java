@@ -0,0 +1,164 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.dto.record.NewRecord;
+import com.softcafe.clinic_system.dto.record.RecordData;
+import com.softcafe.clinic_system.dto.search.ClinicalKind;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchHit;
+import com.softcafe.clinic_system.dto.search.ClinicalSearchResults;
+import com.softcafe.clinic_system.dto.test.NewTest;
+import com.softcafe.clinic_system.dto.test.TestData;
+import com.softcafe.clinic_system.services.ClinicalSearchService;
+import com.softcafe.clinic_system.services.LabTestService;
+import com.softcafe.clinic_system.services.RecordService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Searches records and lab tests saved through the services, which reach the index asynchronously, so every
+ * check waits for the indexer to catch up
+ */
+class ClinicalSearchTests extends SeededContextTests {
+    @Autowired
+    private ClinicalSearchService clinicalSearchService;
+    @Autowired
+    private RecordService recordService;
+    @Autowired
+    private LabTestService labTestService;
+
+    private RecordData fever;
+    private TestData smear;
+
+    @BeforeAll
+    void seed() {
+        fever = recordService.add(newRecord(FIRST_PATIENT, 1L, List.of("High fevers", "Chills"), "Malaria",
+                List.of("Artemether 80mg")));
+        recordService.add(newRecord(FIRST_PATIENT + 1, 2L, List.of("Headache"), "Severe malaria",
+                List.of("IV artesunate")));
+        RecordData stomach = recordService.add(newRecord(FIRST_PATIENT, 2L, List.of("Abdominal pain"), "Typhoid",
+                List.of("Ciprofloxacin 500mg")));
+        smear = labTestService.add(new NewTest(stomach.id(), List.of("Blood smear"),
+                List.of("Malaria parasites seen on the smear")));
+
+        awaitHits("malaria", 3);
+    }
+
+    @Test
+    void ranksAndHighlightsMatches() throws Exception {
+        ClinicalSearchResults results = search("malaria", null, null, null);
+        assertEquals(3, results.totalHits());
+        // The diagnosis weighs the most, and the shortest one wins
+        assertEquals(fever.id(), results.hits().get(0).id());
+        assertEquals("<mark>Malaria</mark>", results.hits().get(0).highlights().get("diagnosis"));
+
+        // Words are stemmed, fevers matches fever
+        assertEquals(List.of(fever.id()), ids(search("fever chills", null, null, null)));
+
+        mockMvc.perform(get("/api/record/search").param("q", "parasites").param("kind", "LAB_TEST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(1))
+                .andExpect(jsonPath("$.hits[0].id").value(smear.id()))
+                .andExpect(jsonPath("$.hits[0].patientId").value(FIRST_PATIENT))
+                .andExpect(jsonPath("$.hits[0].highlights.findings").value("Malaria <mark>parasites</mark> seen on the smear"));
+    }
+
+    @Test
+    void filtersByPatientDoctorDateAndKind() {
+        // A lab test belongs to its record's patient and doctor
+        assertEquals(2, search("malaria", FIRST_PATIENT, null, null).totalHits());
+        assertEquals(2, search("malaria", null, 2L, null).totalHits());
+        assertEquals(1, search("malaria", FIRST_PATIENT, 2L, ClinicalKind.LAB_TEST).totalHits());
+        assertEquals(2, search("malaria", null, null, ClinicalKind.RECORD).totalHits());
+
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(3, clinicalSearchService.search("malaria", null, null, now.minusMonths(6), now.plusDays(1),
+                null, 1).totalHits());
+        assertEquals(0, clinicalSearchService.search("malaria", null, null, now.minusMonths(6), now.minusDays(1),
+                null, 1).totalHits());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        RecordData record = recordService.add(newRecord(FIRST_PATIENT + 2, 3L, List.of("Cough"), "Pneumonia",
+                List.of("Amoxicillin")));
+        awaitHits("pneumonia", 1);
+
+        recordService.update(record.id(), newRecord(FIRST_PATIENT + 2, 3L, List.of("Cough"), "Bronchitis",
+                List.of("Rest")));
+        awaitHits("pneumonia", 0);
+        assertEquals(List.of(record.id()), ids(search("bronchitis", null, null, null)));
+
+        recordService.delete(record.id());
+        awaitHits("bronchitis", 0);
+    }
+
+    @Test
+    void rebuildsFromTheDatabase() throws Exception {
+        // Written behind the service's back, only a rebuild picks it up
+        jdbcTemplate.update("UPDATE patient_records SET diagnosis = 'Cholera' WHERE id = ?", fever.id());
+
+        mockMvc.perform(post("/api/record/search/rebuild"))
+                .andExpect(status().isAccepted());
+        awaitHits("cholera", 1);
+
+        jdbcTemplate.update("UPDATE patient_records SET diagnosis = 'Malaria' WHERE id = ?", fever.id());
+        clinicalSearchService.rebuild();
+        awaitHits("cholera", 0);
+    }
+
+    @Test
+    void rejectsInvalidSearches() throws Exception {
+        mockMvc.perform(get("/api/record/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/record/search").param("q", "malaria").param("page", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/record/search").param("q", "malaria")
+                        .param("start", "2025-06-01T00:00:00").param("end", "2025-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ClinicalSearchResults search(String query, Long patientId, Long doctorId, ClinicalKind kind) {
+        return clinicalSearchService.search(query, patientId, doctorId, null, null, kind, 1);
+    }
+
+    private static List<Long> ids(ClinicalSearchResults results) {
+        return results.hits().stream().map(ClinicalSearchHit::id).toList();
+    }
+
+    private void awaitHits(String query, long expected) {
+        await(() -> search(query, null, null, null).totalHits() == expected,
+                () -> "Expected " + expected + " matches for " + query + " but found "
+                        + search(query, null, null, null).totalHits());
+    }
+
+    private static void await(Supplier<Boolean> condition, Supplier<String> message) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.get()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message.get());
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static NewRecord newRecord(long patientId, long doctorId, List<String> symptoms, String diagnosis,
+                                       List<String> treatment) {
+        return new NewRecord(patientId, doctorId, "Visit", symptoms, diagnosis, treatment, List.of("Review in a week"));
+    }
+}
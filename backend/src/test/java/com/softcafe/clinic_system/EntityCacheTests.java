@@ -0,0 +1,89 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads staff and patients again in new sessions: the second read must come from the second-level cache
+ */
+class EntityCacheTests extends SeededContextTests {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void repeatedLookupsSkipTheDatabase() {
+        patientRepository.findById(FIRST_PATIENT).orElseThrow();
+        staffRepository.findById(1L).orElseThrow();
+
+        long statements = statistics().getPrepareStatementCount();
+        patientRepository.findById(FIRST_PATIENT).orElseThrow();
+        staffRepository.findById(1L).orElseThrow();
+
+        assertEquals(statements, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void updatesReplaceTheCachedEntry() {
+        String name = staffRepository.findById(2L).orElseThrow().getFullName();
+        transactionTemplate.executeWithoutResult(status ->
+                staffRepository.findById(2L).orElseThrow().setFullName("Renamed Doctor"));
+
+        try {
+            long statements = statistics().getPrepareStatementCount();
+            assertEquals("Renamed Doctor", staffRepository.findById(2L).orElseThrow().getFullName());
+            assertEquals(statements, statistics().getPrepareStatementCount());
+        } finally {
+            // Renamed behind the name search's back, the other tests expect the seeded name
+            transactionTemplate.executeWithoutResult(status ->
+                    staffRepository.findById(2L).orElseThrow().setFullName(name));
+        }
+    }
+
+    @Test
+    void doctorsListIsCached() {
+        List<Staff> doctors = staffRepository.findByRole(Role.DOCTOR, Pageable.unpaged()).getContent();
+
+        long statements = statistics().getPrepareStatementCount();
+        assertEquals(doctors, staffRepository.findByRole(Role.DOCTOR, Pageable.unpaged()).getContent());
+        assertEquals(statements, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void exposesHitRatios() throws Exception {
+        staffRepository.findById(3L).orElseThrow();
+        staffRepository.findById(3L).orElseThrow();
+
+        mockMvc.perform(get("/api/statistics/entity-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.regions[0].region").value("users"))
+                .andExpect(jsonPath("$.regions[0].hits", greaterThan(0)))
+                .andExpect(jsonPath("$.regions[0].hitRatio", greaterThan(0.0)));
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
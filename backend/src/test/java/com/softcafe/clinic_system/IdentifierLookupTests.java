@@ -0,0 +1,140 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.benchmark.DatasetSeeder;
+import com.softcafe.clinic_system.dto.patient.NewPatient;
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.staff.NewStaff;
+import com.softcafe.clinic_system.dto.staff.StaffData;
+import com.softcafe.clinic_system.entities.Gender;
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import com.softcafe.clinic_system.services.PatientService;
+import com.softcafe.clinic_system.services.StaffService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Resolves patients and new staff members' duplicates through the identifier index, checking the answers, the
+ * precedence between identifiers and how many statements each lookup costs
+ */
+class IdentifierLookupTests extends SeededContextTests {
+    private static final long UNSEEN_STAFF = 900_001;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PatientService patientService;
+    @Autowired
+    private StaffService staffService;
+
+    @Test
+    void findsPatientsByAnyIdentifier() {
+        assertEquals(FIRST_PATIENT, patientService.get("PATIENT1@example.com", null, null, null).id());
+        assertEquals(FIRST_PATIENT + 1, patientService.get(null, DatasetSeeder.phone(2, 2), null, null).id());
+        assertEquals(FIRST_PATIENT + 2, patientService.get(null, null, "P3", null).id());
+        assertEquals(FIRST_PATIENT + 3, patientService.get(null, null, null, "INS4").id());
+
+        // The email wins over the phone number, an unknown email falls through to it
+        assertEquals(FIRST_PATIENT, patientService.get("patient1@example.com", DatasetSeeder.phone(2, 2), null, null).id());
+        assertEquals(FIRST_PATIENT + 1, patientService.get("nobody@example.com", DatasetSeeder.phone(2, 2), null, null).id());
+
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> patientService.get("nobody@example.com", null, "P0", null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> patientService.get(null, null, null, null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> patientService.get("patient1@example.com", "not a phone", null, null)).getStatusCode());
+    }
+
+    @Test
+    void resolvesAHitWithoutAQueryAndAMissWithOne() {
+        // Loads the patient into the second-level cache
+        patientService.get("patient5@example.com", null, null, null);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(FIRST_PATIENT + 4, patientService.get("patient5@example.com", null, null, null).id());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        assertThrows(ResponseStatusException.class, () -> patientService.get("nobody@example.com", null, "P0", "INS0"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void rejectsDuplicateStaffByTheLastClashingIdentifier() {
+        assertConflict("A staff member with the specified email already exists!",
+                newStaff("Staff1@example.com", "0799000201", "S-LOOKUP-1", "lookup.one"));
+        assertConflict("A staff member with the specified national ID number already exists!",
+                newStaff("staff1@example.com", "0799000201", "S2", "lookup.one"));
+        assertConflict("A staff member with the specified username already exists!",
+                newStaff("lookup.one@example.com", DatasetSeeder.phone(1, 3), "S-LOOKUP-1", "STAFF4"));
+    }
+
+    @Test
+    void rejectsDuplicateStaffTheIndexHasNotSeen() {
+        // Written past the service, as another instance would, so the index doesn't know it
+        jdbcTemplate.update("INSERT INTO staff (id, full_name, email_address, phone_number, national_id_number, " +
+                "address, date_of_birth, gender, created_at, updated_at, username, password, status, role, last_login) " +
+                "VALUES (?, 'Unseen Staff', 'lookup.unseen@example.com', '0799000204', 'S-LOOKUP-4', 'Nairobi', " +
+                "'1990-01-01', 'FEMALE', ?, ?, 'lookup.unseen', 'x', 'ON_DUTY', 2, ?)", UNSEEN_STAFF,
+                LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+
+        try {
+            assertConflict("A staff member with the specified email already exists!",
+                    newStaff("Lookup.Unseen@example.com", "0799000205", "S-LOOKUP-5", "lookup.seen"));
+            assertConflict("A staff member with the specified username already exists!",
+                    newStaff("lookup.seen@example.com", "0799000205", "S-LOOKUP-5", "lookup.unseen"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM staff WHERE id = ?", UNSEEN_STAFF);
+        }
+    }
+
+    @Test
+    void followsAddedUpdatedAndRemovedUsers() {
+        PatientDto patient = patientService.addPatient(newPatient("lookup.patient@example.com", "INS-LOOKUP-1"));
+        assertEquals(patient.id(), patientService.get(null, null, null, "INS-LOOKUP-1").id());
+
+        patientService.update(patient.id(), newPatient("lookup.moved@example.com", "INS-LOOKUP-2"));
+        assertEquals(patient.id(), patientService.get("lookup.moved@example.com", null, null, null).id());
+        assertThrows(ResponseStatusException.class, () -> patientService.get(null, null, null, "INS-LOOKUP-1"));
+
+        patientService.remove(patient.id());
+        assertThrows(ResponseStatusException.class, () -> patientService.get(null, null, null, "INS-LOOKUP-2"));
+
+        StaffData staff = staffService.addStaff(newStaff("lookup.staff@example.com", "0799000202", "S-LOOKUP-2",
+                "lookup.staff"));
+        assertConflict("A staff member with the specified username already exists!",
+                newStaff("lookup.other@example.com", "0799000203", "S-LOOKUP-3", "Lookup.Staff"));
+
+        staffService.delete(staff.id());
+        staffService.delete(staffService.addStaff(newStaff("lookup.other@example.com", "0799000203", "S-LOOKUP-3",
+                "lookup.staff")).id());
+    }
+
+    private void assertConflict(String message, NewStaff staff) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> staffService.addStaff(staff));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(message, e.getReason());
+    }
+
+    private static NewPatient newPatient(String email, String insurance) {
+        return new NewPatient("Lookup Patient", email, "0799000301", "P-LOOKUP-1", "Nairobi", LocalDate.of(1990, 1, 1),
+                Gender.FEMALE, "0799000302", "Next Of Kin", "SHIF", insurance, null);
+    }
+
+    private static NewStaff newStaff(String email, String phone, String nationalId, String username) {
+        return new NewStaff("Lookup Staff", email, phone, nationalId, "Nairobi", LocalDate.of(1990, 1, 1),
+                Gender.FEMALE, null, username, "Password1!", StaffStatus.ON_DUTY, Role.NURSE, null);
+    }
+}
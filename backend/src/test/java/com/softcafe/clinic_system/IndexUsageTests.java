@@ -0,0 +1,184 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.benchmark.DatasetSeeder;
+import com.softcafe.clinic_system.entities.LabTest;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.entities.PaymentStatus;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.BillingRepository;
+import com.softcafe.clinic_system.repositories.LabTestRepository;
+import com.softcafe.clinic_system.repositories.LogRepository;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.services.StaffNameSearchService;
+import com.softcafe.clinic_system.utils.Cursor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs every repository list query on a seeded dataset and fails if the plan of any statement scans a whole table
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexusage;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.softcafe.clinic_system.IndexUsageTests$Recorder"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexUsageTests {
+    private static final LocalDateTime START = LocalDateTime.now().minusDays(7);
+    private static final LocalDateTime END = LocalDateTime.now();
+    private static final Pageable NEWEST = PageRequest.of(0, 10, Cursor.NEWEST_FIRST);
+    private static final Pageable FIRST = PageRequest.of(0, 10);
+    private static final Limit NEXT = Limit.of(11);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private BillingRepository billingRepository;
+    @Autowired
+    private RecordRepository recordRepository;
+    @Autowired
+    private LabTestRepository labTestRepository;
+    @Autowired
+    private LogRepository logRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private StaffNameSearchService staffNameSearchService;
+
+    private Patient patient;
+    private Staff doctor;
+    private Record record;
+
+    @BeforeAll
+    void seed() {
+        new DatasetSeeder(jdbcTemplate).seed(5000);
+        patient = patientRepository.findById(DatasetSeeder.STAFF + 1L).orElseThrow();
+        doctor = staffRepository.findById(1L).orElseThrow();
+
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            records.add(Record.builder()
+                    .patient(patientRepository.getReferenceById(DatasetSeeder.STAFF + 1L + i % 100))
+                    .doctor(staffRepository.getReferenceById(1L + i % 10))
+                    .reason("Check-up")
+                    .diagnosis("Malaria")
+                    .build());
+        }
+        recordRepository.saveAll(records);
+        record = records.get(0);
+
+        List<LabTest> tests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tests.add(LabTest.builder()
+                    .record(records.get(i % records.size()))
+                    .build());
+        }
+        labTestRepository.saveAll(tests);
+
+        // Names are searched from memory on H2, the index was built before the staff existed
+        staffNameSearchService.build();
+
+        // Gives the planner row counts and selectivity, as autovacuum would on PostgreSQL
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> listQueriesUseIndexes() {
+        Map<String, Runnable> queries = Map.ofEntries(
+                Map.entry("appointments", () -> appointmentRepository.findBy(FIRST)),
+                Map.entry("appointments by doctor", () -> appointmentRepository.findByDoctor(doctor.getId(), FIRST)),
+                Map.entry("appointments by patient", () -> appointmentRepository.findByPatient(patient.getId(), FIRST)),
+                Map.entry("appointments by date", () -> appointmentRepository.findByCreatedAtBetween(
+                        START, END, PageRequest.of(0, 10))),
+                Map.entry("appointments by receptionist", () -> appointmentRepository
+                        .findByCreatedAtBetweenAndReceptionist_Id(START, END, doctor.getId(), Pageable.unpaged())),
+                Map.entry("billings by patient", () -> billingRepository.findByPatient(patient, NEWEST)),
+                Map.entry("billings by date", () -> billingRepository.findByCreatedAtBetween(START, END, NEWEST)),
+                Map.entry("billings by status", () -> billingRepository.findByStatus(PaymentStatus.PENDING, NEWEST)),
+                Map.entry("billings by method", () -> billingRepository.findByPaymentMethod("cash", NEWEST)),
+                Map.entry("records by patient", () -> recordRepository.findByPatient(patient.getId(), FIRST)),
+                Map.entry("records by doctor", () -> recordRepository.findByDoctor(doctor.getId(), FIRST)),
+                Map.entry("records by date", () -> recordRepository.findByCreatedAtBetween(START, END, FIRST)),
+                Map.entry("lab tests by record", () -> labTestRepository.findAllByRecord(record)),
+                Map.entry("lab tests by date", () -> labTestRepository.findByCreatedAtBetween(START, END, NEWEST)),
+                Map.entry("latest logs", () -> logRepository.findByTimeAfterOrderByTimeDesc(START, NEXT)),
+                Map.entry("logs by staff", () -> logRepository.findByStaff_IdAndTimeAfterOrderByTimeDesc(
+                        doctor.getId(), START, NEXT)),
+                Map.entry("staff by role", () -> staffRepository.findByRole(Role.PHARMACIST, PageRequest.of(0, 10))),
+                Map.entry("staff by status", () -> staffRepository.findByStatus(StaffStatus.OFF, PageRequest.of(0, 10))),
+                Map.entry("staff by name", () -> staffNameSearchService.search("member 12", null, null,
+                        PageRequest.of(0, 10, Sort.by("lastLogin").descending()))),
+                Map.entry("staff by name and role", () -> staffNameSearchService.search("member 12", Role.DOCTOR, null,
+                        PageRequest.of(0, 10))),
+                Map.entry("patients", () -> patientRepository.findBy(FIRST)),
+                Map.entry("patients after cursor", () -> patientRepository.findNext(START, Long.MAX_VALUE, NEXT)),
+                Map.entry("appointments after cursor", () -> appointmentRepository.findNext(START, Long.MAX_VALUE, NEXT)),
+                Map.entry("appointments by doctor after cursor", () -> appointmentRepository.findNextByDoctor(
+                        doctor.getId(), START, Long.MAX_VALUE, NEXT)),
+                Map.entry("billings by status after cursor", () -> billingRepository.findNextByStatus(
+                        PaymentStatus.PENDING, START, Long.MAX_VALUE, NEXT)),
+                Map.entry("records by patient after cursor", () -> recordRepository.findNextByPatient(
+                        patient.getId(), END, Long.MAX_VALUE, NEXT)),
+                Map.entry("lab tests by date after cursor", () -> labTestRepository.findNextByCreatedAtBetween(
+                        START, END, END, Long.MAX_VALUE, NEXT))
+        );
+
+        return queries.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+                    Recorder.STATEMENTS.clear();
+                    query.getValue().run();
+                    assertFalse(Recorder.STATEMENTS.isEmpty(), query.getKey() + " ran no statements");
+
+                    for (String sql : Recorder.STATEMENTS) {
+                        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+                        // A count over a whole table is answered from the row count, without scanning
+                        boolean scans = plan.contains(".tableScan") && !plan.contains("direct lookup");
+                        assertFalse(scans, query.getKey() + " scans a table:\n" + plan);
+                    }
+                }));
+    }
+
+    /**
+     * Collects the selects Hibernate prepares, so their plans can be explained
+     */
+    public static class Recorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.dto.patient.NewPatient;
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
+import com.softcafe.clinic_system.entities.Gender;
+import com.softcafe.clinic_system.services.PatientSearchService;
+import com.softcafe.clinic_system.services.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Searches the seeded patients by name, phone and insurance number, with and without typos, and follows the
+ * patients added, renamed and removed afterwards
+ */
+class PatientSearchTests extends SeededContextTests {
+    @Autowired
+    private PatientSearchService patientSearchService;
+    @Autowired
+    private PatientService patientService;
+
+    @Test
+    void ranksExactWordsFirst() throws Exception {
+        mockMvc.perform(get("/api/patient/search").param("q", "Patient Number 12").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(FIRST_PATIENT + 11))
+                .andExpect(jsonPath("$[0].fullName").value("Patient Number 12"));
+    }
+
+    @Test
+    void matchesPrefixesAndTypos() {
+        List<PatientMatch> prefixed = patientSearchService.search("pat num 5", 10);
+        assertEquals("Patient Number 5", prefixed.get(0).fullName());
+        assertTrue(prefixed.stream().allMatch(match -> match.fullName().startsWith("Patient Number 5")));
+
+        assertEquals("Patient Number 7", patientSearchService.search("Patinet Numbr 7", 10).get(0).fullName());
+        assertEquals(List.of(), patientSearchService.search("Doctor 7", 10));
+    }
+
+    @Test
+    void findsPhoneAndInsuranceNumbers() {
+        assertEquals(FIRST_PATIENT + 41, patientSearchService.search("INS42", 5).get(0).id());
+        assertEquals(FIRST_PATIENT + 41, patientSearchService.search("07200000042", 5).get(0).id());
+    }
+
+    @Test
+    void followsAddedRenamedAndRemovedPatients() {
+        PatientDto added = patientService.addPatient(newPatient("Wanjiru Kamau"));
+        assertEquals(added.id(), patientSearchService.search("wanjiru", 5).get(0).id());
+
+        patientService.update(added.id(), newPatient("Akinyi Otieno"));
+        assertEquals(List.of(), patientSearchService.search("wanjiru", 5));
+        assertEquals(added.id(), patientSearchService.search("akinyi otieno", 5).get(0).id());
+
+        patientService.remove(added.id());
+        assertEquals(List.of(), patientSearchService.search("akinyi", 5));
+    }
+
+    @Test
+    void rejectsBlankQueries() throws Exception {
+        mockMvc.perform(get("/api/patient/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/patient/search").param("q", "patient").param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static NewPatient newPatient(String name) {
+        return new NewPatient(name, "search.patient@example.com", "0799000001", "S-1", "Nairobi", LocalDate.of(1990, 1, 1), Gender.FEMALE,
+                "0799000002", "Next Of Kin", "SHIF", "S-INS-1", null);
+    }
+}
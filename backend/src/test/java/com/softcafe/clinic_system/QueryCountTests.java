@@ -0,0 +1,126 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.benchmark.DatasetSeeder;
+import com.softcafe.clinic_system.entities.LabTest;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.repositories.LabTestRepository;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Locks in the fetch plans of the list endpoints: a page must not issue a query per row
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTests {
+    private static final String RANGE = "start=2000-01-01T00:00:00&end=2100-01-01T00:00:00";
+    private static final int PATIENT = DatasetSeeder.STAFF + 1;
+    private static final int MAX_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private RecordRepository recordRepository;
+    @Autowired
+    private LabTestRepository labTestRepository;
+
+    @BeforeAll
+    void seed() {
+        new DatasetSeeder(jdbcTemplate).seed(1000);
+
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(Record.builder()
+                    .patient(patientRepository.findById((long) PATIENT + i % 2).orElseThrow())
+                    .doctor(staffRepository.findById(1L + i % 2).orElseThrow())
+                    .reason("Check-up")
+                    .symptoms(List.of("fever", "headache"))
+                    .diagnosis("Malaria")
+                    .treatment(List.of("artemether"))
+                    .notes(List.of("Review in a week"))
+                    .build());
+        }
+        recordRepository.saveAll(records);
+
+        // Every test belongs to the first record, so its list has more than one page of rows
+        List<LabTest> tests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tests.add(LabTest.builder()
+                    .record(records.get(0))
+                    .investigations(List.of("blood test"))
+                    .findings(List.of("plasmodium present"))
+                    .build());
+        }
+        labTestRepository.saveAll(tests);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/appointment?page=1",
+            "/api/appointment/date/1?" + RANGE,
+            "/api/appointment/doctor/1/page/1",
+            "/api/appointment/patient/" + PATIENT + "/page/1",
+            "/api/billing?page=1&" + RANGE,
+            "/api/billing/patient?page=1&id=" + PATIENT,
+            "/api/billing/status?status=PAID&page=1",
+            "/api/billing/method?status=cash&page=1",
+            "/api/record/patient/" + PATIENT + "?page=1",
+            "/api/record/doctor/1?page=1",
+            "/api/record/date?page=1&" + RANGE,
+            "/api/test/record/1",
+            "/api/test?page=1&" + RANGE,
+            "/api/patient/page/1?cursor=",
+            "/api/appointment?cursor=",
+            "/api/appointment/doctor/1/page/1?cursor=",
+            "/api/billing/patient?cursor=&id=" + PATIENT,
+            "/api/record/doctor/1?cursor=",
+            "/api/test?cursor=&" + RANGE,
+            "/api/patient/page/1?mode=SLICE",
+            "/api/appointment?page=1&mode=SLICE",
+            "/api/billing/status?status=PAID&page=1&mode=SLICE",
+            "/api/record/doctor/1?page=1&mode=SLICE",
+            "/api/staff/page/1?mode=SLICE"
+    })
+    void listEndpointRunsFixedNumberOfStatements(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS, url + " ran " + statements + " statements");
+    }
+}
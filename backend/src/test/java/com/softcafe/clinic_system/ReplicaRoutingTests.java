@@ -0,0 +1,164 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.benchmark.DatasetSeeder;
+import com.softcafe.clinic_system.config.RecordSequenceMigration;
+import com.softcafe.clinic_system.config.ReplicaRoutingDataSource;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.services.ReplicaLagService;
+import com.softcafe.clinic_system.services.RollupService;
+import com.softcafe.clinic_system.services.StaffService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routes between two in-memory databases standing in for the primary and its replica. The replica only gets the
+ * schema, so a read that returns rows was served by the primary
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=" + ReplicaRoutingTests.REPLICA_URL,
+        "app.datasource.replica.username=sa"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+    private static final String PATIENTS = "/api/patient/page/1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+    @Autowired
+    private ReplicaLagService replicaLagService;
+    @Autowired
+    private StaffService staffService;
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RollupService rollupService;
+
+    @BeforeAll
+    void seed() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .placeholders(Map.of("json_type", "json", "binary_type", "varbinary"))
+                .javaMigrations(new RecordSequenceMigration())
+                .load()
+                .migrate();
+
+        new DatasetSeeder(jdbcTemplate).seed(100);
+        replicaLagService.measure();
+    }
+
+    @Test
+    void listsAreReadFromTheReplica() throws Exception {
+        mockMvc.perform(get(PATIENTS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients", empty()));
+    }
+
+    @Test
+    void writesPinTheSessionToThePrimary() throws Exception {
+        Cookie pin = mockMvc.perform(post("/api/patient").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andReturn().getResponse().getCookie("primary-pin");
+        assertNotNull(pin);
+
+        mockMvc.perform(get(PATIENTS).cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients", not(empty())));
+    }
+
+    @Test
+    void expiredPinsReadTheReplica() throws Exception {
+        Cookie pin = new Cookie("primary-pin", Long.toString(System.currentTimeMillis() - 60_000));
+
+        mockMvc.perform(get(PATIENTS).cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients", empty()));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() throws Exception {
+        routingDataSource.setReplicaUsable(false);
+
+        try {
+            mockMvc.perform(get(PATIENTS))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.patients", not(empty())));
+        } finally {
+            replicaLagService.measure();
+        }
+    }
+
+    @Test
+    void replicaReadsLeaveTheCacheAlone() {
+        // The replica still holds an older version of a doctor on duty
+        Map<String, Object> doctor = new HashMap<>(jdbcTemplate.queryForMap("SELECT * FROM staff WHERE id = 1"));
+        String name = (String) doctor.get("FULL_NAME");
+        doctor.put("FULL_NAME", "Outdated Name");
+        doctor.put("STATUS", "ON_DUTY");
+        NamedParameterJdbcTemplate replica = new NamedParameterJdbcTemplate(routingDataSource.getReplica());
+        replica.update("INSERT INTO staff (" + String.join(", ", doctor.keySet()) + ") VALUES (:" +
+                String.join(", :", doctor.keySet()) + ")", doctor);
+        entityManagerFactory.getCache().evict(Staff.class);
+
+        try {
+            assertEquals("Outdated Name", staffService.getDoctorOnDuty().staffList().getFirst().fullName());
+            assertEquals(name, staffRepository.findById(1L).orElseThrow().getFullName());
+        } finally {
+            replica.getJdbcTemplate().update("DELETE FROM staff");
+        }
+    }
+
+    @Test
+    void reportShardsAreReadFromTheReplica() throws Exception {
+        // Only the primary holds a year of rolled up appointments, read in shards on the report pool
+        rollupService.rebuild();
+        LocalDate today = LocalDate.now();
+
+        mockMvc.perform(get("/api/report/manager")
+                        .param("start", today.minusDays(400).atStartOfDay().toString())
+                        .param("end", today.minusDays(1).atTime(23, 59, 59).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments.total").value(0));
+    }
+
+    @Test
+    void exposesReplicaLag() throws Exception {
+        mockMvc.perform(get("/api/statistics/replica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.serving").value(true))
+                .andExpect(jsonPath("$.lagMillis").value(0));
+    }
+}
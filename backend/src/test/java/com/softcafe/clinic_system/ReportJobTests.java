@@ -0,0 +1,115 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.entities.JobStatus;
+import com.softcafe.clinic_system.entities.ReportJob;
+import com.softcafe.clinic_system.repositories.ReportJobRepository;
+import com.softcafe.clinic_system.services.ReportJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Takes over the report jobs whose instance stopped renewing its claim, while leaving the jobs other instances are
+ * still running alone
+ */
+class ReportJobTests extends SeededContextTests {
+    @Autowired
+    private ReportJobService reportJobService;
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Test
+    void resumesOnlyAbandonedJobs() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob live = reportJobRepository.save(job("test:live", JobStatus.RUNNING, "other", now));
+        ReportJob abandoned = reportJobRepository.save(job("test:abandoned", JobStatus.RUNNING, "crashed",
+                now.minusHours(1)));
+
+        try {
+            reportJobService.resume();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (reportJobRepository.findById(abandoned.getId()).orElseThrow().getStatus() != JobStatus.COMPLETE) {
+                if (System.currentTimeMillis() > deadline) {
+                    fail("The abandoned job wasn't resumed");
+                }
+                Thread.sleep(50);
+            }
+
+            ReportJob untouched = reportJobRepository.findById(live.getId()).orElseThrow();
+            assertEquals(JobStatus.RUNNING, untouched.getStatus());
+            assertEquals("other", untouched.getClaimedBy());
+        } finally {
+            reportJobRepository.deleteAllById(List.of(live.getId(), abandoned.getId()));
+        }
+    }
+
+    @Test
+    void leavesJobsTakenOverByAnotherInstanceAlone() {
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob taken = reportJobRepository.save(job("test:taken", JobStatus.QUEUED, "other", now));
+
+        try {
+            // What the instance that first held the claim still tries once it was taken over
+            assertEquals(0, reportJobRepository.start(taken.getId(), "stale", now));
+            assertEquals(0, reportJobRepository.progress(taken.getId(), "stale", 50));
+            assertEquals(0, reportJobRepository.complete(taken.getId(), "stale", "{}", now));
+            assertEquals(0, reportJobRepository.fail(taken.getId(), "stale", "Failed", now));
+
+            ReportJob untouched = reportJobRepository.findById(taken.getId()).orElseThrow();
+            assertEquals(JobStatus.QUEUED, untouched.getStatus());
+            assertEquals(0, untouched.getProgress());
+            assertNull(untouched.getResult());
+
+            assertEquals(1, reportJobRepository.complete(taken.getId(), "other", "{}", now));
+        } finally {
+            reportJobRepository.deleteById(taken.getId());
+        }
+    }
+
+    @Test
+    void hidesWhyAReportFailed() throws Exception {
+        ReportJob failed = job("test:hidden", JobStatus.FAILED, null, null);
+        failed.setError("ERROR: relation \"rollups\" does not exist");
+        ReportJob saved = reportJobRepository.save(failed);
+
+        try {
+            mockMvc.perform(get("/api/report/jobs/{id}/result", saved.getId()))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.message").value("The report couldn't be generated, submit it again!"));
+        } finally {
+            reportJobRepository.delete(saved);
+        }
+    }
+
+    @Test
+    void keepsLongFailureMessages() {
+        String error = "could not execute statement ".repeat(40);
+        ReportJob failed = job("test:failed", JobStatus.FAILED, null, null);
+        failed.setError(error);
+
+        ReportJob saved = reportJobRepository.save(failed);
+        assertEquals(error, reportJobRepository.findById(saved.getId()).orElseThrow().getError());
+        reportJobRepository.delete(saved);
+    }
+
+    private static ReportJob job(String requestKey, JobStatus status, String claimedBy, LocalDateTime heartbeatAt) {
+        return ReportJob.builder()
+                .requestKey(requestKey)
+                .start(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .end(LocalDateTime.of(2024, 2, 29, 23, 59))
+                .status(status)
+                .claimedBy(claimedBy)
+                .heartbeatAt(heartbeatAt)
+                .build();
+    }
+}
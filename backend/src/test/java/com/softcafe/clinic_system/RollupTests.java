@@ -0,0 +1,63 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.services.RollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keeps the rollups of archived months through rebuilds, as they are all that's left of those months' rows
+ */
+class RollupTests extends SeededContextTests {
+    private static final LocalDate ARCHIVED_DAY = LocalDate.of(2020, 1, 15);
+    private static final long APPOINTMENT = 900_001;
+    private static final long BILLING = 900_001;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Test
+    void rebuildKeepsArchivedMonths() {
+        jdbcTemplate.update("INSERT INTO appointments (id, status, created_at, updated_at, doctor_id, patient_id, " +
+                "receptionist_id) VALUES (?, 0, ?, ?, NULL, ?, 1)", APPOINTMENT, ARCHIVED_DAY.atTime(10, 0),
+                ARCHIVED_DAY.atTime(10, 0), FIRST_PATIENT);
+        jdbcTemplate.update("INSERT INTO billings (id, status, payment_method, total_amount, amount_paid, created_at, " +
+                "updated_at, patient_id) VALUES (?, 'PAID', 'cash', 40, 40, ?, ?, ?)", BILLING,
+                ARCHIVED_DAY.atTime(11, 0), ARCHIVED_DAY.atTime(11, 0), FIRST_PATIENT);
+
+        try {
+            rollupService.rebuild();
+            assertEquals(1, archivedAppointments());
+            assertEquals(40.0, archivedRevenue());
+
+            // What archiving January 2020 does to both tables
+            rollupService.archived("appointments", LocalDate.of(2020, 2, 1));
+            rollupService.archived("billings", LocalDate.of(2020, 2, 1));
+            jdbcTemplate.update("DELETE FROM appointments WHERE id = ?", APPOINTMENT);
+            jdbcTemplate.update("DELETE FROM billings WHERE id = ?", BILLING);
+
+            rollupService.rebuild();
+            assertEquals(1, archivedAppointments());
+            assertEquals(40.0, archivedRevenue());
+            assertEquals(0, rollupService.reconcile());
+        } finally {
+            jdbcTemplate.update("DELETE FROM appointments WHERE id = ?", APPOINTMENT);
+            jdbcTemplate.update("DELETE FROM billings WHERE id = ?", BILLING);
+            jdbcTemplate.update("DELETE FROM archive_watermarks");
+            rollupService.rebuild();
+        }
+    }
+
+    private Long archivedAppointments() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(total), 0) FROM appointment_rollups " +
+                "WHERE rollup_date = ?", Long.class, ARCHIVED_DAY);
+    }
+
+    private Double archivedRevenue() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(paid), 0) FROM revenue_rollups " +
+                "WHERE rollup_date = ?", Double.class, ARCHIVED_DAY);
+    }
+}
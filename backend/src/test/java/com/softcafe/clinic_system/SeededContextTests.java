@@ -0,0 +1,57 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.benchmark.DatasetSeeder;
+import com.softcafe.clinic_system.services.IdentifierLookupService;
+import com.softcafe.clinic_system.services.PatientSearchService;
+import com.softcafe.clinic_system.services.StaffNameSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * One application context and in-memory database shared by the test classes that extend it, so it boots once.
+ * The database holds the staff and patients of {@link DatasetSeeder} and no appointments; the tests add what they
+ * need through the services and leave the seeded rows as they found them
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seeded;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class SeededContextTests {
+    protected static final long FIRST_PATIENT = DatasetSeeder.STAFF + 1;
+
+    @Autowired
+    protected MockMvc mockMvc;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PatientSearchService patientSearchService;
+    @Autowired
+    private StaffNameSearchService staffNameSearchService;
+    @Autowired
+    private IdentifierLookupService identifierLookupService;
+
+    @BeforeAll
+    void seedOnce() {
+        synchronized (SeededContextTests.class) {
+            if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM staff", Long.class) > 0) {
+                return;
+            }
+
+            new DatasetSeeder(jdbcTemplate).seed(0);
+            // The seeder writes ids without moving the sequence
+            jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH 100000");
+            // The in-memory indexes were built on startup, before the seeded users existed
+            patientSearchService.build();
+            staffNameSearchService.build();
+            identifierLookupService.build();
+        }
+    }
+}
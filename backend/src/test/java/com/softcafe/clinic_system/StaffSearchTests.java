@@ -0,0 +1,109 @@
+package com.softcafe.clinic_system;
+
+import com.softcafe.clinic_system.dto.staff.NewStaff;
+import com.softcafe.clinic_system.dto.staff.StaffData;
+import com.softcafe.clinic_system.entities.Gender;
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.services.StaffNameSearchService;
+import com.softcafe.clinic_system.services.StaffService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches staff by parts of their names through the in-memory trigram index and checks every answer against the
+ * plain LIKE query it replaces, with the role and status filters and the sorts the staff list offers
+ */
+class StaffSearchTests extends SeededContextTests {
+    private static final List<Pageable> PAGES = List.of(
+            PageRequest.of(0, 10),
+            PageRequest.of(1, 10, Sort.by("createdAt").ascending()),
+            PageRequest.of(0, 10, Sort.by("lastLogin").descending())
+    );
+
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private StaffNameSearchService staffNameSearchService;
+    @Autowired
+    private StaffService staffService;
+
+    @Test
+    void matchesTheLikeQuery() {
+        for (String value : List.of("member 1", "MEMBER 12", "ber 19", "staff", "f m", "ff member 20", "nobody")) {
+            for (Pageable pageable : PAGES) {
+                assertSame(staffRepository.findByNameLike(like(value), pageable),
+                        staffNameSearchService.search(value, null, null, pageable), value);
+                assertSame(staffRepository.findByNameLikeAndRole(like(value), Role.DOCTOR, pageable),
+                        staffNameSearchService.search(value, Role.DOCTOR, null, pageable), value);
+                assertSame(staffRepository.findByNameLikeAndStatus(like(value), StaffStatus.ON_DUTY, pageable),
+                        staffNameSearchService.search(value, null, StaffStatus.ON_DUTY, pageable), value);
+            }
+        }
+    }
+
+    @Test
+    void filtersAndSortsThroughTheStaffList() {
+        // Staff i joined i days ago, the first 20 are doctors and the others have random roles
+        List<StaffData> doctors = staffService.searchSortAndFilter("name", "member 12", "DOCTOR", "ascendingDate", 1)
+                .staffList();
+        assertTrue(doctors.stream().allMatch(doctor -> doctor.role() == Role.DOCTOR));
+        assertEquals(12L, doctors.get(doctors.size() - 1).id());
+        assertTrue(doctors.stream().allMatch(doctor -> doctor.fullName().contains("Member 12")));
+
+        // The newest logins come first, staff i logged in i hours ago
+        assertEquals(List.of(1L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L),
+                staffService.searchSortAndFilter("name", "member 1", null, "lastLogin", 1)
+                        .staffList().stream().map(StaffData::id).toList());
+    }
+
+    @Test
+    void treatsWildcardsAsText() {
+        assertEquals(0, staffNameSearchService.search("%", null, null, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, staffNameSearchService.search("staff_member", null, null, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void followsAddedRenamedAndRemovedStaff() {
+        StaffData added = staffService.addStaff(newStaff("Wanjiru Kamau"));
+        assertEquals(List.of(added.id()), ids(staffNameSearchService.search("anjir", null, null, PageRequest.of(0, 10))));
+
+        staffService.update(added.id(), newStaff("Akinyi Otieno"), "Password1!");
+        assertEquals(List.of(), ids(staffNameSearchService.search("anjir", null, null, PageRequest.of(0, 10))));
+        assertEquals(List.of(added.id()), ids(staffNameSearchService.search("yi ot", null, null, PageRequest.of(0, 10))));
+
+        staffService.delete(added.id());
+        assertEquals(List.of(), ids(staffNameSearchService.search("yi ot", null, null, PageRequest.of(0, 10))));
+    }
+
+    private static void assertSame(Page<Staff> expected, Page<Staff> actual, String value) {
+        assertEquals(ids(expected), ids(actual), value);
+        assertEquals(expected.getTotalElements(), actual.getTotalElements(), value);
+    }
+
+    private static List<Long> ids(Page<Staff> page) {
+        return page.getContent().stream().map(Staff::getId).toList();
+    }
+
+    private static String like(String value) {
+        return "%" + value.toLowerCase() + "%";
+    }
+
+    private static NewStaff newStaff(String name) {
+        return new NewStaff(name, "search.staff@example.com", "0799000101", "S-SEARCH-1", "Nairobi",
+                LocalDate.of(1990, 1, 1), Gender.FEMALE, null, "search.staff", "Password1!", StaffStatus.ON_DUTY,
+                Role.NURSE, null);
+    }
+}
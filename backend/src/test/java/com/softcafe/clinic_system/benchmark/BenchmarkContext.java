@@ -0,0 +1,58 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.ClinicSystemApplication;
+import com.softcafe.clinic_system.services.AppointmentCounterService;
+import com.softcafe.clinic_system.services.RollupService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts the application against an in-memory H2 database seeded with {@code appointments} appointments
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    @Param({"10000"})
+    public int appointments;
+
+    public int patients;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ClinicSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.profiles.active=benchmark",
+                        "--app.cors.allowed-origin=http://localhost",
+                        "--app.search.index-dir=target/search-index/${random.uuid}",
+                        "--logging.level.root=WARN"
+                );
+
+        patients = new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(appointments);
+
+        // The rollups and counters are normally built on startup, before the data existed
+        context.getBean(RollupService.class).rebuild();
+        context.getBean(AppointmentCounterService.class).seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
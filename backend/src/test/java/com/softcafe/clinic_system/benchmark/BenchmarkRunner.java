@@ -0,0 +1,56 @@
+package com.softcafe.clinic_system.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks in this package and writes the results as JSON.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbench.appointments=10000,100000 -Dbench.result=target/jmh-result.json}
+ * <p>
+ * JMH options can be passed through {@code -Dbench.jmh}, e.g. {@code -Dbench.jmh="-wi 1 -i 2 ReportBenchmark"}.
+ * Forks and iterations default to the annotations on the benchmark classes
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        List<String> arguments = new ArrayList<>();
+        String jmhOptions = System.getProperty("bench.jmh", "");
+
+        if (!jmhOptions.isBlank()) {
+            arguments.addAll(Arrays.asList(jmhOptions.trim().split("\\s+")));
+        }
+        arguments.addAll(Arrays.asList(args));
+
+        CommandLineOptions commandLine = new CommandLineOptions(arguments.toArray(String[]::new));
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+
+        if (!commandLine.getParameter("appointments").hasValue()) {
+            options.param("appointments", System.getProperty("bench.appointments", "10000").split(","));
+        }
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        if (!commandLine.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(System.getProperty("bench.result", "target/jmh-result.json"));
+        }
+
+        new Runner(options.build()).run();
+    }
+}
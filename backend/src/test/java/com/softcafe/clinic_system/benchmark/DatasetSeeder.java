@@ -0,0 +1,168 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.entities.AppointmentStatus;
+import com.softcafe.clinic_system.entities.PaymentStatus;
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty database with a synthetic clinic. Rows are written with plain JDBC batches and explicit
+ * primary keys, so the seeded tables must only be read afterwards
+ */
+public class DatasetSeeder {
+    static final int DOCTORS = 20;
+    static final int RECEPTIONISTS = 10;
+    static final int OTHER_STAFF = 170;
+    public static final int STAFF = DOCTORS + RECEPTIONISTS + OTHER_STAFF;
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] METHODS = {"cash", "card", "mpesa", "insurance"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Seeds staff, patients and a year of appointments, billings and logs
+     *
+     * @param appointments Number of appointments, one billing is written per appointment
+     * @return Number of patients written
+     */
+    public int seed(int appointments) {
+        int patients = Math.max(100, appointments / 10);
+        LocalDateTime now = LocalDateTime.now();
+
+        seedStaff(now);
+        seedPatients(patients, now);
+        seedAppointments(appointments, patients, now);
+        seedLogs(appointments / 10, now);
+
+        return patients;
+    }
+
+    /**
+     * Doctors get the first ids, receptionists the next ones
+     */
+    private void seedStaff(LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= STAFF; i++) {
+            Role role = i <= DOCTORS ? Role.DOCTOR : i <= DOCTORS + RECEPTIONISTS ? Role.RECEPTIONIST :
+                    Role.values()[random.nextInt(Role.values().length)];
+
+            rows.add(new Object[]{
+                    (long) i, "Staff Member " + i, "staff" + i + "@example.com", phone(1, i), "S" + i, "Nairobi",
+                    LocalDate.of(1980, 1, 1).plusDays(i), "FEMALE", Timestamp.valueOf(now.minusDays(i)),
+                    Timestamp.valueOf(now), "staff" + i, "password", StaffStatus.values()[i % StaffStatus.values().length].name(),
+                    role.ordinal(), Timestamp.valueOf(now.minusHours(i))
+            });
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO staff (id, full_name, email_address, phone_number, national_id_number, " +
+                "address, date_of_birth, gender, created_at, updated_at, username, password, status, role, last_login) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Patients get the ids after the staff, both draw from the same users sequence
+     */
+    private void seedPatients(int patients, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 1; i <= patients; i++) {
+            rows.add(new Object[]{
+                    (long) STAFF + i, "Patient Number " + i, "patient" + i + "@example.com", phone(2, i), "P" + i, "Nairobi",
+                    LocalDate.of(1950, 1, 1).plusDays(i % 20000), i % 2 == 0 ? "MALE" : "FEMALE",
+                    Timestamp.valueOf(now.minusMinutes(i)), Timestamp.valueOf(now), phone(3, i), "Next Of Kin " + i,
+                    "SHIF", "INS" + i
+            });
+            flush(rows, "INSERT INTO patients (id, full_name, email_address, phone_number, national_id_number, address, " +
+                    "date_of_birth, gender, created_at, updated_at, emergency_contact, emergency_name, insurance_provider, " +
+                    "insurance_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", i == patients);
+        }
+    }
+
+    /**
+     * Spreads the appointments and their billings over the last year
+     */
+    private void seedAppointments(int appointments, int patients, LocalDateTime now) {
+        List<Object[]> appointmentRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> billingRows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 1; i <= appointments; i++) {
+            boolean last = i == appointments;
+            Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(random.nextInt(365 * 24 * 3600)));
+            long patientId = STAFF + 1 + random.nextInt(patients);
+            Long doctorId = random.nextInt(10) == 0 ? null : 1L + random.nextInt(DOCTORS);
+
+            appointmentRows.add(new Object[]{
+                    (long) i, patientId, doctorId, (long) DOCTORS + 1 + random.nextInt(RECEPTIONISTS),
+                    AppointmentStatus.values()[random.nextInt(AppointmentStatus.values().length)].ordinal(), createdAt, createdAt
+            });
+
+            double consultation = 500 + random.nextInt(20) * 100;
+            double pharmacy = random.nextInt(50) * 100;
+            PaymentStatus status = PaymentStatus.values()[random.nextInt(PaymentStatus.values().length)];
+            double paid = switch (status) {
+                case PAID -> consultation + pharmacy;
+                case PARTIALLY_PAID -> consultation;
+                default -> 0;
+            };
+
+            billingRows.add(new Object[]{
+                    (long) i, (long) i, patientId, consultation + pharmacy, METHODS[random.nextInt(METHODS.length)], paid,
+                    status.name(), createdAt, createdAt,
+                    "{\"consultation\": " + consultation + ", \"pharmacy\": " + pharmacy + "}"
+            });
+
+            if (flush(appointmentRows, "INSERT INTO appointments (id, patient_id, doctor_id, receptionist_id, status, " +
+                    "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", last)) {
+                flush(billingRows, "INSERT INTO billings (id, appointment_id, patient_id, total_amount, payment_method, " +
+                        "amount_paid, status, created_at, updated_at, bills) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ? FORMAT JSON)", true);
+            }
+        }
+    }
+
+    private void seedLogs(int logs, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 1; i <= logs; i++) {
+            rows.add(new Object[]{
+                    (long) i, 1L + random.nextInt(STAFF), "Logged in",
+                    Timestamp.valueOf(now.minusSeconds(random.nextInt(365 * 24 * 3600)))
+            });
+            flush(rows, "INSERT INTO logs (id, staff_id, action, time) VALUES (?, ?, ?, ?)", i == logs);
+        }
+    }
+
+    /**
+     * Writes the pending rows once a batch is full
+     *
+     * @return true if the rows were written
+     */
+    private boolean flush(List<Object[]> rows, String sql, boolean force) {
+        if (rows.isEmpty() || (!force && rows.size() < BATCH_SIZE)) {
+            return false;
+        }
+
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+        return true;
+    }
+
+    /**
+     * Builds a unique, valid phone number
+     */
+    public static String phone(int prefix, int i) {
+        return String.format("07%d%08d", prefix, i);
+    }
+}
@@ -0,0 +1,53 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.staff.ListOfStaff;
+import com.softcafe.clinic_system.services.IdentifierLookupService;
+import com.softcafe.clinic_system.services.PatientService;
+import com.softcafe.clinic_system.services.StaffService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LookupBenchmark {
+    private StaffService staffService;
+    private PatientService patientService;
+    private int patients;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        staffService = context.bean(StaffService.class);
+        patientService = context.bean(PatientService.class);
+        patients = context.patients;
+
+        // The identifier index was built on startup, before the dataset was seeded
+        context.bean(IdentifierLookupService.class).build();
+    }
+
+    @Benchmark
+    public ListOfStaff staffByName() {
+        return staffService.searchSortAndFilter("name", "member 1", null, "lastLogin", 1);
+    }
+
+    @Benchmark
+    public ListOfStaff staffByRole() {
+        return staffService.searchSortAndFilter(null, null, "DOCTOR", "ascendingDate", 1);
+    }
+
+    @Benchmark
+    public PatientDto patientByEmail() {
+        return patientService.get("patient" + (1 + ThreadLocalRandom.current().nextInt(patients)) + "@example.com", null, null, null);
+    }
+
+    @Benchmark
+    public PatientDto patientByPhone() {
+        return patientService.get(null, DatasetSeeder.phone(2, 1 + ThreadLocalRandom.current().nextInt(patients)), null, null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.appointment.AppointmentData;
+import com.softcafe.clinic_system.dto.billing.BillingData;
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.staff.StaffData;
+import com.softcafe.clinic_system.entities.*;
+import com.softcafe.clinic_system.utils.AppointmentUtil;
+import com.softcafe.clinic_system.utils.BillingUtil;
+import com.softcafe.clinic_system.utils.PatientUtil;
+import com.softcafe.clinic_system.utils.StaffUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity to DTO mappers on detached entities, without any database access
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+    private Staff doctor;
+    private Patient patient;
+    private Appointment appointment;
+    private Billing billing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        doctor = Staff.builder().id(1L).fullName("Staff Member 1").email("staff1@example.com").phone(DatasetSeeder.phone(1, 1))
+                .nationalId("S1").address("Nairobi").dateOfBirth(LocalDate.of(1980, 1, 1)).gender(Gender.FEMALE)
+                .username("staff1").password("password").role(Role.DOCTOR).status(StaffStatus.ON_DUTY).lastLogin(now)
+                .createdAt(now).updatedAt(now).build();
+        Staff receptionist = Staff.builder().id(2L).fullName("Staff Member 2").email("staff2@example.com")
+                .phone(DatasetSeeder.phone(1, 2)).nationalId("S2").address("Nairobi").dateOfBirth(LocalDate.of(1980, 1, 2))
+                .gender(Gender.MALE).username("staff2").password("password").role(Role.RECEPTIONIST)
+                .status(StaffStatus.ON_DUTY).lastLogin(now).createdAt(now).updatedAt(now).build();
+        patient = Patient.builder().id(1L).fullName("Patient Number 1").email("patient1@example.com")
+                .phone(DatasetSeeder.phone(2, 1)).nationalId("P1").address("Nairobi").dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(Gender.MALE).emergencyContact(DatasetSeeder.phone(3, 1)).emergencyName("Next Of Kin 1")
+                .insuranceProvider("SHIF").insuranceNumber("INS1").createdAt(now).updatedAt(now).build();
+        appointment = Appointment.builder().id(1L).patient(patient).doctor(doctor).receptionist(receptionist)
+                .status(AppointmentStatus.PENDING).createdAt(now).updatedAt(now).build();
+        billing = Billing.builder().id(1L).appointment(appointment).patient(patient)
+                .bills(new HashMap<>(Map.of("consultation", 1500.0, "pharmacy", 2300.0))).totalAmount(3800)
+                .paymentMethod("cash").amountPaid(1500).status(PaymentStatus.PARTIALLY_PAID).createdAt(now).updatedAt(now).build();
+    }
+
+    @Benchmark
+    public StaffData staff() {
+        return StaffUtil.toDto(doctor);
+    }
+
+    @Benchmark
+    public PatientDto patient() {
+        return PatientUtil.toDto(patient);
+    }
+
+    @Benchmark
+    public AppointmentData appointment() {
+        return AppointmentUtil.toDto(appointment);
+    }
+
+    @Benchmark
+    public BillingData billing() {
+        return BillingUtil.toDto(billing);
+    }
+}
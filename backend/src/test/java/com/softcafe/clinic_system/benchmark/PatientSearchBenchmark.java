@@ -0,0 +1,91 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.patient.PatientMatch;
+import com.softcafe.clinic_system.utils.PatientSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Builds and queries the patient search index on its own, with names drawn from common first and last names so
+ * most words are shared by thousands of patients.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbench.jmh="PatientSearchBenchmark -p searchPatients=100000,500000"}
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientSearchBenchmark {
+    static final String[] FIRST = {"John", "Mary", "Peter", "Grace", "James", "Faith", "David", "Mercy",
+            "Joseph", "Esther", "Daniel", "Ruth", "Samuel", "Agnes", "Brian", "Joyce", "Kevin", "Wanjiru", "Akinyi",
+            "Otieno", "Kiprono", "Chebet", "Mwangi", "Njeri", "Achieng", "Kamau", "Wafula", "Nafula", "Muthoni", "Omondi"};
+    static final String[] LAST = {"Kamau", "Otieno", "Mwangi", "Ochieng", "Kariuki", "Njoroge", "Wanjala",
+            "Mutua", "Kiplagat", "Cheruiyot", "Onyango", "Maina", "Odhiambo", "Kimani", "Wekesa", "Barasa", "Kipchoge",
+            "Nyambura", "Githinji", "Koech", "Mugo", "Ndungu", "Rotich", "Wambui", "Macharia", "Okoth", "Keter",
+            "Muriuki", "Langat", "Waweru", "Chege", "Ruto", "Kiprotich", "Nduta", "Owino", "Ngugi", "Korir", "Mbugua"};
+
+    @Param({"100000"})
+    public int searchPatients;
+
+    private List<PatientMatch> patients;
+    private PatientSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        patients = LongStream.rangeClosed(1, searchPatients)
+                .mapToObj(id -> new PatientMatch(id,
+                        FIRST[random.nextInt(FIRST.length)] + " " + FIRST[random.nextInt(FIRST.length)] + " " +
+                                LAST[random.nextInt(LAST.length)],
+                        DatasetSeeder.phone(2, (int) id), "INS" + id))
+                .toList();
+        index = PatientSearchIndex.of(patients.stream());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public PatientSearchIndex build() {
+        return PatientSearchIndex.of(patients.stream());
+    }
+
+    @Benchmark
+    public List<PatientMatch> prefix() {
+        return index.search(LAST[ThreadLocalRandom.current().nextInt(LAST.length)].substring(0, 3), 10);
+    }
+
+    @Benchmark
+    public List<PatientMatch> fullName() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.search(FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)], 10);
+    }
+
+    @Benchmark
+    public List<PatientMatch> typo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String last = LAST[random.nextInt(LAST.length)];
+        // Drop a letter from the middle of the last name
+        String typo = last.substring(0, last.length() / 2) + last.substring(last.length() / 2 + 1);
+        return index.search(FIRST[random.nextInt(FIRST.length)].substring(0, 3) + " " + typo, 10);
+    }
+
+    @Benchmark
+    public List<PatientMatch> insuranceNumber() {
+        return index.search("INS" + (1 + ThreadLocalRandom.current().nextInt(searchPatients)), 10);
+    }
+
+    @Benchmark
+    public void update() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(searchPatients);
+        PatientMatch patient = patients.get((int) id - 1);
+        index.put(new PatientMatch(id, patient.fullName(), patient.phone(), "INS" + id));
+    }
+}
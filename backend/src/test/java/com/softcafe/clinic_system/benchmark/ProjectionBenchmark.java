@@ -0,0 +1,100 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.appointment.AppointmentData;
+import com.softcafe.clinic_system.dto.patient.PatientDto;
+import com.softcafe.clinic_system.dto.staff.StaffData;
+import com.softcafe.clinic_system.entities.Appointment;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.repositories.AppointmentRepository;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.utils.AppointmentUtil;
+import com.softcafe.clinic_system.utils.PatientUtil;
+import com.softcafe.clinic_system.utils.StaffUtil;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a list page as managed entities mapped to DTOs against projection queries that build the DTOs
+ * directly. Run with the default GC profiler and compare {@code gc.alloc.rate.norm} for the allocation per page
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectionBenchmark {
+    private static final int PAGE_SIZE = 10;
+    private static final Pageable FIRST = PageRequest.of(0, PAGE_SIZE);
+
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private AppointmentRepository appointmentRepository;
+    private PatientRepository patientRepository;
+    private StaffRepository staffRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        transactionTemplate = context.bean(TransactionTemplate.class);
+        entityManager = context.bean(EntityManager.class);
+        appointmentRepository = context.bean(AppointmentRepository.class);
+        patientRepository = context.bean(PatientRepository.class);
+        staffRepository = context.bean(StaffRepository.class);
+    }
+
+    @Benchmark
+    public List<AppointmentData> appointmentEntities() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                        "SELECT a FROM Appointment a JOIN FETCH a.patient LEFT JOIN FETCH a.doctor " +
+                                "ORDER BY a.createdAt DESC, a.id DESC", Appointment.class)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultStream()
+                .map(AppointmentUtil::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<AppointmentData> appointmentProjection() {
+        return transactionTemplate.execute(status -> appointmentRepository.findBy(FIRST).stream()
+                .map(AppointmentUtil::withoutEmptyDoctor)
+                .toList());
+    }
+
+    @Benchmark
+    public List<PatientDto> patientEntities() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                        "SELECT p FROM Patient p ORDER BY p.createdAt DESC, p.id DESC", Patient.class)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultStream()
+                .map(PatientUtil::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<PatientDto> patientProjection() {
+        return transactionTemplate.execute(status -> patientRepository.findBy(FIRST).getContent());
+    }
+
+    @Benchmark
+    public List<StaffData> staffEntities() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                        "SELECT s FROM Staff s ORDER BY s.id", Staff.class)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultStream()
+                .map(StaffUtil::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<StaffData> staffProjection() {
+        return transactionTemplate.execute(status -> staffRepository.findBy(FIRST).getContent());
+    }
+}
@@ -0,0 +1,40 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.report.manager.ManagerReport;
+import com.softcafe.clinic_system.services.ReportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportBenchmark {
+    private ReportService reportService;
+    private LocalDateTime monthStart;
+    private LocalDateTime yearStart;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        reportService = context.bean(ReportService.class);
+        end = LocalDateTime.now();
+        monthStart = LocalDate.now().minusMonths(1).atStartOfDay();
+        yearStart = LocalDate.now().minusYears(1).atStartOfDay();
+    }
+
+    @Benchmark
+    public ManagerReport managerMonth() {
+        return reportService.getManager(monthStart, end);
+    }
+
+    @Benchmark
+    public ManagerReport managerYear() {
+        return reportService.getManager(yearStart, end);
+    }
+}
@@ -0,0 +1,117 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.entities.Role;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.entities.StaffStatus;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import com.softcafe.clinic_system.services.StaffNameSearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches {@code staffRows} staff by parts of their names, through the LIKE scan the staff list used to run and
+ * through the trigram index. Names are drawn from common first and last names, so a full name matches about a
+ * hundred staff and part of a last name a few thousand.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbench.jmh="StaffSearchBenchmark -p appointments=0"}
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StaffSearchBenchmark {
+    private static final long FIRST_ID = 1_000_000;
+    private static final Pageable LAST_LOGIN = PageRequest.of(0, 10, Sort.by("lastLogin").descending());
+
+    @Param({"100000"})
+    public int staffRows;
+
+    private StaffRepository staffRepository;
+    private StaffNameSearchService staffNameSearchService;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        staffRepository = context.bean(StaffRepository.class);
+        staffNameSearchService = context.bean(StaffNameSearchService.class);
+        JdbcTemplate jdbcTemplate = context.bean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < staffRows; i++) {
+            long id = FIRST_ID + i;
+            rows.add(new Object[]{
+                    id, PatientSearchBenchmark.FIRST[random.nextInt(PatientSearchBenchmark.FIRST.length)] + " " +
+                    PatientSearchBenchmark.LAST[random.nextInt(PatientSearchBenchmark.LAST.length)],
+                    "member" + id + "@example.com", DatasetSeeder.phone(3, i), "M" + id, "Nairobi",
+                    Date.valueOf("1990-01-01"), "FEMALE", Timestamp.valueOf(now.minusMinutes(i)), Timestamp.valueOf(now),
+                    "member" + id, "password", StaffStatus.values()[i % StaffStatus.values().length].name(),
+                    random.nextInt(Role.values().length), Timestamp.valueOf(now.minusSeconds(i))
+            });
+
+            if (rows.size() == 1000 || i == staffRows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO staff (id, full_name, email_address, phone_number, " +
+                        "national_id_number, address, date_of_birth, gender, created_at, updated_at, username, password, " +
+                        "status, role, last_login) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+
+        // The index was built on startup, before the staff existed
+        staffNameSearchService.build();
+    }
+
+    @Benchmark
+    public Page<Staff> fullNameLike() {
+        return staffRepository.findByNameLike("%" + fullName().toLowerCase() + "%", LAST_LOGIN);
+    }
+
+    @Benchmark
+    public Page<Staff> fullNameTrigram() {
+        return staffNameSearchService.search(fullName(), null, null, LAST_LOGIN);
+    }
+
+    @Benchmark
+    public Page<Staff> fullNameWithRoleTrigram() {
+        return staffNameSearchService.search(fullName(), Role.DOCTOR, null, LAST_LOGIN);
+    }
+
+    @Benchmark
+    public Page<Staff> partialNameLike() {
+        return staffRepository.findByNameLike("%" + partialName().toLowerCase() + "%", LAST_LOGIN);
+    }
+
+    @Benchmark
+    public Page<Staff> partialNameTrigram() {
+        return staffNameSearchService.search(partialName(), null, null, LAST_LOGIN);
+    }
+
+    private static String fullName() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return PatientSearchBenchmark.FIRST[random.nextInt(PatientSearchBenchmark.FIRST.length)] + " " +
+                PatientSearchBenchmark.LAST[random.nextInt(PatientSearchBenchmark.LAST.length)];
+    }
+
+    /**
+     * The middle of a last name, as typed partway through
+     */
+    private static String partialName() {
+        String last = PatientSearchBenchmark.LAST[ThreadLocalRandom.current().nextInt(PatientSearchBenchmark.LAST.length)];
+        return last.substring(1, Math.min(last.length(), 5));
+    }
+}
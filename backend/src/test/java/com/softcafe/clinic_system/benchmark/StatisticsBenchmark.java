@@ -0,0 +1,33 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.dto.report.ManagerStats;
+import com.softcafe.clinic_system.dto.report.ReceptionistStats;
+import com.softcafe.clinic_system.services.StatisticsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatisticsBenchmark {
+    private StatisticsService statisticsService;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        statisticsService = context.bean(StatisticsService.class);
+    }
+
+    @Benchmark
+    public ManagerStats manager() {
+        return statisticsService.getForManager();
+    }
+
+    @Benchmark
+    public ReceptionistStats receptionist() {
+        return statisticsService.getForReceptionist(DatasetSeeder.DOCTORS + 1);
+    }
+}
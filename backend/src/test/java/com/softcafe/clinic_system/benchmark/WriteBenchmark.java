@@ -0,0 +1,116 @@
+package com.softcafe.clinic_system.benchmark;
+
+import com.softcafe.clinic_system.ClinicSystemApplication;
+import com.softcafe.clinic_system.entities.Billing;
+import com.softcafe.clinic_system.entities.Patient;
+import com.softcafe.clinic_system.entities.PaymentStatus;
+import com.softcafe.clinic_system.entities.Record;
+import com.softcafe.clinic_system.entities.Staff;
+import com.softcafe.clinic_system.repositories.BillingRepository;
+import com.softcafe.clinic_system.repositories.PatientRepository;
+import com.softcafe.clinic_system.repositories.RecordRepository;
+import com.softcafe.clinic_system.repositories.StaffRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk record and billing inserts, including their collection rows.
+ * Scores are in entities per second; compare the {@code batchSize} runs to see the gain of JDBC batching.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriteBenchmark {
+    private static final int ROWS = 100;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private RecordRepository recordRepository;
+    private BillingRepository billingRepository;
+    private Patient patient;
+    private Staff doctor;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ClinicSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:writes" + batchSize + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.profiles.active=benchmark",
+                        "--app.cors.allowed-origin=http://localhost",
+                        "--logging.level.root=WARN"
+                );
+
+        // Staff and patients only, the measured tables start empty
+        new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(0);
+
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        recordRepository = context.getBean(RecordRepository.class);
+        billingRepository = context.getBean(BillingRepository.class);
+        patient = context.getBean(PatientRepository.class).findById(DatasetSeeder.STAFF + 1L).orElseThrow();
+        doctor = context.getBean(StaffRepository.class).findById(1L).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int createRecords() {
+        List<Record> records = new ArrayList<>(ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            records.add(Record.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .reason("Check-up")
+                    .symptoms(List.of("fever", "headache"))
+                    .diagnosis("Malaria")
+                    .treatment(List.of("artemether"))
+                    .notes(List.of("Review in a week"))
+                    .build());
+        }
+
+        return transactionTemplate.execute(status -> recordRepository.saveAll(records).size());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int createBillings() {
+        List<Billing> billings = new ArrayList<>(ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            Billing billing = new Billing();
+            billing.setPatient(patient);
+            billing.setBills(Map.of("consultation", 500.0, "pharmacy", 1200.0));
+            billing.setTotalAmount(1700);
+            billing.setPaymentMethod("cash");
+            billing.setAmountPaid(0);
+            billing.setStatus(PaymentStatus.PENDING);
+            billings.add(billing);
+        }
+
+        return transactionTemplate.execute(status -> billingRepository.saveAll(billings).size());
+    }
+}